@@ -0,0 +1,59 @@
+package com.akrima.employeemanagement.benchmarks;
+
+import com.akrima.employeemanagement.ContentEncoding;
+import com.akrima.employeemanagement.EmployeeJsonCodec;
+import com.akrima.employeemanagement.model.Employee;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU time of {@link ContentEncoding#compressToBase64} (compression plus base64) per compression level, for list
+ * responses of increasing size. The setup prints the compressed size of each combination so the time can be
+ * weighed against the bytes saved.
+ * <p>
+ * The forked JVM is sized like a 512 MB function (heap below the memory setting, one processor). Lambda also
+ * gives a 512 MB function only about a third of a vCPU, so absolute times there are roughly three times those
+ * measured on an unthrottled core; run under a CPU quota (e.g. {@code systemd-run -p CPUQuota=30% ...}) to
+ * reproduce them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx384m", "-XX:ActiveProcessorCount=1"})
+@State(Scope.Benchmark)
+public class CompressionBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int employeeCount;
+
+    @Param({"1", "4", "6", "9"})
+    public int level;
+
+    @Param({ContentEncoding.GZIP})
+    public String encoding;
+
+    private byte[] body;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<Employee> employees = new ArrayList<>(employeeCount);
+        for (int i = 0; i < employeeCount; i++) {
+            employees.add(StubDynamoDbClient.employee(i));
+        }
+        body = EmployeeJsonCodec.writeEmployees(employees).getBytes(StandardCharsets.UTF_8);
+        int compressed = ContentEncoding.compressToBase64(body, encoding, level).length();
+        System.out.printf("%n%d employees, %s level %d: %d -> %d bytes base64-encoded (%.1f%%)%n",
+                employeeCount, encoding, level, body.length, compressed, 100.0 * compressed / body.length);
+    }
+
+    @Benchmark
+    public String compress() {
+        return ContentEncoding.compressToBase64(body, encoding, level);
+    }
+}
@@ -0,0 +1,34 @@
+package com.akrima.employeemanagement.benchmarks;
+
+import com.akrima.employeemanagement.EmployeeItemMapper;
+import com.akrima.employeemanagement.model.Employee;
+import org.openjdk.jmh.annotations.*;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Employee to DynamoDB item mapping, in both directions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeItemMapperBenchmark {
+
+    private final Employee employee = StubDynamoDbClient.employee(1);
+    private final Map<String, AttributeValue> item = EmployeeItemMapper.toItem(employee);
+
+    @Benchmark
+    public Map<String, AttributeValue> toItem() {
+        return EmployeeItemMapper.toItem(employee);
+    }
+
+    @Benchmark
+    public Employee fromItem() {
+        return EmployeeItemMapper.fromItem(item);
+    }
+}
@@ -0,0 +1,45 @@
+package com.akrima.employeemanagement.benchmarks;
+
+import com.akrima.employeemanagement.EmployeeJsonCodec;
+import com.akrima.employeemanagement.model.Employee;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Employee JSON encode and decode, through {@link EmployeeJsonCodec} and, as a reference point, through a new
+ * ObjectMapper per call as the handlers originally did.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeJsonCodecBenchmark {
+
+    private final Employee employee = new Employee("1234", "John", "Doe", "Developer");
+    private final String json = "{\"id\":\"1234\",\"firstName\":\"John\",\"lastName\":\"Doe\",\"jobPosition\":\"Developer\"}";
+
+    @Benchmark
+    public String encode() throws IOException {
+        return EmployeeJsonCodec.writeEmployee(employee);
+    }
+
+    @Benchmark
+    public Employee decode() throws IOException {
+        return EmployeeJsonCodec.readEmployee(json);
+    }
+
+    @Benchmark
+    public String encodeWithNewObjectMapper() throws Exception {
+        return new ObjectMapper().writeValueAsString(employee);
+    }
+
+    @Benchmark
+    public Employee decodeWithNewObjectMapper() throws Exception {
+        return new ObjectMapper().readValue(json, Employee.class);
+    }
+}
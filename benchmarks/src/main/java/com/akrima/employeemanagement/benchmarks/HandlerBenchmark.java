@@ -0,0 +1,119 @@
+package com.akrima.employeemanagement.benchmarks;
+
+import com.akrima.employeemanagement.*;
+import com.amazonaws.services.lambda.runtime.ClientContext;
+import com.amazonaws.services.lambda.runtime.CognitoIdentity;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full {@code handleRequest} per operation for each of the five CRUD handlers, against
+ * {@link StubDynamoDbClient}. {@code retrieveEmployee} bypasses the warm-instance cache (every call reads the
+ * item), {@code retrieveEmployeeCached} measures a cache hit.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HandlerBenchmark {
+
+    private static final String EMPLOYEE_JSON = "{\"id\":\"1\",\"firstName\":\"John\",\"lastName\":\"Doe\",\"jobPosition\":\"Developer\"}";
+
+    // Number of items the stubbed Scan returns to RetrieveAllEmployeesLambda
+    @Param({"100"})
+    public int scanItemCount;
+
+    private final Context context = new BenchmarkContext();
+    private AddEmployeeLambda addEmployeeLambda;
+    private RetrieveEmployeeLambda retrieveEmployeeLambda;
+    private RetrieveEmployeeLambda cachedRetrieveEmployeeLambda;
+    private RetrieveAllEmployeesLambda retrieveAllEmployeesLambda;
+    private UpdateEmployeeLambda updateEmployeeLambda;
+    private DeleteEmployeeLambda deleteEmployeeLambda;
+
+    private APIGatewayProxyRequestEvent employeeBodyRequest;
+    private APIGatewayProxyRequestEvent employeeIdRequest;
+    private APIGatewayProxyRequestEvent emptyRequest;
+
+    @Setup
+    public void setUp() {
+        StubDynamoDbClient dynamoDbClient = new StubDynamoDbClient(scanItemCount);
+        EmployeeCache noCache = new EmployeeCache(Duration.ZERO, 0, System::nanoTime);
+        addEmployeeLambda = new AddEmployeeLambda(dynamoDbClient, noCache);
+        retrieveEmployeeLambda = new RetrieveEmployeeLambda(dynamoDbClient, noCache);
+        cachedRetrieveEmployeeLambda = new RetrieveEmployeeLambda(dynamoDbClient,
+                new EmployeeCache(Duration.ofHours(1), 1_000, System::nanoTime));
+        retrieveAllEmployeesLambda = new RetrieveAllEmployeesLambda(dynamoDbClient);
+        updateEmployeeLambda = new UpdateEmployeeLambda(dynamoDbClient, noCache);
+        deleteEmployeeLambda = new DeleteEmployeeLambda(dynamoDbClient, noCache);
+
+        employeeBodyRequest = new APIGatewayProxyRequestEvent().withBody(EMPLOYEE_JSON);
+        employeeIdRequest = new APIGatewayProxyRequestEvent().withPathParameters(Map.of("id", "1"));
+        emptyRequest = new APIGatewayProxyRequestEvent();
+    }
+
+    @Benchmark
+    public APIGatewayProxyResponseEvent addEmployee() {
+        return addEmployeeLambda.handleRequest(employeeBodyRequest, context);
+    }
+
+    @Benchmark
+    public APIGatewayProxyResponseEvent retrieveEmployee() {
+        return retrieveEmployeeLambda.handleRequest(employeeIdRequest, context);
+    }
+
+    @Benchmark
+    public APIGatewayProxyResponseEvent retrieveEmployeeCached() {
+        return cachedRetrieveEmployeeLambda.handleRequest(employeeIdRequest, context);
+    }
+
+    @Benchmark
+    public APIGatewayProxyResponseEvent retrieveAllEmployees() {
+        return retrieveAllEmployeesLambda.handleRequest(emptyRequest, context);
+    }
+
+    @Benchmark
+    public APIGatewayProxyResponseEvent updateEmployee() {
+        return updateEmployeeLambda.handleRequest(employeeBodyRequest, context);
+    }
+
+    @Benchmark
+    public APIGatewayProxyResponseEvent deleteEmployee() {
+        return deleteEmployeeLambda.handleRequest(employeeIdRequest, context);
+    }
+
+    private static final class BenchmarkContext implements Context {
+        private static final LambdaLogger LOGGER = new LambdaLogger() {
+            @Override
+            public void log(String message) {
+                throw new IllegalStateException("Unexpected handler error: " + message);
+            }
+
+            @Override
+            public void log(byte[] message) {
+                log(new String(message));
+            }
+        };
+
+        @Override public String getAwsRequestId() { return "benchmark"; }
+        @Override public String getLogGroupName() { return null; }
+        @Override public String getLogStreamName() { return null; }
+        @Override public String getFunctionName() { return "benchmark"; }
+        @Override public String getFunctionVersion() { return "$LATEST"; }
+        @Override public String getInvokedFunctionArn() { return null; }
+        @Override public CognitoIdentity getIdentity() { return null; }
+        @Override public ClientContext getClientContext() { return null; }
+        @Override public int getRemainingTimeInMillis() { return 30_000; }
+        @Override public int getMemoryLimitInMB() { return 512; }
+        @Override public LambdaLogger getLogger() { return LOGGER; }
+    }
+}
@@ -0,0 +1,67 @@
+package com.akrima.employeemanagement.benchmarks;
+
+import com.akrima.employeemanagement.EmployeeItemMapper;
+import com.akrima.employeemanagement.model.Employee;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-process {@link DynamoDbClient} returning prebuilt responses, so the benchmarks measure the handler code
+ * (parsing, request building, mapping, serialisation) and not the SDK's HTTP stack or the network.
+ */
+final class StubDynamoDbClient implements DynamoDbClient {
+
+    private final GetItemResponse getItemResponse;
+    private final ScanResponse scanResponse;
+
+    StubDynamoDbClient(int scanItemCount) {
+        this.getItemResponse = GetItemResponse.builder().item(EmployeeItemMapper.toItem(employee(1))).build();
+        List<Map<String, AttributeValue>> items = new ArrayList<>(scanItemCount);
+        for (int i = 0; i < scanItemCount; i++) {
+            items.add(EmployeeItemMapper.toItem(employee(i)));
+        }
+        this.scanResponse = ScanResponse.builder().items(items).count(scanItemCount).scannedCount(scanItemCount).build();
+    }
+
+    static Employee employee(int i) {
+        return new Employee(Integer.toString(i), "John" + i, "Doe" + i, "Developer");
+    }
+
+    @Override
+    public GetItemResponse getItem(GetItemRequest getItemRequest) {
+        return getItemResponse;
+    }
+
+    @Override
+    public PutItemResponse putItem(PutItemRequest putItemRequest) {
+        return PutItemResponse.builder().build();
+    }
+
+    @Override
+    public UpdateItemResponse updateItem(UpdateItemRequest updateItemRequest) {
+        return UpdateItemResponse.builder().build();
+    }
+
+    @Override
+    public DeleteItemResponse deleteItem(DeleteItemRequest deleteItemRequest) {
+        return DeleteItemResponse.builder().build();
+    }
+
+    @Override
+    public ScanResponse scan(ScanRequest scanRequest) {
+        return scanResponse;
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+}
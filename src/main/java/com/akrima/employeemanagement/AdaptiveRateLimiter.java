@@ -0,0 +1,233 @@
+package com.akrima.employeemanagement;
+
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.RequestLimitExceededException;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Client-side rate limiting of the DynamoDB calls of this execution environment, adapting to throttling.
+ * <p>
+ * Dormant, and costing a volatile read per call, until DynamoDB throttles. It then becomes a token bucket starting
+ * at the maximum rate, whose rate follows AIMD: each throttling error cuts it to 70% (at most once per 100 ms, so a
+ * burst of concurrent failures counts once, and never below the minimum rate), each successful call raises it by
+ * about 5% per second of traffic. Back at the maximum rate, the limiter goes dormant again. A caller that would wait
+ * longer than {@code maxWait} for a token is turned away with a 429 {@link ThrottledException} instead of queueing.
+ * <p>
+ * Throttled calls are retried after a jittered backoff, but every retry also spends a token of a retry budget that
+ * successful calls refill by 0.1. Once the budget is empty, a throttled call fails at once with a 503
+ * {@link ThrottledException}, so throttling cannot multiply the load on the table. The SDK does not retry throttling
+ * itself inside a limited call ({@link #inLimitedCall()}), only outside, e.g. for the exporter.
+ */
+public class AdaptiveRateLimiter {
+
+    /**
+     * Waits for the given number of nanoseconds; {@link Thread#sleep} outside tests.
+     */
+    @FunctionalInterface
+    public interface Sleeper {
+        void sleep(long nanos) throws InterruptedException;
+    }
+
+    private static final double DECREASE_FACTOR = 0.7;
+    // At r successful calls per second, r * 0.05: the rate grows by 5% per second while nothing is throttled
+    private static final double INCREASE_PER_SUCCESS = 0.05;
+    private static final long DECREASE_INTERVAL_NANOS = 100_000_000L;
+    private static final double RETRY_BUDGET_REFILL = 0.1;
+    private static final JitteredBackoff BACKOFF = new JitteredBackoff(25, 1_000, 4);
+    private static final ThreadLocal<Boolean> IN_LIMITED_CALL = new ThreadLocal<>();
+
+    private static final AdaptiveRateLimiter SHARED = new AdaptiveRateLimiter(
+            doubleFromEnvironment("DYNAMODB_RATE_LIMIT_MAX", 1_000),
+            doubleFromEnvironment("DYNAMODB_RATE_LIMIT_MIN", 5),
+            Duration.ofMillis((long) doubleFromEnvironment("DYNAMODB_RATE_LIMIT_MAX_WAIT_MILLIS", 1_000)),
+            (int) doubleFromEnvironment("DYNAMODB_RETRY_BUDGET", 20),
+            System::nanoTime,
+            nanos -> Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000)));
+
+    private final double maxRate;
+    private final double minRate;
+    private final long maxWaitNanos;
+    private final double maxRetryTokens;
+    private final LongSupplier nanoClock;
+    private final Sleeper sleeper;
+
+    private volatile boolean limiting;
+    private double rate;
+    private double tokens;
+    private long lastRefillNanos;
+    private long lastDecreaseNanos;
+    private double retryTokens;
+
+    public AdaptiveRateLimiter(double maxRate, double minRate, Duration maxWait, int retryBudget,
+                               LongSupplier nanoClock, Sleeper sleeper) {
+        this.maxRate = maxRate;
+        this.minRate = minRate;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.maxRetryTokens = retryBudget;
+        this.nanoClock = nanoClock;
+        this.sleeper = sleeper;
+        this.rate = maxRate;
+        this.tokens = burst();
+        this.lastRefillNanos = nanoClock.getAsLong();
+        this.lastDecreaseNanos = lastRefillNanos - DECREASE_INTERVAL_NANOS;
+        this.retryTokens = retryBudget;
+    }
+
+    /**
+     * The limiter of this execution environment, configured by DYNAMODB_RATE_LIMIT_MAX and DYNAMODB_RATE_LIMIT_MIN
+     * (calls per second), DYNAMODB_RATE_LIMIT_MAX_WAIT_MILLIS and DYNAMODB_RETRY_BUDGET.
+     */
+    public static AdaptiveRateLimiter shared() {
+        return SHARED;
+    }
+
+    /**
+     * Runs one DynamoDB call under the limiter, retrying it while it is throttled and the retry budget allows.
+     *
+     * @throws ThrottledException 429 if no token is available within the maximum wait, 503 if the table is still
+     *                            throttling when the retries or the retry budget run out
+     */
+    public <T> T call(Supplier<T> operation) {
+        for (int retry = 0; ; retry++) {
+            acquire();
+            Boolean outerCall = IN_LIMITED_CALL.get();
+            IN_LIMITED_CALL.set(Boolean.TRUE);
+            try {
+                T result = operation.get();
+                onSuccess();
+                return result;
+            } catch (RuntimeException e) {
+                if (!isThrottling(e)) {
+                    throw e;
+                }
+                onThrottle();
+                if (retry == BACKOFF.maxRetries() || !tryAcquireRetry()) {
+                    throw new ThrottledException(503, retryAfterSeconds(), "DynamoDB is throttling, retries exhausted", e);
+                }
+                sleep(BACKOFF.delayMillis(retry) * 1_000_000);
+            } finally {
+                if (outerCall == null) {
+                    IN_LIMITED_CALL.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * The current rate in calls per second, or {@link Double#POSITIVE_INFINITY} while dormant.
+     */
+    public synchronized double rate() {
+        return limiting ? rate : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Whether the current thread is running the operation of a {@link #call(Supplier)}, whose throttling the limiter
+     * retries; the SDK must not retry it as well.
+     */
+    public static boolean inLimitedCall() {
+        return IN_LIMITED_CALL.get() != null;
+    }
+
+    /**
+     * Whether DynamoDB rejected the call for exceeding the table's or the account's throughput.
+     */
+    public static boolean isThrottling(Throwable e) {
+        return e instanceof ProvisionedThroughputExceededException
+                || e instanceof RequestLimitExceededException
+                || (e instanceof AwsServiceException serviceException && serviceException.isThrottlingException());
+    }
+
+    private void acquire() {
+        if (!limiting) {
+            return;
+        }
+        long waitNanos;
+        synchronized (this) {
+            refill();
+            waitNanos = tokens >= 1 ? 0 : (long) ((1 - tokens) / rate * 1e9);
+            if (waitNanos > maxWaitNanos) {
+                throw new ThrottledException(429, Math.max(1, (long) Math.ceil(waitNanos / 1e9)),
+                        "Client-side rate limit of " + Math.round(rate) + " calls per second reached", null);
+            }
+            // Taken now even when waiting for it, so later callers queue behind this one
+            tokens -= 1;
+        }
+        if (waitNanos > 0) {
+            sleep(waitNanos);
+        }
+    }
+
+    private void onSuccess() {
+        if (!limiting) {
+            return;
+        }
+        synchronized (this) {
+            rate = Math.min(maxRate, rate + INCREASE_PER_SUCCESS);
+            retryTokens = Math.min(maxRetryTokens, retryTokens + RETRY_BUDGET_REFILL);
+            if (rate >= maxRate) {
+                limiting = false;
+                retryTokens = maxRetryTokens;
+            }
+        }
+    }
+
+    private synchronized void onThrottle() {
+        long now = nanoClock.getAsLong();
+        if (!limiting) {
+            limiting = true;
+            rate = maxRate;
+            tokens = burst();
+            lastRefillNanos = now;
+        }
+        if (now - lastDecreaseNanos >= DECREASE_INTERVAL_NANOS) {
+            refill();
+            rate = Math.max(minRate, rate * DECREASE_FACTOR);
+            // Drop any saved-up burst, it would be throttled as well
+            tokens = Math.min(tokens, 0);
+            lastDecreaseNanos = now;
+        }
+    }
+
+    private synchronized boolean tryAcquireRetry() {
+        if (retryTokens < 1) {
+            return false;
+        }
+        retryTokens -= 1;
+        return true;
+    }
+
+    private synchronized long retryAfterSeconds() {
+        return Math.max(1, (long) Math.ceil(1 / rate));
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(burst(), tokens + (now - lastRefillNanos) / 1e9 * rate);
+        lastRefillNanos = now;
+    }
+
+    /**
+     * A tenth of a second of traffic can be sent at once.
+     */
+    private double burst() {
+        return Math.max(1, rate / 10);
+    }
+
+    private void sleep(long nanos) {
+        try {
+            sleeper.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ThrottledException(503, 1, "Interrupted while waiting for DynamoDB capacity", e);
+        }
+    }
+
+    private static double doubleFromEnvironment(String name, double defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : Double.parseDouble(value.trim());
+    }
+}
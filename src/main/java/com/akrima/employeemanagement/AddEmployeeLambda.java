@@ -5,64 +5,77 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
-import software.amazon.awssdk.services.dynamodb.model.*;
-
-import java.util.Map;
 
 public class AddEmployeeLambda implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
 
-    private static final String DYNAMO_DB_TABLE_NAME = "Employee";
-    private final DynamoDbClient dynamoDbClient;
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeCache employeeCache;
+    private final IdempotentRequests idempotentRequests;
 
     public AddEmployeeLambda() {
         // Default Constructor required aws lambda
-        this.dynamoDbClient = DynamoDbClientFactory.createDynamoDbClient();
+        DynamoDbClient dynamoDbClient = DynamoDbClientFactory.sharedDynamoDbClient();
+        DynamoDbClientFactory.primeIfEnabled(dynamoDbClient);
+        this.employeeRepository = DynamoDbEmployeeRepository.rateLimited(dynamoDbClient);
+        this.employeeCache = EmployeeCache.shared();
+        this.idempotentRequests = IdempotentRequests.backedBy(new DynamoDbIdempotencyStore(dynamoDbClient));
     }
 
     public AddEmployeeLambda(DynamoDbClient dynamoDbClient) {
-        this.dynamoDbClient = dynamoDbClient;
+        this(dynamoDbClient, EmployeeCache.shared());
+    }
+    public AddEmployeeLambda(DynamoDbClient dynamoDbClient, EmployeeCache employeeCache) {
+        this(DynamoDbEmployeeRepository.rateLimited(dynamoDbClient), employeeCache,
+                IdempotentRequests.backedBy(new DynamoDbIdempotencyStore(dynamoDbClient)));
+    }
+    public AddEmployeeLambda(EmployeeRepository employeeRepository) {
+        this(employeeRepository, EmployeeCache.shared());
+    }
+    public AddEmployeeLambda(EmployeeRepository employeeRepository, EmployeeCache employeeCache) {
+        this(employeeRepository, employeeCache, IdempotentRequests.backedBy(new InMemoryIdempotencyStore()));
+    }
+    public AddEmployeeLambda(EmployeeRepository employeeRepository, EmployeeCache employeeCache, IdempotentRequests idempotentRequests) {
+        this.employeeRepository = employeeRepository;
+        this.employeeCache = employeeCache;
+        this.idempotentRequests = idempotentRequests;
     }
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent apiGatewayProxyRequestEvent, Context context) {
+        InvocationMetrics metrics = InvocationMetrics.start("AddEmployeeLambda", context);
+        try {
+            // A retry carrying the Idempotency-Key of an earlier request gets its response, see IdempotentRequests
+            return metrics.recordResponse(idempotentRequests.execute("addEmployee", apiGatewayProxyRequestEvent, context,
+                    () -> handle(apiGatewayProxyRequestEvent, context)));
+        } finally {
+            metrics.finish();
+        }
+    }
+
+    private APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent apiGatewayProxyRequestEvent, Context context) {
         APIGatewayProxyResponseEvent responseEvent=new APIGatewayProxyResponseEvent();
         try {
-            Employee newEmployee = new ObjectMapper().readValue(apiGatewayProxyRequestEvent.getBody(), Employee.class);
-            // Check if the employee already exists
-            if (employeeExists(newEmployee.id())) {
+            Employee newEmployee = EmployeeJsonCodec.readEmployee(ContentEncoding.requestBody(apiGatewayProxyRequestEvent));
+            // Add the employee only if the id is not taken yet, in a single round trip
+            boolean added;
+            try {
+                added = employeeRepository.add(newEmployee);
+            } finally {
+                // Whatever the outcome, this environment's cached copy may now be stale
+                employeeCache.invalidate(newEmployee.id());
+            }
+            if (!added) {
                 return responseEvent.withStatusCode(409).withBody("Employee with ID " + newEmployee.id() + " already exists.");
             }
 
-            // If the employee doesn't exist, add them to DynamoDB
-            dynamoDbClient.putItem(PutItemRequest.builder()
-                    .tableName(DYNAMO_DB_TABLE_NAME)
-                    .item(employeeToDynamoDbItem(newEmployee))
-                    .build());
-
             return responseEvent.withStatusCode(201).withBody("Employee added successfully with ID: " + newEmployee.id());
+        } catch (ThrottledException e) {
+            return e.toResponse(responseEvent);
         } catch (Exception e) {
             // Handle any errors
             context.getLogger().log("Error adding employee: " + e.getMessage());
             return responseEvent.withStatusCode(500).withBody("Error adding employee.");
         }
     }
-
-    private java.util.Map<String, AttributeValue> employeeToDynamoDbItem(Employee employee) {
-        return Map.of(
-                "id", AttributeValue.builder().s(employee.id()).build(),
-                "firstName", AttributeValue.builder().s(employee.firstName()).build(),
-                "lastName", AttributeValue.builder().s(employee.lastName()).build(),
-                "jobPosition", AttributeValue.builder().s(employee.jobPosition()).build()
-        );
-    }
-
-    public boolean employeeExists(String id) {
-        GetItemResponse response = dynamoDbClient.getItem(GetItemRequest.builder()
-                .tableName(DYNAMO_DB_TABLE_NAME)
-                .key(Map.of("id", AttributeValue.builder().s(id).build()))
-                .build());
-        return response.hasItem();
-    }
 }
@@ -0,0 +1,113 @@
+package com.akrima.employeemanagement;
+
+import com.akrima.employeemanagement.model.Employee;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.util.*;
+
+/**
+ * Bulk add: writes a JSON array of employees with BatchWriteItem, 25 items per call, chunks sent concurrently.
+ * <p>
+ * As {@link AddEmployeeLambda} answers 409, an employee whose id is already in the table is not overwritten: each
+ * chunk first reads its ids with BatchGetItem (see {@link DynamoDbBatches#addEmployees}). BatchWriteItem does not
+ * support condition expressions, so an employee added by another request between that read and the write is still
+ * overwritten. Each employee gets its own result: {@code written}, {@code failed} (still unprocessed after the
+ * retries, or its chunk was rejected), {@code duplicate} (the id already exists, or appears earlier in the request)
+ * or {@code invalid} (no id, a missing name or no job position, see
+ * {@link EmployeeItemMapper#missingAttribute(Employee)}), which is never sent so it cannot fail the chunk it would
+ * have been in. Calls go through the shared {@link AdaptiveRateLimiter}; a chunk the table keeps throttling is
+ * reported as {@code failed}.
+ */
+public class AddEmployeesLambda implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+
+    private final DynamoDbClient dynamoDbClient;
+    private final EmployeeCache employeeCache;
+    private final AdaptiveRateLimiter rateLimiter = AdaptiveRateLimiter.shared();
+
+    public AddEmployeesLambda() {
+        // Default Constructor required aws lambda
+        this.dynamoDbClient = DynamoDbClientFactory.sharedDynamoDbClient();
+        DynamoDbClientFactory.primeIfEnabled(this.dynamoDbClient);
+        this.employeeCache = EmployeeCache.shared();
+    }
+
+    public AddEmployeesLambda(DynamoDbClient dynamoDbClient) {
+        this(dynamoDbClient, EmployeeCache.shared());
+    }
+    public AddEmployeesLambda(DynamoDbClient dynamoDbClient, EmployeeCache employeeCache) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.employeeCache = employeeCache;
+    }
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent apiGatewayProxyRequestEvent, Context context) {
+        InvocationMetrics metrics = InvocationMetrics.start("AddEmployeesLambda", context);
+        try {
+            return metrics.recordResponse(handle(apiGatewayProxyRequestEvent, context));
+        } finally {
+            metrics.finish();
+        }
+    }
+
+    private APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent apiGatewayProxyRequestEvent, Context context) {
+        APIGatewayProxyResponseEvent responseEvent = new APIGatewayProxyResponseEvent();
+        try {
+            List<Employee> employees = EmployeeJsonCodec.readEmployees(ContentEncoding.requestBody(apiGatewayProxyRequestEvent));
+            if (employees.isEmpty()) {
+                return responseEvent.withStatusCode(400).withBody("Invalid input. Please provide a non-empty array of employees.");
+            }
+
+            // A batch must not contain the same key twice, so only the first occurrence of an id is written
+            String[] statuses = new String[employees.size()];
+            Map<String, Employee> toWrite = new LinkedHashMap<>();
+            for (int i = 0; i < employees.size(); i++) {
+                Employee employee = employees.get(i);
+                if (EmployeeItemMapper.missingAttribute(employee) != null) {
+                    statuses[i] = "invalid";
+                } else if (toWrite.putIfAbsent(employee.id(), employee) != null) {
+                    statuses[i] = "duplicate";
+                }
+            }
+
+            DynamoDbBatches.AddResult result = DynamoDbBatches.addEmployees(dynamoDbClient, rateLimiter, toWrite.values(), context);
+            toWrite.keySet().forEach(employeeCache::invalidate);
+
+            int written = 0;
+            for (int i = 0; i < employees.size(); i++) {
+                if (statuses[i] == null) {
+                    String id = employees.get(i).id();
+                    statuses[i] = result.existingIds().contains(id) ? "duplicate"
+                            : result.failedIds().contains(id) ? "failed" : "written";
+                    written += "written".equals(statuses[i]) ? 1 : 0;
+                }
+            }
+
+            InvocationMetrics.recordResults(written);
+            int writtenCount = written;
+            String body = EmployeeJsonCodec.write(generator -> {
+                generator.writeStartObject();
+                generator.writeNumberField("written", writtenCount);
+                generator.writeNumberField("notWritten", employees.size() - writtenCount);
+                generator.writeArrayFieldStart("results");
+                for (int i = 0; i < employees.size(); i++) {
+                    generator.writeStartObject();
+                    generator.writeStringField("id", employees.get(i).id());
+                    generator.writeStringField("status", statuses[i]);
+                    generator.writeEndObject();
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+            });
+            // 207 Multi-Status tells the caller to inspect the per-item results
+            return responseEvent.withStatusCode(written == employees.size() ? 200 : 207).withBody(body);
+        } catch (Exception e) {
+            // Handle any errors
+            context.getLogger().log("Error adding employees: " + e.getMessage());
+            return responseEvent.withStatusCode(500).withBody("Error adding employees.");
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.akrima.employeemanagement;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * HTTP content coding for the API Gateway proxy integration.
+ * <p>
+ * Response bodies of at least RESPONSE_COMPRESSION_MIN_BYTES (default 1024) bytes are compressed with gzip or
+ * deflate when the request's {@code Accept-Encoding} allows it, at RESPONSE_COMPRESSION_LEVEL (default 1, see the
+ * CompressionBenchmark in the benchmarks module), and returned base64-encoded with {@code isBase64Encoded} set.
+ * Deflaters and output buffers are borrowed from a pool bounded by the number of processors, rather than kept per
+ * thread, since the HTTP server runs each request on its own thread: a Deflater the pool has no room for is
+ * {@code end()}ed right away instead of holding native memory until it is finalized. Brotli is not offered: the JDK
+ * has no encoder and the available ones are native libraries.
+ * <p>
+ * The API must declare binary media types for API Gateway to decode such responses, which also makes it pass some
+ * request bodies base64-encoded: handlers read them through {@link #requestBody(APIGatewayProxyRequestEvent)}.
+ */
+public final class ContentEncoding {
+
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+
+    private static final int MIN_BYTES = intFromEnvironment("RESPONSE_COMPRESSION_MIN_BYTES", 1024);
+    private static final int LEVEL = intFromEnvironment("RESPONSE_COMPRESSION_LEVEL", Deflater.BEST_SPEED);
+    // Buffers that grew beyond this are not kept for the next invocation
+    private static final int MAX_RETAINED_BUFFER_BYTES = 1024 * 1024;
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final BlockingQueue<Compressor> COMPRESSORS = new ArrayBlockingQueue<>(2 * Runtime.getRuntime().availableProcessors());
+
+    private ContentEncoding() {
+    }
+
+    /**
+     * The request body, decoded if API Gateway passed it base64-encoded.
+     */
+    public static String requestBody(APIGatewayProxyRequestEvent request) {
+        String body = request.getBody();
+        if (body != null && Boolean.TRUE.equals(request.getIsBase64Encoded())) {
+            return new String(Base64.getDecoder().decode(body), StandardCharsets.UTF_8);
+        }
+        return body;
+    }
+
+    /**
+     * Compresses the response body if the client accepts it and the body is large enough; otherwise returns the
+     * response untouched.
+     */
+    public static APIGatewayProxyResponseEvent compress(APIGatewayProxyRequestEvent request, APIGatewayProxyResponseEvent response) {
+        String body = response.getBody();
+        if (request == null || body == null || body.length() < MIN_BYTES / 3) {
+            // Cheap pre-check: a UTF-8 character is at most 3 bytes
+            return response;
+        }
+        String encoding = negotiate(header(request, "Accept-Encoding"));
+        if (encoding == null) {
+            return response;
+        }
+        byte[] input = body.getBytes(StandardCharsets.UTF_8);
+        if (input.length < MIN_BYTES) {
+            return response;
+        }
+
+        String compressed = compressToBase64(input, encoding, LEVEL);
+        if (compressed.length() >= input.length) {
+            // Incompressible: base64 would make it larger than the original
+            return response;
+        }
+        return encoded(response, encoding, compressed);
+    }
+
+    /**
+     * The body compressed ahead of time with each coding, for {@link #compress(APIGatewayProxyRequestEvent,
+     * APIGatewayProxyResponseEvent, Map)}: empty when the body is too small or does not compress.
+     */
+    static Map<String, String> precompress(String body) {
+        byte[] input = body.getBytes(StandardCharsets.UTF_8);
+        if (input.length < MIN_BYTES) {
+            return Map.of();
+        }
+        Map<String, String> compressed = new HashMap<>();
+        for (String encoding : new String[]{GZIP, DEFLATE}) {
+            String base64 = compressToBase64(input, encoding, LEVEL);
+            if (base64.length() < input.length) {
+                compressed.put(encoding, base64);
+            }
+        }
+        return Map.copyOf(compressed);
+    }
+
+    /**
+     * Like {@link #compress(APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent)}, with the body taken from
+     * {@link #precompress(String)} instead of being compressed again.
+     */
+    static APIGatewayProxyResponseEvent compress(APIGatewayProxyRequestEvent request, APIGatewayProxyResponseEvent response,
+                                                 Map<String, String> precompressed) {
+        String encoding = request == null || precompressed.isEmpty() ? null : negotiate(header(request, "Accept-Encoding"));
+        String compressed = encoding == null ? null : precompressed.get(encoding);
+        if (compressed == null) {
+            return response;
+        }
+        return encoded(response, encoding, compressed);
+    }
+
+    /**
+     * Picks the coding to use for an {@code Accept-Encoding} header: the accepted one with the highest q-value,
+     * gzip on a tie, or {@code null} if neither gzip nor deflate is acceptable.
+     */
+    static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        double gzip = 0;
+        double deflate = 0;
+        double wildcard = -1;
+        boolean gzipListed = false;
+        boolean deflateListed = false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = quality(parts);
+            switch (name) {
+                case GZIP, "x-gzip" -> {
+                    gzip = quality;
+                    gzipListed = true;
+                }
+                case DEFLATE -> {
+                    deflate = quality;
+                    deflateListed = true;
+                }
+                case "*" -> wildcard = quality;
+                default -> {
+                }
+            }
+        }
+        if (wildcard >= 0) {
+            gzip = gzipListed ? gzip : wildcard;
+            deflate = deflateListed ? deflate : wildcard;
+        }
+        if (gzip <= 0 && deflate <= 0) {
+            return null;
+        }
+        return gzip >= deflate ? GZIP : DEFLATE;
+    }
+
+    /**
+     * Compresses {@code input} with {@code encoding} ({@link #GZIP} or {@link #DEFLATE}) at {@code level} and
+     * returns the result base64-encoded.
+     */
+    public static String compressToBase64(byte[] input, String encoding, int level) {
+        Compressor compressor = COMPRESSORS.poll();
+        if (compressor == null) {
+            compressor = new Compressor();
+        }
+        try {
+            int length = compressor.compress(input, GZIP.equals(encoding), level);
+            ByteBuffer base64 = Base64.getEncoder().encode(ByteBuffer.wrap(compressor.buffer, 0, length));
+            return new String(base64.array(), 0, base64.limit(), StandardCharsets.ISO_8859_1);
+        } finally {
+            compressor.release();
+            if (!COMPRESSORS.offer(compressor)) {
+                compressor.end();
+            }
+        }
+    }
+
+    private static APIGatewayProxyResponseEvent encoded(APIGatewayProxyResponseEvent response, String encoding, String compressed) {
+        Map<String, String> headers = response.getHeaders() == null ? new HashMap<>() : new HashMap<>(response.getHeaders());
+        headers.put("Content-Encoding", encoding);
+        headers.put("Vary", "Accept-Encoding");
+        return response.withHeaders(headers).withBody(compressed).withIsBase64Encoded(true);
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    static String header(APIGatewayProxyRequestEvent request, String name) {
+        Map<String, String> headers = request.getHeaders();
+        if (headers == null) {
+            return null;
+        }
+        String value = headers.get(name);
+        if (value != null) {
+            return value;
+        }
+        // Header names are case-insensitive and clients do not agree on the casing
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name)) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static int intFromEnvironment(String name, int defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    /**
+     * Pooled Deflaters (raw for gzip, zlib-wrapped for deflate) and output buffer.
+     */
+    private static final class Compressor {
+
+        private final Deflater rawDeflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        private final Deflater zlibDeflater = new Deflater(Deflater.DEFAULT_COMPRESSION, false);
+        private final CRC32 crc = new CRC32();
+        private byte[] buffer = new byte[16 * 1024];
+
+        int compress(byte[] input, boolean gzip, int level) {
+            Deflater deflater = gzip ? rawDeflater : zlibDeflater;
+            deflater.reset();
+            deflater.setLevel(level);
+            deflater.setInput(input);
+            deflater.finish();
+
+            int length = 0;
+            if (gzip) {
+                System.arraycopy(GZIP_HEADER, 0, buffer, 0, GZIP_HEADER.length);
+                length = GZIP_HEADER.length;
+            }
+            while (!deflater.finished()) {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+            if (gzip) {
+                // Trailer: CRC-32 and uncompressed size, both little-endian
+                crc.reset();
+                crc.update(input);
+                if (buffer.length - length < 8) {
+                    buffer = Arrays.copyOf(buffer, length + 8);
+                }
+                length = writeIntLittleEndian(buffer, length, (int) crc.getValue());
+                length = writeIntLittleEndian(buffer, length, input.length);
+            }
+            return length;
+        }
+
+        void release() {
+            if (buffer.length > MAX_RETAINED_BUFFER_BYTES) {
+                buffer = new byte[16 * 1024];
+            }
+        }
+
+        /**
+         * Frees the native memory of both Deflaters, for a compressor the pool does not keep.
+         */
+        void end() {
+            rawDeflater.end();
+            zlibDeflater.end();
+        }
+
+        private static int writeIntLittleEndian(byte[] target, int offset, int value) {
+            target[offset] = (byte) value;
+            target[offset + 1] = (byte) (value >>> 8);
+            target[offset + 2] = (byte) (value >>> 16);
+            target[offset + 3] = (byte) (value >>> 24);
+            return offset + 4;
+        }
+    }
+}
@@ -5,25 +5,46 @@ import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
-import software.amazon.awssdk.services.dynamodb.model.*;
 
 import java.util.Map;
 
 public class DeleteEmployeeLambda implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
 
-    private static final String DYNAMO_DB_TABLE_NAME = "Employee";
-    private final DynamoDbClient dynamoDbClient;
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeCache employeeCache;
 
     public DeleteEmployeeLambda() {
         // Default Constructor required aws lambda
-        this.dynamoDbClient = DynamoDbClientFactory.createDynamoDbClient();
+        DynamoDbClient dynamoDbClient = DynamoDbClientFactory.sharedDynamoDbClient();
+        DynamoDbClientFactory.primeIfEnabled(dynamoDbClient);
+        this.employeeRepository = DynamoDbEmployeeRepository.rateLimited(dynamoDbClient);
+        this.employeeCache = EmployeeCache.shared();
     }
     public DeleteEmployeeLambda(DynamoDbClient dynamoDbClient) {
-        this.dynamoDbClient = dynamoDbClient;
+        this(dynamoDbClient, EmployeeCache.shared());
+    }
+    public DeleteEmployeeLambda(DynamoDbClient dynamoDbClient, EmployeeCache employeeCache) {
+        this(DynamoDbEmployeeRepository.rateLimited(dynamoDbClient), employeeCache);
+    }
+    public DeleteEmployeeLambda(EmployeeRepository employeeRepository) {
+        this(employeeRepository, EmployeeCache.shared());
+    }
+    public DeleteEmployeeLambda(EmployeeRepository employeeRepository, EmployeeCache employeeCache) {
+        this.employeeRepository = employeeRepository;
+        this.employeeCache = employeeCache;
     }
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent apiGatewayProxyRequestEvent, Context context) {
+        InvocationMetrics metrics = InvocationMetrics.start("DeleteEmployeeLambda", context);
+        try {
+            return metrics.recordResponse(handle(apiGatewayProxyRequestEvent, context));
+        } finally {
+            metrics.finish();
+        }
+    }
+
+    private APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent apiGatewayProxyRequestEvent, Context context) {
         APIGatewayProxyResponseEvent responseEvent = new APIGatewayProxyResponseEvent();
         try {
             // Check if the id is in the url path
@@ -32,29 +53,26 @@ public class DeleteEmployeeLambda implements RequestHandler<APIGatewayProxyReque
                 return responseEvent.withStatusCode(400).withBody("Invalid input. Please provide an employeeId.");
             }
             String employeeId = pathParameters.get("id");
-            if (!employeeExists(employeeId)) {
+
+            // Delete the employee only if they exist, in a single round trip
+            boolean deleted;
+            try {
+                deleted = employeeRepository.delete(employeeId);
+            } finally {
+                // Whatever the outcome, this environment's cached copy may now be stale
+                employeeCache.invalidate(employeeId);
+            }
+            if (!deleted) {
                 return responseEvent.withStatusCode(404).withBody("Employee with ID " + employeeId + " does not exist.");
             }
 
-            // If the employee exists, delete them from DynamoDB
-            DeleteItemResponse response = dynamoDbClient.deleteItem(DeleteItemRequest.builder()
-                    .tableName(DYNAMO_DB_TABLE_NAME)
-                    .key(Map.of("id", AttributeValue.builder().s(employeeId).build()))
-                    .build());
-
             return responseEvent.withStatusCode(202).withBody("Employee with ID " + employeeId + " deleted successfully.");
+        } catch (ThrottledException e) {
+            return e.toResponse(responseEvent);
         } catch (Exception e) {
             // Handle any errors
             context.getLogger().log("Error deleting employee: " + e.getMessage());
             return responseEvent.withStatusCode(500).withBody("Error deleting employee.");
         }
     }
-
-    private boolean employeeExists(String employeeId) {
-        GetItemResponse response = dynamoDbClient.getItem(GetItemRequest.builder()
-                .tableName(DYNAMO_DB_TABLE_NAME)
-                .key(Map.of("id", AttributeValue.builder().s(employeeId).build()))
-                .build());
-        return response.hasItem();
-    }
 }
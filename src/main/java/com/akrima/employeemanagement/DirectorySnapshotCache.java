@@ -0,0 +1,90 @@
+package com.akrima.employeemanagement;
+
+import com.akrima.employeemanagement.model.Employee;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * The whole employee list of {@code retrieveAllEmployees}, kept in the execution environment between warm
+ * invocations as the response body, its ETag and its gzip and deflate encodings, one snapshot per fieldset.
+ * <p>
+ * Each request reads the {@link EmployeeRepository#directoryVersion()} (one consistent GetItem) and reuses the
+ * snapshot built for that version; only when it moved is the table scanned again, with a strongly consistent scan
+ * so the snapshot holds every write the version counts. A snapshot is also rebuilt after
+ * EMPLOYEE_SNAPSHOT_MAX_AGE_SECONDS (default 300), which bounds how long a write whose bump was lost goes unseen.
+ */
+public final class DirectorySnapshotCache {
+
+    private static final DirectorySnapshotCache SHARED = new DirectorySnapshotCache(
+            Duration.ofSeconds(longFromEnvironment("EMPLOYEE_SNAPSHOT_MAX_AGE_SECONDS", 300)),
+            System::nanoTime);
+
+    private final long maxAgeNanos;
+    private final LongSupplier nanoClock;
+    private final Map<EmployeeFields, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    private long hits;
+    private long rebuilds;
+
+    public DirectorySnapshotCache(Duration maxAge, LongSupplier nanoClock) {
+        this.maxAgeNanos = maxAge.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * The snapshot cache of this execution environment, see EMPLOYEE_SNAPSHOT_MAX_AGE_SECONDS.
+     */
+    public static DirectorySnapshotCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * The current snapshot of {@code fields}, rebuilt from {@code employeeRepository} if the directory version moved.
+     */
+    public Snapshot get(EmployeeRepository employeeRepository, EmployeeFields fields) throws IOException {
+        long version = employeeRepository.directoryVersion();
+        long now = nanoClock.getAsLong();
+        Snapshot snapshot = snapshots.get(fields);
+        if (snapshot != null && snapshot.version == version && now - snapshot.builtAtNanos < maxAgeNanos) {
+            synchronized (this) {
+                hits++;
+            }
+            return snapshot;
+        }
+
+        // Concurrent rebuilds are not coordinated: they read the same version, and the newest snapshot is kept
+        List<Employee> employees = employeeRepository.findAll(fields, true);
+        String body = EmployeeJsonCodec.writeEmployees(employees, fields);
+        Snapshot rebuilt = new Snapshot(version, now, employees.size(), EntityTags.of(employees, null), body,
+                ContentEncoding.precompress(body));
+        snapshots.merge(fields, rebuilt, (current, candidate) -> candidate.version >= current.version ? candidate : current);
+        synchronized (this) {
+            rebuilds++;
+        }
+        return rebuilt;
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, rebuilds, snapshots.size());
+    }
+
+    private static long longFromEnvironment(String name, long defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : Long.parseLong(value.trim());
+    }
+
+    /**
+     * @param etag       as {@link EntityTags#of(List, String)}, {@code null} if an employee has no version
+     * @param compressed the body by content coding, see {@link ContentEncoding#precompress(String)}
+     */
+    public record Snapshot(long version, long builtAtNanos, int size, String etag, String body, Map<String, String> compressed) {
+    }
+
+    public record Stats(long hits, long rebuilds, int size) {
+    }
+}
@@ -0,0 +1,59 @@
+package com.akrima.employeemanagement;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.util.Map;
+
+/**
+ * A counter that moves after every write to the Employee table, so a copy of the whole table can be checked with one
+ * small read instead of a scan, see {@link DirectorySnapshotCache}. It is a single item of the
+ * EmployeeDirectoryVersion table, bumped with an atomic {@code ADD} once the write has succeeded, never before: a copy
+ * read after the version holds every write that came before the version.
+ * <p>
+ * The bump is a request of its own, so a writer failing between the two leaves its change unseen until the next write.
+ * It is only worth its request when the snapshot cache reading the version is on ({@link #enabled()}); otherwise the
+ * writers skip it.
+ */
+public final class DirectoryVersion {
+
+    public static final String TABLE_NAME = "EmployeeDirectoryVersion";
+    private static final Map<String, AttributeValue> KEY = Map.of("directory", AttributeValue.builder().s("Employee").build());
+
+    private DirectoryVersion() {
+    }
+
+    /**
+     * Whether writes bump the version: only with EMPLOYEE_SNAPSHOT_CACHE=true, the switch of the
+     * {@link DirectorySnapshotCache} that reads it.
+     */
+    public static boolean enabled() {
+        return Boolean.parseBoolean(System.getenv("EMPLOYEE_SNAPSHOT_CACHE"));
+    }
+
+    /**
+     * The current version, with a strongly consistent GetItem; 0 before the first write.
+     */
+    public static long read(DynamoDbClient dynamoDbClient) {
+        GetItemResponse response = dynamoDbClient.getItem(GetItemRequest.builder()
+                .tableName(TABLE_NAME)
+                .key(KEY)
+                .consistentRead(true)
+                .build());
+        AttributeValue version = response.hasItem() ? response.item().get("version") : null;
+        return version == null ? 0 : Long.parseLong(version.n());
+    }
+
+    public static void bump(DynamoDbClient dynamoDbClient) {
+        dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                .tableName(TABLE_NAME)
+                .key(KEY)
+                .updateExpression("ADD #version :one")
+                .expressionAttributeNames(Map.of("#version", "version"))
+                .expressionAttributeValues(Map.of(":one", AttributeValue.builder().n("1").build()))
+                .build());
+    }
+}
@@ -0,0 +1,215 @@
+package com.akrima.employeemanagement;
+
+import com.akrima.employeemanagement.model.Employee;
+import com.amazonaws.services.lambda.runtime.Context;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared plumbing for the handlers that split work into DynamoDB batch calls and send them concurrently.
+ */
+public final class DynamoDbBatches {
+
+    public static final int MAX_BATCH_WRITE_ITEMS = 25;
+    public static final int MAX_BATCH_GET_KEYS = 100;
+
+    private static final String DYNAMO_DB_TABLE_NAME = "Employee";
+    private static final JitteredBackoff BACKOFF = new JitteredBackoff(25, 2_000, 8);
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    // Batch calls are I/O bound, so the pool is sized for concurrency rather than for the (few) vCPUs of a Lambda
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(concurrency(), runnable -> {
+        Thread thread = new Thread(runnable, "dynamodb-batch-" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private DynamoDbBatches() {
+    }
+
+    /**
+     * The shared pool; tasks count towards the {@link InvocationMetrics} of the invocation that submits them.
+     */
+    public static Executor executor() {
+        return task -> EXECUTOR.execute(InvocationMetrics.propagate(task));
+    }
+
+    public static <T> List<List<T>> partition(List<T> items, int size) {
+        List<List<T>> chunks = new ArrayList<>((items.size() + size - 1) / size);
+        for (int start = 0; start < items.size(); start += size) {
+            chunks.add(items.subList(start, Math.min(start + size, items.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * Puts employees with BatchWriteItem, overwriting existing ones: 25 per call, chunks sent concurrently on the
+     * shared pool through {@code rateLimiter}, unprocessed items retried with jittered backoff. The ids must be
+     * distinct, a batch cannot hold the same key twice, and every employee complete
+     * ({@link EmployeeItemMapper#missingAttribute(Employee)}): one invalid item fails its whole chunk. Each item gets
+     * a new version, and the {@link DirectoryVersion}, when {@link DirectoryVersion#enabled() enabled}, is bumped
+     * once at the end.
+     *
+     * @return the ids that were not written: still unprocessed after the retries, or their chunk was rejected
+     */
+    public static Set<String> putEmployees(DynamoDbClient dynamoDbClient, AdaptiveRateLimiter rateLimiter,
+                                           Collection<Employee> employees, Context context) {
+        return writeEmployees(dynamoDbClient, rateLimiter, employees, false, context).failedIds();
+    }
+
+    /**
+     * As {@link #putEmployees}, but leaves existing employees alone: each chunk first reads its ids with a strongly
+     * consistent BatchGetItem and only writes the ones not found. BatchWriteItem takes no condition, so this is a
+     * check rather than a guarantee: an employee added by another request between the read and the write is still
+     * overwritten.
+     */
+    public static AddResult addEmployees(DynamoDbClient dynamoDbClient, AdaptiveRateLimiter rateLimiter,
+                                         Collection<Employee> employees, Context context) {
+        return writeEmployees(dynamoDbClient, rateLimiter, employees, true, context);
+    }
+
+    private static AddResult writeEmployees(DynamoDbClient dynamoDbClient, AdaptiveRateLimiter rateLimiter,
+                                            Collection<Employee> employees, boolean skipExisting, Context context) {
+        List<CompletableFuture<AddResult>> chunks = new ArrayList<>();
+        for (List<Employee> chunk : partition(new ArrayList<>(employees), MAX_BATCH_WRITE_ITEMS)) {
+            chunks.add(CompletableFuture.supplyAsync(() -> putChunk(dynamoDbClient, rateLimiter, chunk, skipExisting, context), executor()));
+        }
+        Set<String> failedIds = new HashSet<>();
+        Set<String> existingIds = new HashSet<>();
+        for (CompletableFuture<AddResult> chunk : chunks) {
+            AddResult result = chunk.join();
+            failedIds.addAll(result.failedIds());
+            existingIds.addAll(result.existingIds());
+        }
+        if (!chunks.isEmpty() && DirectoryVersion.enabled()) {
+            // Once for the whole batch; even a failed chunk may have written some of its items
+            try {
+                rateLimiter.call(() -> {
+                    DirectoryVersion.bump(dynamoDbClient);
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                context.getLogger().log("Error bumping the directory version: " + e.getMessage());
+            }
+        }
+        return new AddResult(failedIds, existingIds);
+    }
+
+    /**
+     * Writes one chunk of at most 25 employees, retrying unprocessed items, after leaving out the existing ones when
+     * {@code skipExisting}.
+     */
+    private static AddResult putChunk(DynamoDbClient dynamoDbClient, AdaptiveRateLimiter rateLimiter,
+                                      List<Employee> chunk, boolean skipExisting, Context context) {
+        Set<String> failedIds = new HashSet<>();
+        Set<String> existingIds = new HashSet<>();
+        if (skipExisting) {
+            try {
+                findExisting(dynamoDbClient, rateLimiter, chunk, existingIds, failedIds);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                chunk.forEach(employee -> failedIds.add(employee.id()));
+            } catch (RuntimeException e) {
+                context.getLogger().log("Error reading a batch of employees: " + e.getMessage());
+                chunk.forEach(employee -> failedIds.add(employee.id()));
+            }
+        }
+
+        List<WriteRequest> pending = new ArrayList<>(chunk.size());
+        for (Employee employee : chunk) {
+            if (existingIds.contains(employee.id()) || failedIds.contains(employee.id())) {
+                continue;
+            }
+            pending.add(WriteRequest.builder()
+                    .putRequest(PutRequest.builder().item(EmployeeItemMapper.toItem(employee.withVersion(EmployeeItemMapper.initialVersion()))).build())
+                    .build());
+        }
+        if (pending.isEmpty()) {
+            return new AddResult(failedIds, existingIds);
+        }
+        try {
+            for (int retry = 0; ; retry++) {
+                BatchWriteItemRequest request = BatchWriteItemRequest.builder()
+                        .requestItems(Map.of(DYNAMO_DB_TABLE_NAME, pending))
+                        .build();
+                BatchWriteItemResponse response = rateLimiter.call(() -> dynamoDbClient.batchWriteItem(request));
+                pending = response.unprocessedItems().getOrDefault(DYNAMO_DB_TABLE_NAME, List.of());
+                if (pending.isEmpty() || retry == BACKOFF.maxRetries()) {
+                    break;
+                }
+                BACKOFF.sleep(retry);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            context.getLogger().log("Error writing a batch of employees: " + e.getMessage());
+        }
+
+        for (WriteRequest writeRequest : pending) {
+            failedIds.add(writeRequest.putRequest().item().get("id").s());
+        }
+        return new AddResult(failedIds, existingIds);
+    }
+
+    /**
+     * Adds the ids of {@code chunk} that are in the table to {@code existingIds}, retrying unprocessed keys; the ones
+     * still unprocessed after the retries go to {@code failedIds}, since whether they exist is unknown.
+     */
+    private static void findExisting(DynamoDbClient dynamoDbClient, AdaptiveRateLimiter rateLimiter, List<Employee> chunk,
+                                     Set<String> existingIds, Set<String> failedIds) throws InterruptedException {
+        List<Map<String, AttributeValue>> keys = new ArrayList<>(chunk.size());
+        for (Employee employee : chunk) {
+            keys.add(Map.of("id", AttributeValue.builder().s(employee.id()).build()));
+        }
+        KeysAndAttributes pending = KeysAndAttributes.builder().keys(keys).projectionExpression("id").consistentRead(true).build();
+        for (int retry = 0; ; retry++) {
+            BatchGetItemRequest request = BatchGetItemRequest.builder()
+                    .requestItems(Map.of(DYNAMO_DB_TABLE_NAME, pending))
+                    .build();
+            BatchGetItemResponse response = rateLimiter.call(() -> dynamoDbClient.batchGetItem(request));
+            response.responses().getOrDefault(DYNAMO_DB_TABLE_NAME, List.of())
+                    .forEach(item -> existingIds.add(item.get("id").s()));
+
+            pending = response.unprocessedKeys().get(DYNAMO_DB_TABLE_NAME);
+            if (pending == null || pending.keys().isEmpty()) {
+                return;
+            }
+            if (retry == BACKOFF.maxRetries()) {
+                pending.keys().forEach(key -> failedIds.add(key.get("id").s()));
+                return;
+            }
+            BACKOFF.sleep(retry);
+        }
+    }
+
+    /**
+     * The ids that were not written: {@code failedIds} still unprocessed after the retries or rejected with their
+     * chunk, {@code existingIds} already in the table (always empty for {@link #putEmployees}).
+     */
+    public record AddResult(Set<String> failedIds, Set<String> existingIds) {
+    }
+
+    private static int concurrency() {
+        String value = System.getenv("DYNAMODB_BATCH_CONCURRENCY");
+        return value == null || value.isBlank() ? 8 : Integer.parseInt(value.trim());
+    }
+}
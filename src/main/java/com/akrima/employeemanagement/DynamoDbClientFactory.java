@@ -1,10 +1,190 @@
 package com.akrima.employeemanagement;
 
+import com.akrima.employeemanagement.model.Employee;
+import com.amazonaws.services.lambda.runtime.LambdaRuntime;
+import software.amazon.awssdk.auth.credentials.EnvironmentVariableCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.core.retry.backoff.FullJitterBackoffStrategy;
+import software.amazon.awssdk.core.retry.conditions.RetryCondition;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.SdkHttpConfigurationOption;
+import software.amazon.awssdk.http.SdkHttpService;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.crt.AwsCrtHttpClient;
+import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClientBuilder;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.utils.AttributeMap;
 
+import java.net.URI;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Builds the DynamoDB client used by the handlers, configured from environment variables:
+ * <ul>
+ *     <li>AWS_REGION, and AWS_ACCESS_KEY_ID / AWS_SECRET_ACCESS_KEY when present, are read up front instead of
+ *     walking the default provider chains on the first request</li>
+ *     <li>DYNAMODB_HTTP_CLIENT: {@code apache} (default), {@code crt} (requires the crt-http-client build profile) or
+ *     {@code url-connection} (requires the url-connection-http-client build profile)</li>
+ *     <li>DYNAMODB_MAX_CONNECTIONS, DYNAMODB_CONNECTION_TIMEOUT_MILLIS, DYNAMODB_SOCKET_TIMEOUT_MILLIS and
+ *     DYNAMODB_API_CALL_ATTEMPT_TIMEOUT_MILLIS tune the connection pool and timeouts</li>
+ *     <li>DYNAMODB_ENDPOINT overrides the endpoint, e.g. for DynamoDB Local</li>
+ *     <li>DYNAMODB_PRIME_ON_INIT=true makes {@link #primeIfEnabled(DynamoDbClient)} warm the client during init</li>
+ *     <li>throttling errors of calls made through an {@link AdaptiveRateLimiter} are not retried by the SDK but by
+ *     the limiter, which slows down instead of adding retries to a throttled table; other errors, and throttling
+ *     outside the limiter, keep DynamoDB's default retries</li>
+ *     <li>DYNAMODB_RETURN_CONSUMED_CAPACITY: {@code TOTAL} or {@code INDEXES} makes every request report the capacity
+ *     it consumed to the {@link InvocationMetrics} (none by default)</li>
+ * </ul>
+ */
 public class DynamoDbClientFactory {
 
+    private static final AtomicBoolean PRIMED = new AtomicBoolean();
+
+    /**
+     * The client shared by every handler of this process, built on first use.
+     */
+    public static DynamoDbClient sharedDynamoDbClient() {
+        return SharedClientHolder.CLIENT;
+    }
+
     public static DynamoDbClient createDynamoDbClient() {
-        return DynamoDbClient.create();
+        DynamoDbClientBuilder builder = DynamoDbClient.builder()
+                .httpClient(createHttpClient())
+                .overrideConfiguration(overrideConfiguration());
+
+        String region = System.getenv("AWS_REGION");
+        if (region != null && !region.isBlank()) {
+            builder.region(Region.of(region));
+        }
+        if (System.getenv("AWS_ACCESS_KEY_ID") != null && System.getenv("AWS_SECRET_ACCESS_KEY") != null) {
+            // The Lambda runtime exports the execution role credentials, including the session token
+            builder.credentialsProvider(EnvironmentVariableCredentialsProvider.create());
+        }
+        String endpoint = System.getenv("DYNAMODB_ENDPOINT");
+        if (endpoint != null && !endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Called from the handlers' default constructors, i.e. during the Lambda init phase. When
+     * DYNAMODB_PRIME_ON_INIT is set, issues one GetItem so the TLS handshake, connection pool, request signing and
+     * (un)marshallers are initialised before the first real request, and warms the JSON codec. Runs at most once
+     * per process and never fails the init.
+     */
+    public static void primeIfEnabled(DynamoDbClient dynamoDbClient) {
+        if (!Boolean.parseBoolean(System.getenv("DYNAMODB_PRIME_ON_INIT")) || !PRIMED.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            dynamoDbClient.getItem(GetItemRequest.builder()
+                    .tableName("Employee")
+                    .key(Map.of("id", AttributeValue.builder().s("__prime__").build()))
+                    .build());
+            EmployeeJsonCodec.readEmployee(EmployeeJsonCodec.writeEmployee(new Employee("__prime__", "", "", "")));
+        } catch (Exception e) {
+            LambdaRuntime.getLogger().log("DynamoDB client priming failed: " + e.getMessage());
+        }
+    }
+
+    private static SdkHttpClient createHttpClient() {
+        Duration connectionTimeout = Duration.ofMillis(longFromEnvironment("DYNAMODB_CONNECTION_TIMEOUT_MILLIS", 1_000));
+        int maxConnections = (int) longFromEnvironment("DYNAMODB_MAX_CONNECTIONS", 50);
+        String httpClient = System.getenv("DYNAMODB_HTTP_CLIENT");
+
+        if ("crt".equalsIgnoreCase(httpClient)) {
+            return CrtHttpClients.create(maxConnections, connectionTimeout);
+        }
+        Duration socketTimeout = Duration.ofMillis(longFromEnvironment("DYNAMODB_SOCKET_TIMEOUT_MILLIS", 5_000));
+        if ("url-connection".equalsIgnoreCase(httpClient)) {
+            return UrlConnectionHttpClients.create(connectionTimeout, socketTimeout);
+        }
+        return ApacheHttpClient.builder()
+                .maxConnections(maxConnections)
+                .connectionTimeout(connectionTimeout)
+                .socketTimeout(socketTimeout)
+                .tcpKeepAlive(true)
+                .build();
+    }
+
+    private static ClientOverrideConfiguration overrideConfiguration() {
+        RetryCondition defaultRetryCondition = RetryCondition.defaultRetryCondition();
+        ClientOverrideConfiguration.Builder builder = ClientOverrideConfiguration.builder()
+                .addExecutionInterceptor(new DynamoDbMetricsInterceptor(returnConsumedCapacity()))
+                // DynamoDB's defaults (8 retries, 25 ms base delay), minus throttling inside an AdaptiveRateLimiter call
+                .retryPolicy(RetryPolicy.builder()
+                        .numRetries(8)
+                        .backoffStrategy(FullJitterBackoffStrategy.builder()
+                                .baseDelay(Duration.ofMillis(25))
+                                .maxBackoffTime(Duration.ofSeconds(20))
+                                .build())
+                        .retryCondition(context -> !(AdaptiveRateLimiter.inLimitedCall()
+                                && AdaptiveRateLimiter.isThrottling(context.exception()))
+                                && defaultRetryCondition.shouldRetry(context))
+                        .build());
+        long attemptTimeoutMillis = longFromEnvironment("DYNAMODB_API_CALL_ATTEMPT_TIMEOUT_MILLIS", 0);
+        if (attemptTimeoutMillis > 0) {
+            builder.apiCallAttemptTimeout(Duration.ofMillis(attemptTimeoutMillis));
+        }
+        return builder.build();
+    }
+
+    private static ReturnConsumedCapacity returnConsumedCapacity() {
+        String value = System.getenv("DYNAMODB_RETURN_CONSUMED_CAPACITY");
+        if (value == null || value.isBlank() || value.trim().equalsIgnoreCase("NONE")) {
+            return null;
+        }
+        return ReturnConsumedCapacity.fromValue(value.trim().toUpperCase(Locale.ROOT));
+    }
+
+    private static long longFromEnvironment(String name, long defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : Long.parseLong(value.trim());
+    }
+
+    private static final class SharedClientHolder {
+        private static final DynamoDbClient CLIENT = createDynamoDbClient();
+    }
+
+    /**
+     * Kept in its own class so the CRT classes are only loaded when DYNAMODB_HTTP_CLIENT=crt.
+     */
+    private static final class CrtHttpClients {
+        static SdkHttpClient create(int maxConnections, Duration connectionTimeout) {
+            return AwsCrtHttpClient.builder()
+                    .maxConcurrency(maxConnections)
+                    .connectionTimeout(connectionTimeout)
+                    .build();
+        }
+    }
+
+    /**
+     * The URLConnection client is looked up through the SDK's {@link SdkHttpService} registry rather than referenced,
+     * so the default build compiles without the url-connection-client jar the url-connection-http-client profile adds.
+     */
+    private static final class UrlConnectionHttpClients {
+        private static final String SERVICE = "software.amazon.awssdk.http.urlconnection.UrlConnectionSdkHttpService";
+
+        static SdkHttpClient create(Duration connectionTimeout, Duration socketTimeout) {
+            for (SdkHttpService service : ServiceLoader.load(SdkHttpService.class)) {
+                if (service.getClass().getName().equals(SERVICE)) {
+                    return service.createHttpClientBuilder().buildWithDefaults(AttributeMap.builder()
+                            .put(SdkHttpConfigurationOption.CONNECTION_TIMEOUT, connectionTimeout)
+                            .put(SdkHttpConfigurationOption.READ_TIMEOUT, socketTimeout)
+                            .build());
+                }
+            }
+            throw new IllegalStateException("DYNAMODB_HTTP_CLIENT=url-connection requires a jar built with -Purl-connection-http-client");
+        }
     }
 }
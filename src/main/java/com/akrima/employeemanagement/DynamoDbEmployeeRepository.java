@@ -0,0 +1,296 @@
+package com.akrima.employeemanagement;
+
+import com.akrima.employeemanagement.model.Employee;
+import com.akrima.employeemanagement.model.EmployeePage;
+import com.amazonaws.services.lambda.runtime.LambdaRuntime;
+import software.amazon.awssdk.core.pagination.sync.SdkIterable;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * {@link EmployeeRepository} backed by the DynamoDB Employee table. Conditional writes use
+ * {@code attribute_exists(id)} / {@code attribute_not_exists(id)}, page cursors are {@link PageCursor}s, and sparse
+ * fieldsets become a ProjectionExpression so DynamoDB only returns the requested attributes. Every successful write
+ * runs the {@code directoryVersionBump}: a {@link DirectoryVersion} bump when it is
+ * {@link DirectoryVersion#enabled() enabled}, nothing otherwise.
+ */
+public class DynamoDbEmployeeRepository implements EmployeeRepository {
+
+    private static final String DYNAMO_DB_TABLE_NAME = "Employee";
+    // Global secondary index: jobPosition (HASH), id (RANGE), all attributes projected
+    public static final String JOB_POSITION_INDEX_NAME = "jobPosition-index";
+    // Global secondary index: lastNameInitial (HASH), lastNameKey (RANGE), all attributes projected, see EmployeeItemMapper
+    public static final String LAST_NAME_INDEX_NAME = "lastName-index";
+    private static final Runnable NO_BUMP = () -> {
+    };
+    private final DynamoDbClient dynamoDbClient;
+    private final Runnable directoryVersionBump;
+
+    public DynamoDbEmployeeRepository(DynamoDbClient dynamoDbClient) {
+        this(dynamoDbClient, DirectoryVersion.enabled() ? () -> DirectoryVersion.bump(dynamoDbClient) : NO_BUMP);
+    }
+
+    public DynamoDbEmployeeRepository(DynamoDbClient dynamoDbClient, Runnable directoryVersionBump) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.directoryVersionBump = directoryVersionBump;
+    }
+
+    /**
+     * The repository the handlers use: a DynamoDbEmployeeRepository behind the shared {@link AdaptiveRateLimiter},
+     * which also paces the directory version bumps.
+     */
+    public static EmployeeRepository rateLimited(DynamoDbClient dynamoDbClient) {
+        AdaptiveRateLimiter rateLimiter = AdaptiveRateLimiter.shared();
+        Runnable directoryVersionBump = DirectoryVersion.enabled() ? () -> rateLimiter.call(() -> {
+            DirectoryVersion.bump(dynamoDbClient);
+            return null;
+        }) : NO_BUMP;
+        return new RateLimitedEmployeeRepository(new DynamoDbEmployeeRepository(dynamoDbClient, directoryVersionBump), rateLimiter);
+    }
+
+    @Override
+    public Employee findById(String id, EmployeeFields fields) {
+        GetItemRequest.Builder request = GetItemRequest.builder()
+                .tableName(DYNAMO_DB_TABLE_NAME)
+                .key(key(id));
+        if (!fields.isAll()) {
+            request.projectionExpression(projectionExpression(fields)).expressionAttributeNames(projectionNames(fields));
+        }
+        GetItemResponse response = dynamoDbClient.getItem(request.build());
+        if (!response.hasItem()) {
+            return null;
+        }
+
+        // Map DynamoDB item to Employee object
+        return EmployeeItemMapper.fromItem(response.item());
+    }
+
+    @Override
+    public List<Employee> findAll(EmployeeFields fields, boolean consistentRead) {
+        // The paginator follows LastEvaluatedKey so tables above 1 MB are not truncated
+        ScanRequest.Builder scanRequest = ScanRequest.builder().tableName(DYNAMO_DB_TABLE_NAME);
+        if (!fields.isAll()) {
+            scanRequest.projectionExpression(projectionExpression(fields)).expressionAttributeNames(projectionNames(fields));
+        }
+        if (consistentRead) {
+            scanRequest.consistentRead(true);
+        }
+
+        return dynamoDbClient.scanPaginator(scanRequest.build()).items().stream()
+                .map(EmployeeItemMapper::fromItem)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public long directoryVersion() {
+        return DirectoryVersion.read(dynamoDbClient);
+    }
+
+    @Override
+    public Iterable<Employee> scan(EmployeeFields fields) {
+        ScanRequest.Builder scanRequest = ScanRequest.builder().tableName(DYNAMO_DB_TABLE_NAME);
+        if (!fields.isAll()) {
+            scanRequest.projectionExpression(projectionExpression(fields)).expressionAttributeNames(projectionNames(fields));
+        }
+        SdkIterable<Map<String, AttributeValue>> items = dynamoDbClient.scanPaginator(scanRequest.build()).items();
+
+        // The next Scan is only sent when the iterator runs out of the current page
+        return () -> items.stream().map(EmployeeItemMapper::fromItem).iterator();
+    }
+
+    @Override
+    public EmployeePage scanPage(String cursor, EmployeeFields fields, boolean consistentRead) {
+        // No Limit: one Scan request, up to 1 MB of items
+        ScanRequest.Builder scanRequest = ScanRequest.builder()
+                .tableName(DYNAMO_DB_TABLE_NAME)
+                .exclusiveStartKey(PageCursor.decode(cursor));
+        if (!fields.isAll()) {
+            scanRequest.projectionExpression(projectionExpression(fields)).expressionAttributeNames(projectionNames(fields));
+        }
+        if (consistentRead) {
+            scanRequest.consistentRead(true);
+        }
+        ScanResponse scanResponse = dynamoDbClient.scan(scanRequest.build());
+        return toPage(scanResponse.items(), scanResponse.hasLastEvaluatedKey() ? scanResponse.lastEvaluatedKey() : null);
+    }
+
+    @Override
+    public EmployeePage findPage(int limit, String cursor, EmployeeFields fields) {
+        ScanRequest.Builder scanRequest = ScanRequest.builder()
+                .tableName(DYNAMO_DB_TABLE_NAME)
+                .limit(limit)
+                .exclusiveStartKey(PageCursor.decode(cursor));
+        if (!fields.isAll()) {
+            scanRequest.projectionExpression(projectionExpression(fields)).expressionAttributeNames(projectionNames(fields));
+        }
+        ScanResponse scanResponse = dynamoDbClient.scan(scanRequest.build());
+        return toPage(scanResponse.items(), scanResponse.hasLastEvaluatedKey() ? scanResponse.lastEvaluatedKey() : null);
+    }
+
+    @Override
+    public EmployeePage findByJobPosition(String jobPosition, int limit, String cursor, EmployeeFields fields) {
+        Map<String, String> names = new HashMap<>(fields.isAll() ? Map.of() : projectionNames(fields));
+        names.put("#jobPosition", "jobPosition");
+        QueryRequest.Builder queryRequest = QueryRequest.builder()
+                .tableName(DYNAMO_DB_TABLE_NAME)
+                .indexName(JOB_POSITION_INDEX_NAME)
+                .keyConditionExpression("#jobPosition = :jobPosition")
+                .expressionAttributeNames(names)
+                .expressionAttributeValues(Map.of(":jobPosition", AttributeValue.builder().s(jobPosition).build()))
+                .limit(limit)
+                .exclusiveStartKey(PageCursor.decode(cursor));
+        if (!fields.isAll()) {
+            queryRequest.projectionExpression(projectionExpression(fields));
+        }
+        QueryResponse queryResponse = dynamoDbClient.query(queryRequest.build());
+        return toPage(queryResponse.items(), queryResponse.hasLastEvaluatedKey() ? queryResponse.lastEvaluatedKey() : null);
+    }
+
+    @Override
+    public EmployeePage findByLastNamePrefix(String prefix, int limit, String cursor, EmployeeFields fields) {
+        String lastNameKeyPrefix = EmployeeItemMapper.lastNameKey(prefix);
+        if (lastNameKeyPrefix.isEmpty()) {
+            throw new IllegalArgumentException("Blank last name prefix");
+        }
+        // Every match shares the prefix's first character, so a single partition of the index is read,
+        // and begins_with on the sort key only visits the matching items
+        Map<String, String> names = new HashMap<>(fields.isAll() ? Map.of() : projectionNames(fields));
+        names.put("#lastNameInitial", EmployeeItemMapper.LAST_NAME_INITIAL);
+        names.put("#lastNameKey", EmployeeItemMapper.LAST_NAME_KEY);
+        QueryRequest.Builder queryRequest = QueryRequest.builder()
+                .tableName(DYNAMO_DB_TABLE_NAME)
+                .indexName(LAST_NAME_INDEX_NAME)
+                .keyConditionExpression("#lastNameInitial = :lastNameInitial AND begins_with(#lastNameKey, :lastNameKeyPrefix)")
+                .expressionAttributeNames(names)
+                .expressionAttributeValues(Map.of(
+                        ":lastNameInitial", AttributeValue.builder().s(EmployeeItemMapper.initial(lastNameKeyPrefix)).build(),
+                        ":lastNameKeyPrefix", AttributeValue.builder().s(lastNameKeyPrefix).build()))
+                .limit(limit)
+                .exclusiveStartKey(PageCursor.decode(cursor));
+        if (!fields.isAll()) {
+            queryRequest.projectionExpression(projectionExpression(fields));
+        }
+        QueryResponse queryResponse = dynamoDbClient.query(queryRequest.build());
+        return toPage(queryResponse.items(), queryResponse.hasLastEvaluatedKey() ? queryResponse.lastEvaluatedKey() : null);
+    }
+
+    @Override
+    public boolean add(Employee employee) {
+        try {
+            dynamoDbClient.putItem(PutItemRequest.builder()
+                    .tableName(DYNAMO_DB_TABLE_NAME)
+                    .item(EmployeeItemMapper.toItem(employee.withVersion(EmployeeItemMapper.initialVersion())))
+                    .conditionExpression("attribute_not_exists(id)")
+                    .build());
+            bumpDirectoryVersion();
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean update(Employee employee) {
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":firstName", AttributeValue.builder().s(employee.firstName()).build());
+        values.put(":lastName", AttributeValue.builder().s(employee.lastName()).build());
+        values.put(":newJobPosition", AttributeValue.builder().s(employee.jobPosition()).build());
+        values.put(":initialVersion", AttributeValue.builder().n(Long.toString(EmployeeItemMapper.initialVersion())).build());
+        values.put(":one", AttributeValue.builder().n("1").build());
+
+        // Bump the version, starting one for items written before versions existed
+        String updateExpression = "SET firstName = :firstName, lastName = :lastName, jobPosition = :newJobPosition, "
+                + "#version = if_not_exists(#version, :initialVersion) + :one";
+        // Keep the lastName-index attributes in step with the last name, see EmployeeItemMapper
+        String lastNameKey = EmployeeItemMapper.lastNameKey(employee.lastName());
+        if (lastNameKey.isEmpty()) {
+            updateExpression += " REMOVE " + EmployeeItemMapper.LAST_NAME_KEY + ", " + EmployeeItemMapper.LAST_NAME_INITIAL;
+        } else {
+            updateExpression += ", " + EmployeeItemMapper.LAST_NAME_KEY + " = :lastNameKey, "
+                    + EmployeeItemMapper.LAST_NAME_INITIAL + " = :lastNameInitial";
+            values.put(":lastNameKey", AttributeValue.builder().s(lastNameKey).build());
+            values.put(":lastNameInitial", AttributeValue.builder().s(EmployeeItemMapper.initial(lastNameKey)).build());
+        }
+        try {
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(DYNAMO_DB_TABLE_NAME)
+                    .key(key(employee.id()))
+                    .updateExpression(updateExpression)
+                    .conditionExpression("attribute_exists(id)")
+                    .expressionAttributeNames(Map.of("#version", EmployeeItemMapper.VERSION))
+                    .expressionAttributeValues(values)
+                    .build());
+            bumpDirectoryVersion();
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean delete(String id) {
+        try {
+            dynamoDbClient.deleteItem(DeleteItemRequest.builder()
+                    .tableName(DYNAMO_DB_TABLE_NAME)
+                    .key(key(id))
+                    .conditionExpression("attribute_exists(id)")
+                    .build());
+            bumpDirectoryVersion();
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Called once the write succeeded. A failed bump is not reported to the caller: the write went through, and
+     * retrying it would now fail its condition.
+     */
+    private void bumpDirectoryVersion() {
+        try {
+            directoryVersionBump.run();
+        } catch (RuntimeException e) {
+            // Snapshots miss this write until the next one, or until they reach their maximum age
+            LambdaRuntime.getLogger().log("Error bumping the directory version: " + e.getMessage());
+        }
+    }
+
+    private static EmployeePage toPage(List<Map<String, AttributeValue>> items, Map<String, AttributeValue> lastEvaluatedKey) {
+        List<Employee> employees = items.stream()
+                .map(EmployeeItemMapper::fromItem)
+                .collect(Collectors.toList());
+        return new EmployeePage(employees, PageCursor.encode(lastEvaluatedKey));
+    }
+
+    /**
+     * {@code #id, #version, #lastName, ...}: the id is always read so an existing item is never returned empty, and
+     * the version so it still has an ETag. Every name goes through a placeholder so attributes colliding with
+     * DynamoDB reserved words need no special casing.
+     */
+    private static String projectionExpression(EmployeeFields fields) {
+        StringBuilder expression = new StringBuilder("#id, #version");
+        for (String name : fields.names()) {
+            if (!name.equals("id")) {
+                expression.append(", #").append(name);
+            }
+        }
+        return expression.toString();
+    }
+
+    private static Map<String, String> projectionNames(EmployeeFields fields) {
+        Map<String, String> names = new HashMap<>();
+        names.put("#id", "id");
+        names.put("#version", EmployeeItemMapper.VERSION);
+        fields.names().forEach(name -> names.put("#" + name, name));
+        return names;
+    }
+
+    private static Map<String, AttributeValue> key(String id) {
+        return Map.of("id", AttributeValue.builder().s(id).build());
+    }
+}
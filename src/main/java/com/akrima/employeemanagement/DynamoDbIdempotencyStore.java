@@ -0,0 +1,85 @@
+package com.akrima.employeemanagement;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link IdempotencyStore} backed by the EmployeeIdempotency table: one item per key, expiring with the table's TTL
+ * on {@code expiresAt}. A claim is a single conditional PutItem which, when the key is taken, returns the item
+ * already there ({@code ReturnValuesOnConditionCheckFailure}), so a replay costs one request. TTL deletion lags by
+ * hours, so the condition also takes over items whose {@code expiresAt} has passed.
+ */
+public class DynamoDbIdempotencyStore implements IdempotencyStore {
+
+    public static final String TABLE_NAME = "EmployeeIdempotency";
+    private static final String KEY = "idempotencyKey";
+
+    private final DynamoDbClient dynamoDbClient;
+
+    public DynamoDbIdempotencyStore(DynamoDbClient dynamoDbClient) {
+        this.dynamoDbClient = dynamoDbClient;
+    }
+
+    @Override
+    public IdempotencyRecord claim(String key, String requestHash, long nowEpochSecond, long expiresAtEpochSecond) {
+        try {
+            dynamoDbClient.putItem(PutItemRequest.builder()
+                    .tableName(TABLE_NAME)
+                    .item(toItem(key, new IdempotencyRecord(requestHash, null, null, expiresAtEpochSecond)))
+                    .conditionExpression("attribute_not_exists(#key) OR #expiresAt <= :now")
+                    .expressionAttributeNames(Map.of("#key", KEY, "#expiresAt", "expiresAt"))
+                    .expressionAttributeValues(Map.of(":now", AttributeValue.builder().n(Long.toString(nowEpochSecond)).build()))
+                    .returnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD)
+                    .build());
+            return null;
+        } catch (ConditionalCheckFailedException e) {
+            return toRecord(e.item());
+        }
+    }
+
+    @Override
+    public void complete(String key, IdempotencyRecord record) {
+        dynamoDbClient.putItem(PutItemRequest.builder()
+                .tableName(TABLE_NAME)
+                .item(toItem(key, record))
+                .build());
+    }
+
+    @Override
+    public void release(String key) {
+        dynamoDbClient.deleteItem(DeleteItemRequest.builder()
+                .tableName(TABLE_NAME)
+                .key(Map.of(KEY, AttributeValue.builder().s(key).build()))
+                .build());
+    }
+
+    private static Map<String, AttributeValue> toItem(String key, IdempotencyRecord record) {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put(KEY, AttributeValue.builder().s(key).build());
+        item.put("requestHash", AttributeValue.builder().s(record.requestHash()).build());
+        item.put("expiresAt", AttributeValue.builder().n(Long.toString(record.expiresAtEpochSecond())).build());
+        if (record.statusCode() != null) {
+            item.put("statusCode", AttributeValue.builder().n(Integer.toString(record.statusCode())).build());
+        }
+        if (record.body() != null) {
+            item.put("body", AttributeValue.builder().s(record.body()).build());
+        }
+        return item;
+    }
+
+    private static IdempotencyRecord toRecord(Map<String, AttributeValue> item) {
+        if (item == null || item.isEmpty()) {
+            // Released between the failed condition and now: report it as in progress, the caller retries
+            return new IdempotencyRecord(null, null, null, Long.MAX_VALUE);
+        }
+        AttributeValue statusCode = item.get("statusCode");
+        AttributeValue body = item.get("body");
+        return new IdempotencyRecord(item.get("requestHash").s(),
+                statusCode == null ? null : Integer.valueOf(statusCode.n()),
+                body == null ? null : body.s(),
+                Long.parseLong(item.get("expiresAt").n()));
+    }
+}
@@ -0,0 +1,121 @@
+package com.akrima.employeemanagement;
+
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.SdkResponse;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.List;
+
+/**
+ * Adds every DynamoDB call made during a handler invocation to its {@link InvocationMetrics}: the operation, its
+ * latency (including the SDK's retries), whether it failed and the capacity it consumed.
+ * <p>
+ * DynamoDB only reports consumed capacity for requests that set ReturnConsumedCapacity. Given a
+ * {@link ReturnConsumedCapacity}, the interceptor sets it on the requests that leave it unset, so the repository and
+ * handlers need no change (DYNAMODB_RETURN_CONSUMED_CAPACITY in {@link DynamoDbClientFactory}).
+ */
+public class DynamoDbMetricsInterceptor implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<InvocationMetrics> METRICS = new ExecutionAttribute<>("EmployeeInvocationMetrics");
+    private static final ExecutionAttribute<Long> START_NANOS = new ExecutionAttribute<>("EmployeeInvocationMetricsStartNanos");
+    private final ReturnConsumedCapacity returnConsumedCapacity;
+
+    public DynamoDbMetricsInterceptor() {
+        this(null);
+    }
+    public DynamoDbMetricsInterceptor(ReturnConsumedCapacity returnConsumedCapacity) {
+        this.returnConsumedCapacity = returnConsumedCapacity;
+    }
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        // The synchronous client runs this on the calling thread, where the invocation is current
+        InvocationMetrics metrics = InvocationMetrics.current();
+        if (metrics != null) {
+            executionAttributes.putAttribute(METRICS, metrics);
+            executionAttributes.putAttribute(START_NANOS, System.nanoTime());
+        }
+    }
+
+    @Override
+    public SdkRequest modifyRequest(Context.ModifyRequest context, ExecutionAttributes executionAttributes) {
+        SdkRequest request = context.request();
+        if (returnConsumedCapacity == null) {
+            return request;
+        }
+        if (request instanceof GetItemRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(returnConsumedCapacity).build();
+        } else if (request instanceof PutItemRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(returnConsumedCapacity).build();
+        } else if (request instanceof UpdateItemRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(returnConsumedCapacity).build();
+        } else if (request instanceof DeleteItemRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(returnConsumedCapacity).build();
+        } else if (request instanceof QueryRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(returnConsumedCapacity).build();
+        } else if (request instanceof ScanRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(returnConsumedCapacity).build();
+        } else if (request instanceof BatchGetItemRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(returnConsumedCapacity).build();
+        } else if (request instanceof BatchWriteItemRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(returnConsumedCapacity).build();
+        }
+        return request;
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        record(executionAttributes, capacityUnits(context.response()), false);
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        record(executionAttributes, 0, true);
+    }
+
+    private static void record(ExecutionAttributes executionAttributes, double capacityUnits, boolean failed) {
+        InvocationMetrics metrics = executionAttributes.getAttribute(METRICS);
+        if (metrics != null) {
+            long nanos = System.nanoTime() - executionAttributes.getAttribute(START_NANOS);
+            metrics.recordDynamoDbCall(executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME), nanos, capacityUnits, failed);
+        }
+    }
+
+    private static double capacityUnits(SdkResponse response) {
+        if (response instanceof GetItemResponse r) {
+            return capacityUnits(r.consumedCapacity());
+        } else if (response instanceof PutItemResponse r) {
+            return capacityUnits(r.consumedCapacity());
+        } else if (response instanceof UpdateItemResponse r) {
+            return capacityUnits(r.consumedCapacity());
+        } else if (response instanceof DeleteItemResponse r) {
+            return capacityUnits(r.consumedCapacity());
+        } else if (response instanceof QueryResponse r) {
+            return capacityUnits(r.consumedCapacity());
+        } else if (response instanceof ScanResponse r) {
+            return capacityUnits(r.consumedCapacity());
+        } else if (response instanceof BatchGetItemResponse r && r.hasConsumedCapacity()) {
+            return capacityUnits(r.consumedCapacity());
+        } else if (response instanceof BatchWriteItemResponse r && r.hasConsumedCapacity()) {
+            return capacityUnits(r.consumedCapacity());
+        }
+        return 0;
+    }
+
+    private static double capacityUnits(List<ConsumedCapacity> consumedCapacity) {
+        double capacityUnits = 0;
+        for (ConsumedCapacity tableCapacity : consumedCapacity) {
+            capacityUnits += capacityUnits(tableCapacity);
+        }
+        return capacityUnits;
+    }
+
+    private static double capacityUnits(ConsumedCapacity consumedCapacity) {
+        return consumedCapacity == null || consumedCapacity.capacityUnits() == null ? 0 : consumedCapacity.capacityUnits();
+    }
+}
@@ -0,0 +1,144 @@
+package com.akrima.employeemanagement;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.util.*;
+
+/**
+ * Front controller for the whole employee API, deployed as a single function (see template-router.yaml) so every
+ * operation shares one warm instance, one DynamoDB client and one cache instead of each function cold-starting on
+ * its own. Requests are dispatched on the HTTP method and the resource template set by API Gateway
+ * (e.g. {@code /retrieveEmployee/{id}}), or on the request path when the API uses a {@code {proxy+}} resource, in
+ * which case the path parameters are extracted here.
+ */
+public class EmployeeApiRouter implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+
+    private final List<Route> routes;
+
+    public EmployeeApiRouter() {
+        // Default Constructor required aws lambda
+        this(DynamoDbClientFactory.sharedDynamoDbClient());
+        DynamoDbClientFactory.primeIfEnabled(DynamoDbClientFactory.sharedDynamoDbClient());
+    }
+    public EmployeeApiRouter(DynamoDbClient dynamoDbClient) {
+        this(dynamoDbClient, EmployeeCache.shared());
+    }
+    public EmployeeApiRouter(DynamoDbClient dynamoDbClient, EmployeeCache employeeCache) {
+        this(DynamoDbEmployeeRepository.rateLimited(dynamoDbClient), dynamoDbClient, employeeCache);
+    }
+    public EmployeeApiRouter(EmployeeRepository employeeRepository, DynamoDbClient dynamoDbClient, EmployeeCache employeeCache) {
+        this(employeeRepository, dynamoDbClient, employeeCache, IdempotentRequests.backedBy(new DynamoDbIdempotencyStore(dynamoDbClient)));
+    }
+    public EmployeeApiRouter(EmployeeRepository employeeRepository, DynamoDbClient dynamoDbClient, EmployeeCache employeeCache,
+                             IdempotentRequests idempotentRequests) {
+        this.routes = List.of(
+                new Route("POST", "/addEmployee", new AddEmployeeLambda(employeeRepository, employeeCache, idempotentRequests)),
+                new Route("POST", "/addEmployees", new AddEmployeesLambda(dynamoDbClient, employeeCache)),
+                new Route("POST", "/updateEmployee", new UpdateEmployeeLambda(employeeRepository, employeeCache, idempotentRequests)),
+                new Route("GET", "/retrieveAllEmployees", new RetrieveAllEmployeesLambda(employeeRepository, RetrieveAllEmployeesLambda.snapshotCacheIfEnabled())),
+                new Route("GET", "/employees", new QueryEmployeesLambda(employeeRepository)),
+                new Route("GET", "/retrieveEmployee/{id}", new RetrieveEmployeeLambda(employeeRepository, employeeCache)),
+                new Route("POST", "/retrieveEmployees", new RetrieveEmployeesLambda(dynamoDbClient)),
+                new Route("DELETE", "/deleteEmployee/{id}", new DeleteEmployeeLambda(employeeRepository, employeeCache)),
+                new Route("GET", "/stats/headcount", new RetrieveHeadcountLambda(dynamoDbClient))
+        );
+    }
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent apiGatewayProxyRequestEvent, Context context) {
+        InvocationMetrics metrics = InvocationMetrics.start("EmployeeApiRouter", context);
+        try {
+            return metrics.recordResponse(handle(apiGatewayProxyRequestEvent, context));
+        } finally {
+            metrics.finish();
+        }
+    }
+
+    private APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent apiGatewayProxyRequestEvent, Context context) {
+        APIGatewayProxyResponseEvent responseEvent = new APIGatewayProxyResponseEvent();
+        if (apiGatewayProxyRequestEvent == null || apiGatewayProxyRequestEvent.getHttpMethod() == null) {
+            return responseEvent.withStatusCode(400).withBody("Invalid request.");
+        }
+        String method = apiGatewayProxyRequestEvent.getHttpMethod().toUpperCase(Locale.ROOT);
+        String resource = apiGatewayProxyRequestEvent.getResource();
+        String path = apiGatewayProxyRequestEvent.getPath() != null ? apiGatewayProxyRequestEvent.getPath() : resource;
+
+        Set<String> allowedMethods = new TreeSet<>();
+        for (Route route : routes) {
+            Map<String, String> pathParameters;
+            if (route.template().equals(resource)) {
+                // API Gateway matched the resource and already filled the path parameters
+                pathParameters = Map.of();
+            } else {
+                pathParameters = route.match(path);
+                if (pathParameters == null) {
+                    continue;
+                }
+            }
+            if (!route.method().equals(method)) {
+                allowedMethods.add(route.method());
+                continue;
+            }
+            if (!pathParameters.isEmpty()) {
+                apiGatewayProxyRequestEvent.setPathParameters(pathParameters);
+            }
+            return route.handler().handleRequest(apiGatewayProxyRequestEvent, context);
+        }
+
+        if (!allowedMethods.isEmpty()) {
+            return responseEvent.withStatusCode(405)
+                    .withHeaders(Map.of("Allow", String.join(", ", allowedMethods)))
+                    .withBody("Method " + method + " is not allowed on " + path + ".");
+        }
+        return responseEvent.withStatusCode(404).withBody("No route for " + method + " " + path + ".");
+    }
+
+    private record Route(String method, String template, String[] segments,
+                         RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> handler) {
+
+        Route(String method, String template, RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> handler) {
+            this(method, template, split(template), handler);
+        }
+
+        /**
+         * @return the path parameters if the path matches this route's template, otherwise {@code null}
+         */
+        Map<String, String> match(String path) {
+            if (path == null) {
+                return null;
+            }
+            String[] pathSegments = split(path);
+            if (pathSegments.length != segments.length) {
+                return null;
+            }
+            Map<String, String> pathParameters = null;
+            for (int i = 0; i < segments.length; i++) {
+                String segment = segments[i];
+                if (segment.startsWith("{") && segment.endsWith("}")) {
+                    if (pathSegments[i].isEmpty()) {
+                        return null;
+                    }
+                    if (pathParameters == null) {
+                        pathParameters = new HashMap<>(2);
+                    }
+                    pathParameters.put(segment.substring(1, segment.length() - 1), pathSegments[i]);
+                } else if (!segment.equals(pathSegments[i])) {
+                    return null;
+                }
+            }
+            return pathParameters == null ? Map.of() : pathParameters;
+        }
+
+        private static String[] split(String path) {
+            String trimmed = path.startsWith("/") ? path.substring(1) : path;
+            if (trimmed.endsWith("/")) {
+                trimmed = trimmed.substring(0, trimmed.length() - 1);
+            }
+            return trimmed.split("/", -1);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.akrima.employeemanagement;
+
+import com.akrima.employeemanagement.model.Employee;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Read-through cache of employees by id, kept in the execution environment between warm invocations.
+ * <p>
+ * Entries expire after a fixed TTL and the least recently used entry is evicted once the cache is full.
+ * Unknown ids are cached too (negative caching), so repeated 404s do not reach DynamoDB. The write handlers
+ * invalidate the ids they touch; writes made by other execution environments become visible after the TTL.
+ */
+public final class EmployeeCache {
+
+    private static final EmployeeCache SHARED = new EmployeeCache(
+            Duration.ofSeconds(longFromEnvironment("EMPLOYEE_CACHE_TTL_SECONDS", 30)),
+            (int) longFromEnvironment("EMPLOYEE_CACHE_MAX_ENTRIES", 1000),
+            System::nanoTime);
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier nanoClock;
+    private final LinkedHashMap<String, Entry> entries;
+
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public EmployeeCache(Duration ttl, int maxEntries, LongSupplier nanoClock) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > EmployeeCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * The cache of this execution environment, sized by EMPLOYEE_CACHE_TTL_SECONDS and EMPLOYEE_CACHE_MAX_ENTRIES.
+     */
+    public static EmployeeCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the cached employee, or calls {@code loader} once on a miss. A {@code null} result means the
+     * employee does not exist and is cached as such.
+     */
+    public Employee get(String id, Function<String, Employee> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(id);
+            if (entry != null && entry.expiresAtNanos - nanoClock.getAsLong() > 0) {
+                hits++;
+                return entry.employee;
+            }
+            if (entry != null) {
+                entries.remove(id);
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+
+        Employee employee = loader.apply(id);
+
+        synchronized (this) {
+            // Do not cache a value read before a concurrent invalidation, it may already be stale
+            if (maxEntries > 0 && loadGeneration == generation) {
+                entries.put(id, new Entry(employee, nanoClock.getAsLong() + ttlNanos));
+            }
+        }
+        return employee;
+    }
+
+    public synchronized void invalidate(String id) {
+        generation++;
+        entries.remove(id);
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, entries.size());
+    }
+
+    private static long longFromEnvironment(String name, long defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : Long.parseLong(value.trim());
+    }
+
+    private record Entry(Employee employee, long expiresAtNanos) {
+    }
+
+    public record Stats(long hits, long misses, long evictions, int size) {
+    }
+}
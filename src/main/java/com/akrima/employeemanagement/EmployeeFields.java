@@ -0,0 +1,79 @@
+package com.akrima.employeemanagement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A sparse fieldset, as requested with {@code ?fields=id,lastName}: the employee attributes to read and return.
+ * {@link #ALL} stands for every attribute, which is what callers get without the parameter.
+ */
+public final class EmployeeFields {
+
+    public static final List<String> NAMES = List.of("id", "firstName", "lastName", "jobPosition");
+    public static final EmployeeFields ALL = new EmployeeFields((1 << NAMES.size()) - 1);
+
+    // Bit i set when NAMES.get(i) is requested
+    private final int mask;
+
+    private EmployeeFields(int mask) {
+        this.mask = mask;
+    }
+
+    /**
+     * Parses a comma-separated list of attribute names; {@code null} means {@link #ALL}.
+     *
+     * @throws IllegalArgumentException if the list is empty or names an unknown attribute
+     */
+    public static EmployeeFields parse(String fields) {
+        if (fields == null) {
+            return ALL;
+        }
+        int mask = 0;
+        for (String field : fields.split(",")) {
+            int index = NAMES.indexOf(field.trim());
+            if (index < 0) {
+                throw new IllegalArgumentException("Unknown field: " + field);
+            }
+            mask |= 1 << index;
+        }
+        return mask == ALL.mask ? ALL : new EmployeeFields(mask);
+    }
+
+    public boolean isAll() {
+        return mask == ALL.mask;
+    }
+
+    public boolean includes(String name) {
+        int index = NAMES.indexOf(name);
+        return index >= 0 && (mask & (1 << index)) != 0;
+    }
+
+    /**
+     * The requested attribute names, in declaration order.
+     */
+    public List<String> names() {
+        List<String> names = new ArrayList<>(NAMES.size());
+        for (int i = 0; i < NAMES.size(); i++) {
+            if ((mask & (1 << i)) != 0) {
+                names.add(NAMES.get(i));
+            }
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof EmployeeFields fields && fields.mask == mask;
+    }
+
+    @Override
+    public int hashCode() {
+        return mask;
+    }
+
+    @Override
+    public String toString() {
+        return String.join(",", names());
+    }
+}
@@ -0,0 +1,220 @@
+package com.akrima.employeemanagement;
+
+import com.amazonaws.services.lambda.runtime.ClientContext;
+import com.amazonaws.services.lambda.runtime.CognitoIdentity;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.lambda.runtime.LambdaRuntime;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves an API Gateway proxy handler (normally {@link EmployeeApiRouter}) over plain HTTP with the JDK's
+ * {@link HttpServer}, for container deployments where a long-running process is cheaper than Lambda under sustained
+ * load. Each request becomes an {@link APIGatewayProxyRequestEvent} (method, path, headers, query string, body) and
+ * the handler's response is written back, base64 bodies decoded.
+ * <p>
+ * Every request runs on its own virtual thread in the Java 21 build (the java21 profile), so a request waiting on
+ * DynamoDB holds no platform thread; the Java 17 build uses a cached thread pool. The JSON and compression buffers are
+ * pooled rather than per thread for that reason; only the small {@link InvocationMetrics} is allocated per request.
+ * The JDK server reads its {@code sun.net.httpserver.*} settings once per JVM, so they are set by the application's
+ * {@code main}, before the first server starts.
+ */
+public final class EmployeeHttpServer {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> handler;
+
+    private EmployeeHttpServer(HttpServer server, ExecutorService executor,
+                               RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> handler) {
+        this.server = server;
+        this.executor = executor;
+        this.handler = handler;
+    }
+
+    /**
+     * Binds {@code address} (port 0 for any free port) and starts serving. {@code backlog} is the number of pending
+     * connections the socket queues before refusing new ones.
+     */
+    public static EmployeeHttpServer start(InetSocketAddress address, int backlog,
+                                           RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> handler) throws IOException {
+        HttpServer server = HttpServer.create(address, backlog);
+        ExecutorService executor = ThreadPerRequestExecutors.create();
+        EmployeeHttpServer employeeHttpServer = new EmployeeHttpServer(server, executor, handler);
+        server.createContext("/", employeeHttpServer::serve);
+        server.setExecutor(executor);
+        server.start();
+        return employeeHttpServer;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting connections, waits up to {@code grace} for the requests in flight, then stops.
+     */
+    public void stop(Duration grace) {
+        server.stop((int) Math.max(0, grace.toSeconds()));
+        executor.shutdown();
+        try {
+            executor.awaitTermination(grace.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            APIGatewayProxyResponseEvent response;
+            try {
+                response = handler.handleRequest(toRequestEvent(exchange), new ServerContext(UUID.randomUUID().toString()));
+            } catch (RuntimeException e) {
+                LambdaRuntime.getLogger().log("Error handling " + exchange.getRequestMethod() + " " + exchange.getRequestURI() + ": " + e);
+                response = new APIGatewayProxyResponseEvent().withStatusCode(500).withBody("Internal server error.");
+            }
+            writeResponse(exchange, response);
+        }
+    }
+
+    private static APIGatewayProxyRequestEvent toRequestEvent(HttpExchange exchange) throws IOException {
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent()
+                .withHttpMethod(exchange.getRequestMethod())
+                .withPath(exchange.getRequestURI().getPath());
+
+        Map<String, String> headers = new HashMap<>();
+        Map<String, List<String>> multiValueHeaders = new HashMap<>();
+        for (Map.Entry<String, List<String>> header : exchange.getRequestHeaders().entrySet()) {
+            if (!header.getValue().isEmpty()) {
+                headers.put(header.getKey(), header.getValue().get(header.getValue().size() - 1));
+                multiValueHeaders.put(header.getKey(), header.getValue());
+            }
+        }
+        request.withHeaders(headers).withMultiValueHeaders(multiValueHeaders);
+
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null && !query.isEmpty()) {
+            // As in API Gateway, the last value of a repeated parameter is the single value, the multi-value map has all
+            Map<String, String> parameters = new HashMap<>();
+            Map<String, List<String>> multiValueParameters = new HashMap<>();
+            for (String pair : query.split("&")) {
+                if (pair.isEmpty()) {
+                    continue;
+                }
+                int equals = pair.indexOf('=');
+                String name = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+                String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+                parameters.put(name, value);
+                multiValueParameters.computeIfAbsent(name, key -> new ArrayList<>()).add(value);
+            }
+            request.withQueryStringParameters(parameters).withMultiValueQueryStringParameters(multiValueParameters);
+        }
+
+        try (InputStream body = exchange.getRequestBody()) {
+            byte[] bytes = body.readAllBytes();
+            if (bytes.length > 0) {
+                request.withBody(new String(bytes, StandardCharsets.UTF_8)).withIsBase64Encoded(false);
+            }
+        }
+        return request;
+    }
+
+    private static void writeResponse(HttpExchange exchange, APIGatewayProxyResponseEvent response) throws IOException {
+        Headers responseHeaders = exchange.getResponseHeaders();
+        if (response.getMultiValueHeaders() != null) {
+            response.getMultiValueHeaders().forEach((name, values) -> responseHeaders.put(name, new ArrayList<>(values)));
+        }
+        if (response.getHeaders() != null) {
+            response.getHeaders().forEach(responseHeaders::set);
+        }
+        byte[] body = response.getBody() == null ? new byte[0]
+                : Boolean.TRUE.equals(response.getIsBase64Encoded()) ? Base64.getDecoder().decode(response.getBody())
+                : response.getBody().getBytes(StandardCharsets.UTF_8);
+        int status = response.getStatusCode() == null ? 200 : response.getStatusCode();
+        // -1: no body at all, which 204 and 304 require
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * What the handlers read from a Lambda context: a request id for the metrics, and the runtime's logger, which
+     * writes to stdout outside Lambda.
+     */
+    private record ServerContext(String awsRequestId) implements Context {
+
+        @Override
+        public String getAwsRequestId() {
+            return awsRequestId;
+        }
+
+        @Override
+        public String getLogGroupName() {
+            return null;
+        }
+
+        @Override
+        public String getLogStreamName() {
+            return null;
+        }
+
+        @Override
+        public String getFunctionName() {
+            return "EmployeeHttpServer";
+        }
+
+        @Override
+        public String getFunctionVersion() {
+            return null;
+        }
+
+        @Override
+        public String getInvokedFunctionArn() {
+            return null;
+        }
+
+        @Override
+        public CognitoIdentity getIdentity() {
+            return null;
+        }
+
+        @Override
+        public ClientContext getClientContext() {
+            return null;
+        }
+
+        @Override
+        public int getRemainingTimeInMillis() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public int getMemoryLimitInMB() {
+            return (int) (Runtime.getRuntime().maxMemory() / (1024 * 1024));
+        }
+
+        @Override
+        public LambdaLogger getLogger() {
+            return LambdaRuntime.getLogger();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.akrima.employeemanagement;
+
+import com.akrima.employeemanagement.model.Employee;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.text.Normalizer;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Mapping between {@link Employee} and its DynamoDB item in the Employee table.
+ * <p>
+ * Besides the employee's own attributes an item carries two derived ones for the lastName-index:
+ * {@value #LAST_NAME_KEY} (the normalised last name, see {@link #lastNameKey(String)}) and
+ * {@value #LAST_NAME_INITIAL} (its first character, the index partition). Employees without a last name have
+ * neither and stay out of the index.
+ * <p>
+ * The {@value #VERSION} number attribute changes on every write (see {@link #initialVersion()}); it backs the ETags
+ * of the retrieve handlers.
+ */
+public final class EmployeeItemMapper {
+
+    public static final String LAST_NAME_KEY = "lastNameKey";
+    public static final String LAST_NAME_INITIAL = "lastNameInitial";
+    public static final String VERSION = "version";
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private EmployeeItemMapper() {
+    }
+
+    public static Map<String, AttributeValue> toItem(Employee employee) {
+        Map<String, AttributeValue> item = new HashMap<>(8);
+        item.put("id", AttributeValue.builder().s(employee.id()).build());
+        item.put("firstName", AttributeValue.builder().s(employee.firstName()).build());
+        item.put("lastName", AttributeValue.builder().s(employee.lastName()).build());
+        item.put("jobPosition", AttributeValue.builder().s(employee.jobPosition()).build());
+        if (employee.version() != null) {
+            item.put(VERSION, AttributeValue.builder().n(Long.toString(employee.version())).build());
+        }
+
+        String lastNameKey = lastNameKey(employee.lastName());
+        if (!lastNameKey.isEmpty()) {
+            item.put(LAST_NAME_KEY, AttributeValue.builder().s(lastNameKey).build());
+            item.put(LAST_NAME_INITIAL, AttributeValue.builder().s(initial(lastNameKey)).build());
+        }
+        return item;
+    }
+
+    /**
+     * The first attribute {@link #toItem(Employee)} cannot write, or {@code null} if the employee can be written: the
+     * id and job position (keys of the table and of the jobPosition-index) must be non-empty, the names present.
+     * DynamoDB rejects a whole batch for one such item, so the batch writers check every item up front.
+     */
+    public static String missingAttribute(Employee employee) {
+        if (employee.id() == null || employee.id().isEmpty()) {
+            return "id";
+        }
+        if (employee.firstName() == null) {
+            return "firstName";
+        }
+        if (employee.lastName() == null) {
+            return "lastName";
+        }
+        if (employee.jobPosition() == null || employee.jobPosition().isEmpty()) {
+            return "jobPosition";
+        }
+        return null;
+    }
+
+    /**
+     * Attributes missing from the item, e.g. left out by a ProjectionExpression, are mapped to {@code null}.
+     */
+    public static Employee fromItem(Map<String, AttributeValue> item) {
+        return new Employee(
+                string(item, "id"),
+                string(item, "firstName"),
+                string(item, "lastName"),
+                string(item, "jobPosition"),
+                number(item, VERSION)
+        );
+    }
+
+    /**
+     * The version of a newly written item: random rather than 1, so an employee deleted and added again never
+     * repeats a version, and an ETag, of its predecessor. Updates increment it, far from overflowing.
+     */
+    public static long initialVersion() {
+        return ThreadLocalRandom.current().nextLong(1, 1L << 62);
+    }
+
+    /**
+     * The form last names are compared in for prefix search: trimmed, lower case, accents removed
+     * ({@code "  Müller"} becomes {@code "muller"}). Empty for a {@code null} last name. Applied to the stored last
+     * name and to the searched prefix alike.
+     */
+    public static String lastNameKey(String lastName) {
+        if (lastName == null) {
+            return "";
+        }
+        String trimmed = lastName.strip();
+        for (int i = 0; i < trimmed.length(); i++) {
+            if (trimmed.charAt(i) >= 0x80) {
+                String decomposed = Normalizer.normalize(trimmed, Normalizer.Form.NFKD);
+                return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+            }
+        }
+        // ASCII only, by far the common case: nothing to decompose
+        return trimmed.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The first character (code point) of a non-empty {@link #lastNameKey(String)}.
+     */
+    public static String initial(String lastNameKey) {
+        return lastNameKey.substring(0, lastNameKey.offsetByCodePoints(0, 1));
+    }
+
+    private static String string(Map<String, AttributeValue> item, String name) {
+        AttributeValue value = item.get(name);
+        return value == null ? null : value.s();
+    }
+
+    private static Long number(Map<String, AttributeValue> item, String name) {
+        AttributeValue value = item.get(name);
+        return value == null || value.n() == null ? null : Long.valueOf(value.n());
+    }
+}
@@ -0,0 +1,284 @@
+package com.akrima.employeemanagement;
+
+import com.akrima.employeemanagement.model.Employee;
+import com.akrima.employeemanagement.model.EmployeePage;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * JSON encoding and decoding of {@link Employee} shared by every handler.
+ * <p>
+ * Hand-written on Jackson's streaming API: no ObjectMapper, no reflection over the record, and a single
+ * thread-safe {@link JsonFactory} for the whole process. Strings are produced in buffers borrowed from a pool bounded
+ * by the number of processors, reused across invocations whether or not they run on the same thread. Time spent
+ * reading request bodies and writing response bodies is added to the {@link InvocationMetrics} of the invocation.
+ */
+public final class EmployeeJsonCodec {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    // Buffers that grew beyond this (large lists) are not kept for the next invocation
+    private static final int MAX_RETAINED_BUFFER_CHARS = 256 * 1024;
+    private static final BlockingQueue<ReusableStringWriter> BUFFERS = new ArrayBlockingQueue<>(2 * Runtime.getRuntime().availableProcessors());
+
+    private EmployeeJsonCodec() {
+    }
+
+    public static Employee readEmployee(String json) throws IOException {
+        long startNanos = System.nanoTime();
+        try (JsonParser parser = createParser(json)) {
+            parser.nextToken();
+            return readEmployee(parser);
+        } finally {
+            InvocationMetrics.recordJson(startNanos);
+        }
+    }
+
+    public static List<Employee> readEmployees(String json) throws IOException {
+        long startNanos = System.nanoTime();
+        try (JsonParser parser = createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected an array of employees");
+            }
+            List<Employee> employees = new ArrayList<>();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                employees.add(readEmployee(parser));
+            }
+            return employees;
+        } finally {
+            InvocationMetrics.recordJson(startNanos);
+        }
+    }
+
+    /**
+     * Reads a JSON array of strings, such as a list of employee ids.
+     */
+    public static List<String> readStrings(String json) throws IOException {
+        long startNanos = System.nanoTime();
+        try (JsonParser parser = createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected an array of strings");
+            }
+            List<String> values = new ArrayList<>();
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.VALUE_STRING) {
+                    throw new JsonParseException(parser, "Expected a string");
+                }
+                values.add(parser.getText());
+            }
+            return values;
+        } finally {
+            InvocationMetrics.recordJson(startNanos);
+        }
+    }
+
+    /**
+     * Reads one employee object; the parser must be positioned on its START_OBJECT token.
+     */
+    public static Employee readEmployee(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected an employee object");
+        }
+        String id = null;
+        String firstName = null;
+        String lastName = null;
+        String jobPosition = null;
+        String fieldName;
+        while ((fieldName = parser.nextFieldName()) != null) {
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Unexpected value for field " + fieldName);
+            }
+            String text = value == JsonToken.VALUE_NULL ? null : parser.getText();
+            switch (fieldName) {
+                case "id" -> id = text;
+                case "firstName" -> firstName = text;
+                case "lastName" -> lastName = text;
+                case "jobPosition" -> jobPosition = text;
+                default -> throw new JsonParseException(parser, "Unrecognized field " + fieldName);
+            }
+        }
+        if (parser.currentToken() != JsonToken.END_OBJECT) {
+            throw new JsonParseException(parser, "Unterminated employee object");
+        }
+        return new Employee(id, firstName, lastName, jobPosition);
+    }
+
+    public static String writeEmployee(Employee employee) throws IOException {
+        return write(generator -> writeEmployee(generator, employee));
+    }
+
+    /**
+     * Writes only the attributes in {@code fields}.
+     */
+    public static String writeEmployee(Employee employee, EmployeeFields fields) throws IOException {
+        return write(generator -> writeEmployee(generator, employee, fields));
+    }
+
+    public static String writeEmployees(List<Employee> employees) throws IOException {
+        return writeEmployees(employees, EmployeeFields.ALL);
+    }
+
+    public static String writeEmployees(List<Employee> employees, EmployeeFields fields) throws IOException {
+        return write(generator -> writeEmployees(generator, employees, fields));
+    }
+
+    public static String writeEmployeePage(EmployeePage page) throws IOException {
+        return writeEmployeePage(page, EmployeeFields.ALL);
+    }
+
+    public static String writeEmployeePage(EmployeePage page, EmployeeFields fields) throws IOException {
+        return write(generator -> {
+            generator.writeStartObject();
+            generator.writeFieldName("items");
+            writeEmployees(generator, page.items(), fields);
+            generator.writeStringField("nextCursor", page.nextCursor());
+            generator.writeEndObject();
+        });
+    }
+
+    /**
+     * Builds a response body in a pooled buffer.
+     */
+    public static String write(JsonBody body) throws IOException {
+        long startNanos = System.nanoTime();
+        ReusableStringWriter buffer = BUFFERS.poll();
+        if (buffer == null) {
+            buffer = new ReusableStringWriter();
+        }
+        try {
+            try (JsonGenerator generator = JSON_FACTORY.createGenerator(buffer.reset())) {
+                body.write(generator);
+            } finally {
+                InvocationMetrics.recordJson(startNanos);
+            }
+            return buffer.release();
+        } finally {
+            // A buffer the pool has no room for is left to the garbage collector
+            BUFFERS.offer(buffer);
+        }
+    }
+
+    public static void writeEmployees(JsonGenerator generator, List<Employee> employees) throws IOException {
+        writeEmployees(generator, employees, EmployeeFields.ALL);
+    }
+
+    public static void writeEmployees(JsonGenerator generator, List<Employee> employees, EmployeeFields fields) throws IOException {
+        generator.writeStartArray();
+        for (Employee employee : employees) {
+            writeEmployee(generator, employee, fields);
+        }
+        generator.writeEndArray();
+    }
+
+    public static void writeEmployee(JsonGenerator generator, Employee employee) throws IOException {
+        writeEmployee(generator, employee, EmployeeFields.ALL);
+    }
+
+    public static void writeEmployee(JsonGenerator generator, Employee employee, EmployeeFields fields) throws IOException {
+        generator.writeStartObject();
+        if (fields.isAll()) {
+            generator.writeStringField("id", employee.id());
+            generator.writeStringField("firstName", employee.firstName());
+            generator.writeStringField("lastName", employee.lastName());
+            generator.writeStringField("jobPosition", employee.jobPosition());
+        } else {
+            if (fields.includes("id")) {
+                generator.writeStringField("id", employee.id());
+            }
+            if (fields.includes("firstName")) {
+                generator.writeStringField("firstName", employee.firstName());
+            }
+            if (fields.includes("lastName")) {
+                generator.writeStringField("lastName", employee.lastName());
+            }
+            if (fields.includes("jobPosition")) {
+                generator.writeStringField("jobPosition", employee.jobPosition());
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * UTF-8 generator writing straight to {@code out}, for callers streaming many employees.
+     */
+    public static JsonGenerator createGenerator(OutputStream out) throws IOException {
+        return JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+    }
+
+    /**
+     * Parser over a UTF-8 (or UTF-16/32, detected) JSON stream, such as the event given to a stream handler.
+     */
+    public static JsonParser createParser(InputStream in) throws IOException {
+        return JSON_FACTORY.createParser(in);
+    }
+
+    private static JsonParser createParser(String json) throws IOException {
+        if (json == null) {
+            throw new IllegalArgumentException("Missing JSON body");
+        }
+        return JSON_FACTORY.createParser(json);
+    }
+
+    @FunctionalInterface
+    public interface JsonBody {
+        void write(JsonGenerator generator) throws IOException;
+    }
+
+    /**
+     * Unsynchronized {@link Writer} over a StringBuilder that is kept between calls while pooled.
+     */
+    private static final class ReusableStringWriter extends Writer {
+
+        private StringBuilder builder = new StringBuilder(1024);
+
+        ReusableStringWriter reset() {
+            builder.setLength(0);
+            return this;
+        }
+
+        String release() {
+            String result = builder.toString();
+            if (builder.capacity() > MAX_RETAINED_BUFFER_CHARS) {
+                builder = new StringBuilder(1024);
+            }
+            return result;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            builder.append(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            builder.append(str, off, off + len);
+        }
+
+        @Override
+        public void write(int c) {
+            builder.append((char) c);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -1,16 +1,44 @@
 package com.akrima.employeemanagement;
 
-import org.springframework.boot.SpringApplication;
-import org.springframework.boot.autoconfigure.SpringBootApplication;
+import com.amazonaws.services.lambda.runtime.LambdaRuntime;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
 
 /**
  * Author Abderrahim KRIMA
+ * <p>
+ * Runs the whole employee API as a long-running HTTP server on PORT (default 8080), see {@link EmployeeHttpServer}:
+ * one {@link EmployeeApiRouter}, so every route shares one DynamoDB client and one cache. HTTP_BACKLOG (default 1024)
+ * is the number of connections queued before new ones are refused.
  */
-@SpringBootApplication
 public class EmployeeManagementLambdaJavaApplication {
 
-	public static void main(String[] args) {
-		SpringApplication.run(EmployeeManagementLambdaJavaApplication.class, args);
+	public static void main(String[] args) throws IOException {
+		int backlog = intFromEnvironment("HTTP_BACKLOG", 1024);
+		// Read by the JDK server once per JVM. Without TCP_NODELAY the headers and body, written separately, wait
+		// ~40 ms for a delayed ACK on every keep-alive request; and it closes connections beyond 200 idle ones
+		setDefault("sun.net.httpserver.nodelay", "true");
+		setDefault("sun.net.httpserver.maxIdleConnections", Integer.toString(backlog));
+
+		EmployeeHttpServer server = EmployeeHttpServer.start(
+				new InetSocketAddress(intFromEnvironment("PORT", 8080)),
+				backlog,
+				new EmployeeApiRouter());
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(Duration.ofSeconds(10))));
+		LambdaRuntime.getLogger().log("Employee API listening on port " + server.port());
+	}
+
+	private static void setDefault(String property, String value) {
+		if (System.getProperty(property) == null) {
+			System.setProperty(property, value);
+		}
+	}
+
+	private static int intFromEnvironment(String name, int defaultValue) {
+		String value = System.getenv(name);
+		return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
 	}
 
 }
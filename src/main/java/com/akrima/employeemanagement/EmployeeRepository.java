@@ -0,0 +1,122 @@
+package com.akrima.employeemanagement;
+
+import com.akrima.employeemanagement.model.Employee;
+import com.akrima.employeemanagement.model.EmployeePage;
+
+import java.util.List;
+
+/**
+ * Storage used by the employee handlers. Writes are conditional on the id, so each one is a single atomic
+ * operation: no read-then-write races between concurrent requests. Reads take the {@link EmployeeFields} the caller
+ * needs, so an implementation can fetch less than the whole employee. Implementations are thread-safe.
+ *
+ * @see DynamoDbEmployeeRepository
+ * @see InMemoryEmployeeRepository
+ */
+public interface EmployeeRepository {
+
+    /**
+     * @return the employee, or {@code null} if there is no employee with this id
+     */
+    default Employee findById(String id) {
+        return findById(id, EmployeeFields.ALL);
+    }
+
+    /**
+     * Reads at least the attributes in {@code fields}; the others may be left {@code null}.
+     *
+     * @return the employee, or {@code null} if there is no employee with this id
+     */
+    Employee findById(String id, EmployeeFields fields);
+
+    /**
+     * Every employee, in the order of a full table scan.
+     */
+    default List<Employee> findAll() {
+        return findAll(EmployeeFields.ALL);
+    }
+
+    default List<Employee> findAll(EmployeeFields fields) {
+        return findAll(fields, false);
+    }
+
+    /**
+     * With {@code consistentRead}, the result holds every write acknowledged before the call (a strongly consistent
+     * scan for DynamoDB, at twice the read capacity).
+     */
+    List<Employee> findAll(EmployeeFields fields, boolean consistentRead);
+
+    /**
+     * A number that changes after every write, telling whether a copy of {@link #findAll} is still current without
+     * reading the employees; see {@link DirectoryVersion}.
+     */
+    long directoryVersion();
+
+    /**
+     * Every employee, read lazily as the result is iterated (one scan page at a time for DynamoDB), so a table of any
+     * size can be streamed without holding it in memory. Each call starts a new scan.
+     */
+    Iterable<Employee> scan(EmployeeFields fields);
+
+    /**
+     * One page of a full scan, as large as the store returns in one request (1 MB for DynamoDB), starting after
+     * {@code cursor} ({@code null} for the first page). {@link #findAll} and {@link #scan} read these pages in turn;
+     * reading them one by one lets a caller pace each request. The page's next cursor is {@code null} once the scan is
+     * complete.
+     *
+     * @throws IllegalArgumentException if the cursor was not returned by a previous page
+     */
+    default EmployeePage scanPage(String cursor, EmployeeFields fields, boolean consistentRead) {
+        return findPage(Integer.MAX_VALUE, cursor, fields);
+    }
+
+    /**
+     * One page of at most {@code limit} employees, starting after {@code cursor} ({@code null} for the first page).
+     * The page's next cursor is {@code null} once the scan is complete.
+     *
+     * @throws IllegalArgumentException if the cursor was not returned by a previous page
+     */
+    default EmployeePage findPage(int limit, String cursor) {
+        return findPage(limit, cursor, EmployeeFields.ALL);
+    }
+
+    EmployeePage findPage(int limit, String cursor, EmployeeFields fields);
+
+    /**
+     * One page of the employees holding {@code jobPosition}, in id order, read through an index so the cost
+     * depends on the number of matches rather than the size of the table. Paged like
+     * {@link #findPage(int, String, EmployeeFields)}.
+     *
+     * @throws IllegalArgumentException if the cursor was not returned by a previous page of this query
+     */
+    EmployeePage findByJobPosition(String jobPosition, int limit, String cursor, EmployeeFields fields);
+
+    /**
+     * One page of the employees whose last name starts with {@code prefix}, ignoring case and accents (both sides are
+     * compared as {@link EmployeeItemMapper#lastNameKey(String)}), ordered by last name. Read through an index so the
+     * cost depends on the number of matches. Paged like {@link #findPage(int, String, EmployeeFields)}.
+     *
+     * @throws IllegalArgumentException if the prefix is blank, or the cursor was not returned by a previous page of
+     *                                  this query
+     */
+    EmployeePage findByLastNamePrefix(String prefix, int limit, String cursor, EmployeeFields fields);
+
+    /**
+     * Adds the employee if the id is not taken yet.
+     *
+     * @return {@code false} if an employee with this id already exists
+     */
+    boolean add(Employee employee);
+
+    /**
+     * Replaces the attributes of an existing employee.
+     *
+     * @return {@code false} if there is no employee with this id
+     */
+    boolean update(Employee employee);
+
+    /**
+     * @return {@code false} if there is no employee with this id
+     */
+    boolean delete(String id);
+}
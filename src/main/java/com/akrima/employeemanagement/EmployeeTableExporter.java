@@ -0,0 +1,133 @@
+package com.akrima.employeemanagement;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Full-table export of the Employee table as gzip-compressed NDJSON (one employee per line).
+ * <p>
+ * The table is read with a DynamoDB parallel scan: each of the {@code totalSegments} segments is scanned by a
+ * worker of a fixed-size pool, and every page is written to the sink as soon as it arrives. Only the pages
+ * currently in flight are held in memory, whatever the size of the table.
+ */
+public class EmployeeTableExporter {
+
+    private static final String DYNAMO_DB_TABLE_NAME = "Employee";
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final DynamoDbClient dynamoDbClient;
+    private final int totalSegments;
+    private final int workers;
+
+    public EmployeeTableExporter(DynamoDbClient dynamoDbClient, int totalSegments, int workers) {
+        if (totalSegments < 1 || workers < 1) {
+            throw new IllegalArgumentException("totalSegments and workers must be positive");
+        }
+        this.dynamoDbClient = dynamoDbClient;
+        this.totalSegments = totalSegments;
+        this.workers = workers;
+    }
+
+    /**
+     * Writes every employee to {@code out} as gzip-compressed NDJSON. The stream is finished but not closed.
+     *
+     * @return the number of exported employees
+     */
+    public long export(OutputStream out) throws IOException {
+        GZIPOutputStream gzipOutputStream = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+        ExecutorService executorService = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "employee-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Long>> segments = new ArrayList<>(totalSegments);
+            for (int segment = 0; segment < totalSegments; segment++) {
+                int currentSegment = segment;
+                segments.add(executorService.submit(() -> exportSegment(currentSegment, gzipOutputStream)));
+            }
+
+            long exported = 0;
+            for (Future<Long> segment : segments) {
+                exported += segment.get();
+            }
+            gzipOutputStream.finish();
+            return exported;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Export interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Export of a segment failed", e.getCause());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private long exportSegment(int segment, OutputStream sink) throws IOException {
+        ScanRequest scanRequest = ScanRequest.builder()
+                .tableName(DYNAMO_DB_TABLE_NAME)
+                .segment(segment)
+                .totalSegments(totalSegments)
+                .build();
+
+        long exported = 0;
+        ByteArrayOutputStream pageBuffer = new ByteArrayOutputStream(GZIP_BUFFER_SIZE);
+        for (ScanResponse page : dynamoDbClient.scanPaginator(scanRequest)) {
+            // Encode the page outside the lock, then append it to the shared gzip stream in one write
+            pageBuffer.reset();
+            try (JsonGenerator generator = EmployeeJsonCodec.createGenerator(pageBuffer)) {
+                generator.setRootValueSeparator(null);
+                for (Map<String, AttributeValue> item : page.items()) {
+                    EmployeeJsonCodec.writeEmployee(generator, EmployeeItemMapper.fromItem(item));
+                    generator.writeRaw('\n');
+                }
+            }
+            synchronized (sink) {
+                pageBuffer.writeTo(sink);
+            }
+            exported += page.items().size();
+        }
+        return exported;
+    }
+
+    /**
+     * Nightly export entry point: {@code EmployeeTableExporter <output.ndjson.gz> [totalSegments] [workers]}.
+     * Segments and workers default to the EXPORT_TOTAL_SEGMENTS and EXPORT_WORKERS environment variables.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: EmployeeTableExporter <output.ndjson.gz> [totalSegments] [workers]");
+            System.exit(1);
+        }
+        int totalSegments = args.length > 1 ? Integer.parseInt(args[1]) : intFromEnvironment("EXPORT_TOTAL_SEGMENTS", 8);
+        int workers = args.length > 2 ? Integer.parseInt(args[2]) : intFromEnvironment("EXPORT_WORKERS", totalSegments);
+
+        EmployeeTableExporter exporter = new EmployeeTableExporter(DynamoDbClientFactory.createDynamoDbClient(), totalSegments, workers);
+        try (OutputStream out = Files.newOutputStream(Path.of(args[0]))) {
+            long exported = exporter.export(out);
+            System.out.println("Exported " + exported + " employees to " + args[0]);
+        }
+    }
+
+    private static int intFromEnvironment(String name, int defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
+    }
+}
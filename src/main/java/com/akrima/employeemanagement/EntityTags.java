@@ -0,0 +1,131 @@
+package com.akrima.employeemanagement;
+
+import com.akrima.employeemanagement.model.Employee;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Strong ETags and {@code If-None-Match} for the retrieve handlers, so a client polling an unchanged employee or
+ * list gets a bodyless 304 and the handler skips serialising the response.
+ * <p>
+ * An employee's ETag is its version (see {@link EmployeeItemMapper#initialVersion()}). A list's is a hash of the ids
+ * and versions it holds, and of the next page cursor, so it is computed without serialising anything. Items written
+ * before versions existed have no ETag, and neither does a list holding one, until they are next updated.
+ * <p>
+ * A body compressed by {@link ContentEncoding} is a different representation, so its ETag carries the coding as a
+ * suffix ({@code "...-gzip"}). {@code If-None-Match} is compared with the suffix removed, as Apache httpd does: the
+ * compressed copy a client holds is still current as long as the uncompressed one is.
+ */
+public final class EntityTags {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private EntityTags() {
+    }
+
+    /**
+     * @return the employee's ETag, or {@code null} if it has no version
+     */
+    public static String of(Employee employee) {
+        if (employee == null || employee.version() == null) {
+            return null;
+        }
+        return '"' + Long.toString(employee.version(), 36) + '"';
+    }
+
+    /**
+     * @return the ETag of a list of employees (a page when {@code nextCursor} is not {@code null}), or {@code null}
+     * if one of them has no version
+     */
+    public static String of(List<Employee> employees, String nextCursor) {
+        // 64-bit FNV-1a: collisions are out of reach for the lists of one URL
+        long hash = FNV_OFFSET_BASIS;
+        for (Employee employee : employees) {
+            if (employee.version() == null) {
+                return null;
+            }
+            hash = mix(hash, employee.id());
+            hash = mix(hash, employee.version());
+        }
+        if (nextCursor != null) {
+            hash = mix(hash, nextCursor);
+        }
+        return "\"" + employees.size() + "-" + Long.toHexString(hash) + '"';
+    }
+
+    /**
+     * The tag of the request's {@code If-None-Match} that {@code etag} matches, in either content coding, or
+     * {@code null} if there is none and the full response must be sent.
+     */
+    public static String match(APIGatewayProxyRequestEvent request, String etag) {
+        String ifNoneMatch = request == null || etag == null ? null : ContentEncoding.header(request, "If-None-Match");
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return etag;
+            }
+            // If-None-Match uses the weak comparison
+            String opaqueTag = tag.startsWith("W/") ? tag.substring(2) : tag;
+            if (opaqueTag.equals(etag)
+                    || opaqueTag.equals(withCoding(etag, ContentEncoding.GZIP))
+                    || opaqueTag.equals(withCoding(etag, ContentEncoding.DEFLATE))) {
+                return opaqueTag;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A 304 for a tag returned by {@link #match(APIGatewayProxyRequestEvent, String)}.
+     */
+    public static APIGatewayProxyResponseEvent notModified(APIGatewayProxyResponseEvent responseEvent, String matchedTag) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("ETag", matchedTag);
+        if (matchedTag.endsWith("-" + ContentEncoding.GZIP + '"') || matchedTag.endsWith("-" + ContentEncoding.DEFLATE + '"')) {
+            // As the compressed 200 did
+            headers.put("Vary", "Accept-Encoding");
+        }
+        return responseEvent.withStatusCode(304).withHeaders(headers).withBody(null);
+    }
+
+    /**
+     * Adds the ETag to a response, once {@link ContentEncoding#compress} has chosen its coding. A {@code null} ETag
+     * leaves the response untouched.
+     */
+    public static APIGatewayProxyResponseEvent tag(APIGatewayProxyResponseEvent response, String etag) {
+        if (etag == null) {
+            return response;
+        }
+        Map<String, String> headers = response.getHeaders() == null ? new HashMap<>() : new HashMap<>(response.getHeaders());
+        String coding = headers.get("Content-Encoding");
+        headers.put("ETag", coding == null ? etag : withCoding(etag, coding));
+        return response.withHeaders(headers);
+    }
+
+    private static String withCoding(String etag, String coding) {
+        return etag.substring(0, etag.length() - 1) + '-' + coding + '"';
+    }
+
+    private static long mix(long hash, String value) {
+        hash = mix(hash, value.length());
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+            hash = (hash ^ ((value >>> shift) & 0xff)) * FNV_PRIME;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,87 @@
+package com.akrima.employeemanagement;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Brings the EmployeeHeadcount table in line with the Employee table: counts the employees per job position with a
+ * scan, reads the stored headcounts, and {@code ADD}s the difference to each position that is off. Run it once after
+ * the stream is first deployed, since {@link HeadcountStreamLambda} only counts the writes made after that, and
+ * again whenever a stream batch was given up on and sent to the failure queue.
+ * <p>
+ * Adding the difference rather than setting the count keeps the deltas the stream applies meanwhile; only a write
+ * landing between the scan and the update is counted twice or missed, so run it at a quiet time. Running it again
+ * adds nothing once the counts agree.
+ */
+public class HeadcountReconciliation {
+
+    private static final String DYNAMO_DB_TABLE_NAME = "Employee";
+
+    private final DynamoDbClient dynamoDbClient;
+
+    public HeadcountReconciliation(DynamoDbClient dynamoDbClient) {
+        this.dynamoDbClient = dynamoDbClient;
+    }
+
+    /**
+     * @return the difference added to each job position whose headcount was off
+     */
+    public SortedMap<String, Long> reconcile() {
+        SortedMap<String, Long> differences = new TreeMap<>();
+        scan(DYNAMO_DB_TABLE_NAME, (jobPosition, headcount) -> differences.merge(jobPosition, headcount, Long::sum));
+        scan(HeadcountStreamLambda.HEADCOUNT_TABLE_NAME, (jobPosition, headcount) -> differences.merge(jobPosition, -headcount, Long::sum));
+        differences.values().removeIf(difference -> difference == 0);
+
+        differences.forEach((jobPosition, difference) -> dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                .tableName(HeadcountStreamLambda.HEADCOUNT_TABLE_NAME)
+                .key(Map.of("jobPosition", AttributeValue.builder().s(jobPosition).build()))
+                .updateExpression("ADD headcount :delta")
+                .expressionAttributeValues(Map.of(":delta", AttributeValue.builder().n(Long.toString(difference)).build()))
+                .build()));
+        return differences;
+    }
+
+    /**
+     * Every item of the Employee table counts one for its job position; every item of the headcount table its count.
+     */
+    private void scan(String tableName, ObjLongConsumer<String> consumer) {
+        boolean employees = DYNAMO_DB_TABLE_NAME.equals(tableName);
+        Map<String, AttributeValue> exclusiveStartKey = null;
+        do {
+            ScanResponse page = dynamoDbClient.scan(ScanRequest.builder()
+                    .tableName(tableName)
+                    .projectionExpression(employees ? "jobPosition" : "jobPosition, headcount")
+                    .consistentRead(true)
+                    .exclusiveStartKey(exclusiveStartKey)
+                    .build());
+            for (Map<String, AttributeValue> item : page.items()) {
+                AttributeValue jobPosition = item.get("jobPosition");
+                if (jobPosition == null || jobPosition.s() == null || jobPosition.s().isEmpty()) {
+                    // Not counted by the stream either
+                    continue;
+                }
+                AttributeValue headcount = item.get("headcount");
+                consumer.accept(jobPosition.s(), employees ? 1
+                        : headcount == null || headcount.n() == null ? 0 : Long.parseLong(headcount.n()));
+            }
+            exclusiveStartKey = page.hasLastEvaluatedKey() ? page.lastEvaluatedKey() : null;
+        } while (exclusiveStartKey != null);
+    }
+
+    /**
+     * Reconciliation entry point, no arguments.
+     */
+    public static void main(String[] args) {
+        SortedMap<String, Long> differences = new HeadcountReconciliation(DynamoDbClientFactory.createDynamoDbClient()).reconcile();
+        differences.forEach((jobPosition, difference) -> System.out.println(jobPosition + ": " + (difference > 0 ? "+" : "") + difference));
+        System.out.println("Corrected the headcount of " + differences.size() + " job positions");
+    }
+}
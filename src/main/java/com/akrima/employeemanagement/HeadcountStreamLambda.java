@@ -0,0 +1,122 @@
+package com.akrima.employeemanagement;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.DynamodbEvent;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Keeps the headcount per job position in the EmployeeHeadcount table, from the Employee table's stream
+ * (NEW_AND_OLD_IMAGES): an INSERT counts the new image's position, a REMOVE uncounts the old image's, a MODIFY
+ * does both. The deltas of a batch are summed per position first, so a batch costs one atomic {@code ADD} per
+ * position whose count changed, whatever the number of records. Employees without a job position are not counted.
+ * <p>
+ * The updates of a batch go in TransactWriteItems (100 positions per transaction) whose ClientRequestToken is derived
+ * from the batch's sequence numbers. A failed batch is thrown back to Lambda, and when its retry comes within
+ * DynamoDB's ten minute idempotency window the transactions that had gone through are not applied twice. This holds as
+ * long as retried batches hold the same records, so the event source mapping must not bisect batches on error, and
+ * its MaximumRetryAttempts keeps the retries inside the window. A batch it gives up on goes to its failure
+ * destination and is corrected by {@link HeadcountReconciliation}, as are the employees written before the stream.
+ */
+public class HeadcountStreamLambda implements RequestHandler<DynamodbEvent, Void> {
+
+    public static final String HEADCOUNT_TABLE_NAME = "EmployeeHeadcount";
+    static final int MAX_TRANSACTION_ITEMS = 100;
+    private final DynamoDbClient dynamoDbClient;
+    private final AdaptiveRateLimiter rateLimiter = AdaptiveRateLimiter.shared();
+
+    public HeadcountStreamLambda() {
+        // Default Constructor required aws lambda
+        this.dynamoDbClient = DynamoDbClientFactory.sharedDynamoDbClient();
+        DynamoDbClientFactory.primeIfEnabled(this.dynamoDbClient);
+    }
+
+    public HeadcountStreamLambda(DynamoDbClient dynamoDbClient) {
+        this.dynamoDbClient = dynamoDbClient;
+    }
+
+    @Override
+    public Void handleRequest(DynamodbEvent dynamodbEvent, Context context) {
+        InvocationMetrics metrics = InvocationMetrics.start("HeadcountStreamLambda", context);
+        try {
+            handle(dynamodbEvent, context);
+            return null;
+        } finally {
+            metrics.finish();
+        }
+    }
+
+    private void handle(DynamodbEvent dynamodbEvent, Context context) {
+        List<DynamodbEvent.DynamodbStreamRecord> records = dynamodbEvent == null || dynamodbEvent.getRecords() == null
+                ? List.of() : dynamodbEvent.getRecords();
+        SortedMap<String, Long> deltas = deltas(records);
+        InvocationMetrics.recordResults(deltas.size());
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        String batchId = records.get(0).getEventSourceARN() + '/' + records.get(0).getDynamodb().getSequenceNumber()
+                + '/' + records.get(records.size() - 1).getDynamodb().getSequenceNumber();
+        List<Map.Entry<String, Long>> updates = new ArrayList<>(deltas.entrySet());
+        List<List<Map.Entry<String, Long>>> transactions = DynamoDbBatches.partition(updates, MAX_TRANSACTION_ITEMS);
+        for (int i = 0; i < transactions.size(); i++) {
+            List<TransactWriteItem> items = new ArrayList<>(transactions.get(i).size());
+            for (Map.Entry<String, Long> delta : transactions.get(i)) {
+                items.add(TransactWriteItem.builder().update(Update.builder()
+                        .tableName(HEADCOUNT_TABLE_NAME)
+                        .key(Map.of("jobPosition", AttributeValue.builder().s(delta.getKey()).build()))
+                        .updateExpression("ADD headcount :delta")
+                        .expressionAttributeValues(Map.of(":delta", AttributeValue.builder().n(Long.toString(delta.getValue())).build()))
+                        .build()).build());
+            }
+            TransactWriteItemsRequest request = TransactWriteItemsRequest.builder()
+                    .transactItems(items)
+                    .clientRequestToken(UUID.nameUUIDFromBytes((batchId + '/' + i).getBytes(StandardCharsets.UTF_8)).toString())
+                    .build();
+            try {
+                rateLimiter.call(() -> dynamoDbClient.transactWriteItems(request));
+            } catch (RuntimeException e) {
+                // Lambda retries the whole batch; the transactions already applied are recognised by their token
+                context.getLogger().log("Error updating headcounts: " + e.getMessage());
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * The net change of the headcount of each job position over the records, without the positions that did not
+     * change.
+     */
+    static SortedMap<String, Long> deltas(List<DynamodbEvent.DynamodbStreamRecord> records) {
+        SortedMap<String, Long> deltas = new TreeMap<>();
+        for (DynamodbEvent.DynamodbStreamRecord record : records) {
+            String eventName = record.getEventName();
+            if (!"INSERT".equals(eventName)) {
+                add(deltas, jobPosition(record.getDynamodb().getOldImage()), -1);
+            }
+            if (!"REMOVE".equals(eventName)) {
+                add(deltas, jobPosition(record.getDynamodb().getNewImage()), 1);
+            }
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+        return deltas;
+    }
+
+    private static void add(Map<String, Long> deltas, String jobPosition, long delta) {
+        if (jobPosition != null && !jobPosition.isEmpty()) {
+            deltas.merge(jobPosition, delta, Long::sum);
+        }
+    }
+
+    private static String jobPosition(Map<String, com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue> image) {
+        com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue jobPosition = image == null ? null : image.get("jobPosition");
+        return jobPosition == null ? null : jobPosition.getS();
+    }
+}
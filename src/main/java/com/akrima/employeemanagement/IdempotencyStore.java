@@ -0,0 +1,42 @@
+package com.akrima.employeemanagement;
+
+/**
+ * Where {@link IdempotentRequests} keeps the first response to each {@code Idempotency-Key}. A key is claimed before
+ * the request runs, so two instances receiving the same retry cannot both run it, then completed with the response
+ * or released if the request failed and may be retried. Implementations are thread-safe.
+ *
+ * @see DynamoDbIdempotencyStore
+ * @see InMemoryIdempotencyStore
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Claims {@code key} until {@code expiresAtEpochSecond}, unless it holds a record that has not expired at
+     * {@code nowEpochSecond}.
+     *
+     * @return {@code null} if the key was claimed, otherwise the record already there (in progress or completed)
+     */
+    IdempotencyRecord claim(String key, String requestHash, long nowEpochSecond, long expiresAtEpochSecond);
+
+    /**
+     * Replaces the claim on {@code key} with the response to keep.
+     */
+    void complete(String key, IdempotencyRecord record);
+
+    /**
+     * Removes the claim on {@code key}, so the next request with it runs again.
+     */
+    void release(String key);
+
+    /**
+     * @param requestHash          hash of the request body, a key reused with another body is refused
+     * @param statusCode           the stored response, {@code null} while the first request is in progress
+     * @param expiresAtEpochSecond the record is ignored from then on, and deleted by the table's TTL
+     */
+    record IdempotencyRecord(String requestHash, Integer statusCode, String body, long expiresAtEpochSecond) {
+
+        public boolean completed() {
+            return statusCode != null;
+        }
+    }
+}
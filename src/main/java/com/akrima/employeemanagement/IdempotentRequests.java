@@ -0,0 +1,237 @@
+package com.akrima.employeemanagement;
+
+import com.akrima.employeemanagement.IdempotencyStore.IdempotencyRecord;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * {@code Idempotency-Key} support for the write handlers, so a client retrying after an API Gateway timeout gets the
+ * first response again instead of a second write, or a spurious 409 from its own first attempt.
+ * <p>
+ * The first request with a key claims it in the {@link IdempotencyStore}, runs, and stores its response for
+ * IDEMPOTENCY_TTL_SECONDS (default 3600). A replay returns the stored response, marked {@code Idempotent-Replayed},
+ * without reaching the Employee table; one served by this execution environment before is answered from an LRU of
+ * IDEMPOTENCY_CACHE_MAX_ENTRIES responses (default 1000) without reaching DynamoDB at all. A duplicate arriving here
+ * while the first is running waits for its response; one arriving at another environment gets a 409 with
+ * {@code Retry-After}. A key reused with a different body is refused with a 422.
+ * <p>
+ * Only final answers are stored: a 5xx or a 429 releases the key so the retry runs again. If the store cannot be
+ * reached the request runs without it, as before this existed.
+ */
+public final class IdempotentRequests {
+
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String REPLAYED = "Idempotent-Replayed";
+    static final int MAX_KEY_LENGTH = 255;
+    // Longer than the functions' 30 s timeout, short enough that an environment dying mid-request frees the key soon
+    static final long IN_PROGRESS_SECONDS = 60;
+
+    private final IdempotencyStore store;
+    private final long ttlSeconds;
+    private final int maxCachedResponses;
+    private final LongSupplier epochSecondClock;
+    private final LinkedHashMap<String, IdempotencyRecord> responses;
+    private final ConcurrentHashMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    private long replays;
+
+    public IdempotentRequests(IdempotencyStore store, Duration ttl, int maxCachedResponses, LongSupplier epochSecondClock) {
+        this.store = store;
+        this.ttlSeconds = ttl.toSeconds();
+        this.maxCachedResponses = maxCachedResponses;
+        this.epochSecondClock = epochSecondClock;
+        this.responses = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+                return size() > IdempotentRequests.this.maxCachedResponses;
+            }
+        };
+    }
+
+    /**
+     * Keys stored in {@code store}, sized by IDEMPOTENCY_TTL_SECONDS and IDEMPOTENCY_CACHE_MAX_ENTRIES.
+     */
+    public static IdempotentRequests backedBy(IdempotencyStore store) {
+        return new IdempotentRequests(store,
+                Duration.ofSeconds(longFromEnvironment("IDEMPOTENCY_TTL_SECONDS", 3600)),
+                (int) longFromEnvironment("IDEMPOTENCY_CACHE_MAX_ENTRIES", 1000),
+                () -> System.currentTimeMillis() / 1000);
+    }
+
+    /**
+     * Runs {@code handler} once per {@code Idempotency-Key} of {@code operation}, or every time without the header.
+     */
+    public APIGatewayProxyResponseEvent execute(String operation, APIGatewayProxyRequestEvent request, Context context,
+                                                Supplier<APIGatewayProxyResponseEvent> handler) {
+        String idempotencyKey = request == null ? null : ContentEncoding.header(request, IDEMPOTENCY_KEY);
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return handler.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            return new APIGatewayProxyResponseEvent().withStatusCode(400)
+                    .withBody(IDEMPOTENCY_KEY + " must be at most " + MAX_KEY_LENGTH + " characters.");
+        }
+        String key = operation + "#" + idempotencyKey;
+        String requestHash = requestHash(request.getBody());
+        long now = epochSecondClock.getAsLong();
+
+        IdempotencyRecord cached = cached(key, now);
+        if (cached != null) {
+            return replay(cached, requestHash, idempotencyKey);
+        }
+
+        InFlight claim = new InFlight(requestHash, new CompletableFuture<>());
+        InFlight first = inFlight.putIfAbsent(key, claim);
+        if (first != null) {
+            // Same environment: wait for the first request rather than answering 409
+            if (!first.requestHash().equals(requestHash)) {
+                return mismatch(idempotencyKey);
+            }
+            APIGatewayProxyResponseEvent response = first.response().join();
+            countReplay();
+            return replayed(response.getStatusCode(), response.getBody());
+        }
+        try {
+            APIGatewayProxyResponseEvent response = claimAndRun(operation, key, requestHash, now, idempotencyKey, context, handler);
+            claim.response().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            claim.response().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, claim);
+        }
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(replays, responses.size());
+    }
+
+    private APIGatewayProxyResponseEvent claimAndRun(String operation, String key, String requestHash, long now,
+                                                     String idempotencyKey, Context context,
+                                                     Supplier<APIGatewayProxyResponseEvent> handler) {
+        IdempotencyRecord existing;
+        try {
+            existing = store.claim(key, requestHash, now, now + IN_PROGRESS_SECONDS);
+        } catch (RuntimeException e) {
+            context.getLogger().log("Idempotency store unavailable, running " + operation + " without it: " + e.getMessage());
+            return handler.get();
+        }
+        if (existing != null) {
+            if (existing.completed()) {
+                remember(key, existing);
+            }
+            return replay(existing, requestHash, idempotencyKey);
+        }
+
+        APIGatewayProxyResponseEvent response;
+        try {
+            response = handler.get();
+        } catch (RuntimeException e) {
+            release(key, context);
+            throw e;
+        }
+        Integer statusCode = response.getStatusCode();
+        if (statusCode == null || statusCode >= 500 || statusCode == 429) {
+            // Not an answer to the request: the retry must run it again
+            release(key, context);
+            return response;
+        }
+        IdempotencyRecord record = new IdempotencyRecord(requestHash, statusCode, response.getBody(), now + ttlSeconds);
+        remember(key, record);
+        try {
+            store.complete(key, record);
+        } catch (RuntimeException e) {
+            // The claim expires after IN_PROGRESS_SECONDS; until then other environments answer 409
+            context.getLogger().log("Error storing the response to " + IDEMPOTENCY_KEY + " " + idempotencyKey + ": " + e.getMessage());
+        }
+        return response;
+    }
+
+    private void release(String key, Context context) {
+        try {
+            store.release(key);
+        } catch (RuntimeException e) {
+            context.getLogger().log("Error releasing " + IDEMPOTENCY_KEY + " " + key + ": " + e.getMessage());
+        }
+    }
+
+    private APIGatewayProxyResponseEvent replay(IdempotencyRecord record, String requestHash, String idempotencyKey) {
+        if (record.requestHash() != null && !record.requestHash().equals(requestHash)) {
+            return mismatch(idempotencyKey);
+        }
+        if (!record.completed()) {
+            return new APIGatewayProxyResponseEvent().withStatusCode(409)
+                    .withHeaders(Map.of("Retry-After", "1"))
+                    .withBody("A request with " + IDEMPOTENCY_KEY + " " + idempotencyKey + " is in progress.");
+        }
+        countReplay();
+        return replayed(record.statusCode(), record.body());
+    }
+
+    private static APIGatewayProxyResponseEvent replayed(Integer statusCode, String body) {
+        return new APIGatewayProxyResponseEvent().withStatusCode(statusCode)
+                .withHeaders(Map.of(REPLAYED, "true"))
+                .withBody(body);
+    }
+
+    private static APIGatewayProxyResponseEvent mismatch(String idempotencyKey) {
+        return new APIGatewayProxyResponseEvent().withStatusCode(422)
+                .withBody(IDEMPOTENCY_KEY + " " + idempotencyKey + " was already used with a different request.");
+    }
+
+    private synchronized IdempotencyRecord cached(String key, long now) {
+        IdempotencyRecord record = responses.get(key);
+        if (record != null && record.expiresAtEpochSecond() <= now) {
+            responses.remove(key);
+            return null;
+        }
+        return record;
+    }
+
+    private synchronized void remember(String key, IdempotencyRecord record) {
+        if (maxCachedResponses > 0) {
+            responses.put(key, record);
+        }
+    }
+
+    private synchronized void countReplay() {
+        replays++;
+    }
+
+    /**
+     * SHA-256 of the request body, as it arrived (a retry resends the same bytes).
+     */
+    static String requestHash(String body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest((body == null ? "" : body).getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static long longFromEnvironment(String name, long defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : Long.parseLong(value.trim());
+    }
+
+    private record InFlight(String requestHash, CompletableFuture<APIGatewayProxyResponseEvent> response) {
+    }
+
+    public record Stats(long replays, int size) {
+    }
+}
@@ -0,0 +1,179 @@
+package com.akrima.employeemanagement;
+
+import com.akrima.employeemanagement.model.Employee;
+import com.akrima.employeemanagement.model.EmployeePage;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link EmployeeRepository} held in a {@link ConcurrentSkipListMap} keyed by id, for load and soak tests that
+ * should not need DynamoDB. Conditional writes map to the map's atomic operations ({@code putIfAbsent},
+ * {@code computeIfPresent}, {@code remove}) and scans walk the ids in order without locking, so a page cursor (the
+ * last id returned, as a {@link PageCursor}) stays valid while other threads write. Versions are set as in DynamoDB,
+ * see {@link EmployeeItemMapper#initialVersion()}. Reads always return whole employees, there is nothing to save by
+ * projecting in memory.
+ */
+public class InMemoryEmployeeRepository implements EmployeeRepository {
+
+    private final ConcurrentSkipListMap<String, Employee> employees = new ConcurrentSkipListMap<>();
+    private final AtomicLong directoryVersion = new AtomicLong();
+
+    @Override
+    public Employee findById(String id, EmployeeFields fields) {
+        return employees.get(id);
+    }
+
+    @Override
+    public List<Employee> findAll(EmployeeFields fields, boolean consistentRead) {
+        return new ArrayList<>(employees.values());
+    }
+
+    @Override
+    public long directoryVersion() {
+        return directoryVersion.get();
+    }
+
+    @Override
+    public Iterable<Employee> scan(EmployeeFields fields) {
+        return Collections.unmodifiableCollection(employees.values());
+    }
+
+    @Override
+    public EmployeePage findPage(int limit, String cursor, EmployeeFields fields) {
+        List<Employee> page = new ArrayList<>(Math.min(limit, 1024));
+        Iterator<Employee> iterator = after(cursor).values().iterator();
+        while (page.size() < limit && iterator.hasNext()) {
+            page.add(iterator.next());
+        }
+        return new EmployeePage(page, iterator.hasNext() && !page.isEmpty() ? cursor(page) : null);
+    }
+
+    /**
+     * Filters a scan in id order; there is no secondary index to keep consistent with concurrent writes.
+     */
+    @Override
+    public EmployeePage findByJobPosition(String jobPosition, int limit, String cursor, EmployeeFields fields) {
+        List<Employee> page = new ArrayList<>(Math.min(limit, 1024));
+        Iterator<Employee> iterator = after(cursor).values().iterator();
+        while (page.size() < limit && iterator.hasNext()) {
+            Employee employee = iterator.next();
+            if (jobPosition.equals(employee.jobPosition())) {
+                page.add(employee);
+            }
+        }
+        boolean more = false;
+        while (!more && iterator.hasNext()) {
+            more = jobPosition.equals(iterator.next().jobPosition());
+        }
+        return new EmployeePage(page, more && !page.isEmpty() ? cursor(page) : null);
+    }
+
+    /**
+     * Sorts the matches of a full scan by normalised last name, then id; the cursor holds both.
+     */
+    @Override
+    public EmployeePage findByLastNamePrefix(String prefix, int limit, String cursor, EmployeeFields fields) {
+        String lastNameKeyPrefix = EmployeeItemMapper.lastNameKey(prefix);
+        if (lastNameKeyPrefix.isEmpty()) {
+            throw new IllegalArgumentException("Blank last name prefix");
+        }
+        Map<String, AttributeValue> exclusiveStartKey = PageCursor.decode(cursor);
+        String lastKey = null;
+        String lastId = null;
+        if (exclusiveStartKey != null) {
+            AttributeValue key = exclusiveStartKey.get(EmployeeItemMapper.LAST_NAME_KEY);
+            AttributeValue id = exclusiveStartKey.get("id");
+            if (key == null || key.s() == null || id == null || id.s() == null) {
+                throw new IllegalArgumentException("Cursor has no last name key or id");
+            }
+            lastKey = key.s();
+            lastId = id.s();
+        }
+
+        List<Map.Entry<String, Employee>> matches = new ArrayList<>();
+        for (Employee employee : employees.values()) {
+            String lastNameKey = EmployeeItemMapper.lastNameKey(employee.lastName());
+            if (lastNameKey.startsWith(lastNameKeyPrefix)) {
+                int order = lastKey == null ? 1 : lastNameKey.compareTo(lastKey);
+                if (order > 0 || (order == 0 && employee.id().compareTo(lastId) > 0)) {
+                    matches.add(Map.entry(lastNameKey, employee));
+                }
+            }
+        }
+        matches.sort(Map.Entry.<String, Employee>comparingByKey().thenComparing(entry -> entry.getValue().id()));
+
+        List<Employee> page = new ArrayList<>(Math.min(limit, matches.size()));
+        for (int i = 0; i < limit && i < matches.size(); i++) {
+            page.add(matches.get(i).getValue());
+        }
+        if (matches.size() <= limit) {
+            return new EmployeePage(page, null);
+        }
+        Map.Entry<String, Employee> last = matches.get(limit - 1);
+        return new EmployeePage(page, PageCursor.encode(Map.of(
+                "id", AttributeValue.builder().s(last.getValue().id()).build(),
+                EmployeeItemMapper.LAST_NAME_KEY, AttributeValue.builder().s(last.getKey()).build())));
+    }
+
+    @Override
+    public boolean add(Employee employee) {
+        return written(employees.putIfAbsent(employee.id(), employee.withVersion(EmployeeItemMapper.initialVersion())) == null);
+    }
+
+    @Override
+    public boolean update(Employee employee) {
+        return written(employees.computeIfPresent(employee.id(), (id, current) -> employee.withVersion(
+                current.version() == null ? EmployeeItemMapper.initialVersion() : current.version() + 1)) != null);
+    }
+
+    @Override
+    public boolean delete(String id) {
+        return written(employees.remove(id) != null);
+    }
+
+    /**
+     * Bumps the directory version after a successful write, as {@link DynamoDbEmployeeRepository} does.
+     */
+    private boolean written(boolean written) {
+        if (written) {
+            directoryVersion.incrementAndGet();
+        }
+        return written;
+    }
+
+    /**
+     * The employees after the one a cursor points to, or all of them for a {@code null} cursor.
+     */
+    private NavigableMap<String, Employee> after(String cursor) {
+        Map<String, AttributeValue> exclusiveStartKey = PageCursor.decode(cursor);
+        if (exclusiveStartKey == null) {
+            return employees;
+        }
+        AttributeValue lastId = exclusiveStartKey.get("id");
+        if (lastId == null || lastId.s() == null) {
+            throw new IllegalArgumentException("Cursor has no id");
+        }
+        return employees.tailMap(lastId.s(), false);
+    }
+
+    private static String cursor(List<Employee> page) {
+        return PageCursor.encode(Map.of("id", AttributeValue.builder().s(page.get(page.size() - 1).id()).build()));
+    }
+
+    public int size() {
+        return employees.size();
+    }
+
+    public void clear() {
+        employees.clear();
+        directoryVersion.incrementAndGet();
+    }
+}
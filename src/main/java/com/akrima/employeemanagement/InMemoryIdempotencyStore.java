@@ -0,0 +1,36 @@
+package com.akrima.employeemanagement;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link IdempotencyStore} held in a {@link ConcurrentHashMap}, for the handlers built on an in-memory repository
+ * and for tests. A claim is one atomic {@code compute}, as the conditional put of {@link DynamoDbIdempotencyStore};
+ * expired records are replaced the same way, there is no TTL sweep.
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final ConcurrentHashMap<String, IdempotencyRecord> records = new ConcurrentHashMap<>();
+
+    @Override
+    public IdempotencyRecord claim(String key, String requestHash, long nowEpochSecond, long expiresAtEpochSecond) {
+        IdempotencyRecord[] existing = new IdempotencyRecord[1];
+        records.compute(key, (k, current) -> {
+            if (current != null && current.expiresAtEpochSecond() > nowEpochSecond) {
+                existing[0] = current;
+                return current;
+            }
+            return new IdempotencyRecord(requestHash, null, null, expiresAtEpochSecond);
+        });
+        return existing[0];
+    }
+
+    @Override
+    public void complete(String key, IdempotencyRecord record) {
+        records.put(key, record);
+    }
+
+    @Override
+    public void release(String key) {
+        records.remove(key);
+    }
+}
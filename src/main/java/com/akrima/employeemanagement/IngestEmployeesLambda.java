@@ -0,0 +1,104 @@
+package com.akrima.employeemanagement;
+
+import com.akrima.employeemanagement.model.Employee;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
+import com.amazonaws.services.lambda.runtime.events.SQSEvent;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk upsert from an SQS queue: each message body is one employee, in the JSON of {@link AddEmployeeLambda}.
+ * <p>
+ * Messages of a batch updating the same id are coalesced to the last one, and the remaining employees are put with
+ * BatchWriteItem like {@link AddEmployeesLambda}, overwriting existing ones. The handler returns the messages to
+ * redeliver in an {@link SQSBatchResponse} (the event source mapping needs {@code ReportBatchItemFailures}): messages
+ * that cannot be decoded or have no id, and the last message of each id that could not be written. Superseded
+ * messages are not redelivered, they could overwrite the newer employee. "Last" is the order of the batch; only a
+ * FIFO queue with the employee id as message group id guarantees it is the order the messages were sent in.
+ */
+public class IngestEmployeesLambda implements RequestHandler<SQSEvent, SQSBatchResponse> {
+
+    private final DynamoDbClient dynamoDbClient;
+    private final EmployeeCache employeeCache;
+    private final AdaptiveRateLimiter rateLimiter = AdaptiveRateLimiter.shared();
+
+    public IngestEmployeesLambda() {
+        // Default Constructor required aws lambda
+        this.dynamoDbClient = DynamoDbClientFactory.sharedDynamoDbClient();
+        DynamoDbClientFactory.primeIfEnabled(this.dynamoDbClient);
+        this.employeeCache = EmployeeCache.shared();
+    }
+
+    public IngestEmployeesLambda(DynamoDbClient dynamoDbClient) {
+        this(dynamoDbClient, EmployeeCache.shared());
+    }
+    public IngestEmployeesLambda(DynamoDbClient dynamoDbClient, EmployeeCache employeeCache) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.employeeCache = employeeCache;
+    }
+
+    @Override
+    public SQSBatchResponse handleRequest(SQSEvent sqsEvent, Context context) {
+        InvocationMetrics metrics = InvocationMetrics.start("IngestEmployeesLambda", context);
+        try {
+            return handle(sqsEvent, context);
+        } finally {
+            metrics.finish();
+        }
+    }
+
+    private SQSBatchResponse handle(SQSEvent sqsEvent, Context context) {
+        List<SQSEvent.SQSMessage> messages = sqsEvent == null || sqsEvent.getRecords() == null ? List.of() : sqsEvent.getRecords();
+        List<SQSBatchResponse.BatchItemFailure> failures = new ArrayList<>();
+        try {
+            // Last write wins: a later message for an id replaces the employee, and the message it is tracked by
+            Map<String, Employee> toWrite = new LinkedHashMap<>();
+            Map<String, String> lastMessageIds = new HashMap<>();
+            for (SQSEvent.SQSMessage message : messages) {
+                Employee employee;
+                try {
+                    employee = EmployeeJsonCodec.readEmployee(message.getBody());
+                } catch (Exception e) {
+                    context.getLogger().log("Invalid employee in message " + message.getMessageId() + ": " + e.getMessage());
+                    failures.add(failure(message.getMessageId()));
+                    continue;
+                }
+                String missingAttribute = EmployeeItemMapper.missingAttribute(employee);
+                if (missingAttribute != null) {
+                    // Would fail the BatchWriteItem of the whole batch, not just this message
+                    context.getLogger().log("Employee without " + missingAttribute + " in message " + message.getMessageId());
+                    failures.add(failure(message.getMessageId()));
+                    continue;
+                }
+                toWrite.put(employee.id(), employee);
+                lastMessageIds.put(employee.id(), message.getMessageId());
+            }
+
+            Set<String> failedIds = DynamoDbBatches.putEmployees(dynamoDbClient, rateLimiter, toWrite.values(), context);
+            toWrite.keySet().forEach(employeeCache::invalidate);
+            for (String failedId : failedIds) {
+                failures.add(failure(lastMessageIds.get(failedId)));
+            }
+            InvocationMetrics.recordResults(toWrite.size() - failedIds.size());
+            return new SQSBatchResponse(failures);
+        } catch (Exception e) {
+            // Handle any errors: the whole batch is redelivered
+            context.getLogger().log("Error ingesting employees: " + e.getMessage());
+            failures.clear();
+            messages.forEach(message -> failures.add(failure(message.getMessageId())));
+            return new SQSBatchResponse(failures);
+        }
+    }
+
+    private static SQSBatchResponse.BatchItemFailure failure(String messageId) {
+        return new SQSBatchResponse.BatchItemFailure(messageId);
+    }
+}
@@ -0,0 +1,346 @@
+package com.akrima.employeemanagement;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+
+import java.io.PrintStream;
+
+/**
+ * Metrics of one handler invocation, written to stdout as a single CloudWatch Embedded Metric Format (EMF) line when
+ * the invocation finishes, so CloudWatch extracts them from the function log without any PutMetricData call.
+ * <p>
+ * Recorded per invocation, with the handler as dimension: {@code Duration}, {@code JsonTime} (encoding and decoding in
+ * {@link EmployeeJsonCodec}), {@code Results} (employees returned or written), {@code Status2xx/4xx/5xx} and, per
+ * DynamoDB operation, {@code DynamoDb.<Operation>.Calls}, {@code .Latency}, {@code .Errors} and
+ * {@code .ConsumedCapacity} (when the requests set ReturnConsumedCapacity, see {@link DynamoDbMetricsInterceptor}).
+ * The status code and request id are added as properties, for CloudWatch Logs Insights.
+ * <p>
+ * Emission is enabled inside Lambda (AWS_LAMBDA_FUNCTION_NAME is set) unless METRICS_ENABLED=false, and can be forced
+ * elsewhere with METRICS_ENABLED=true; METRICS_NAMESPACE defaults to {@code EmployeeManagement}. Disabled, every
+ * method returns immediately. Enabled, counters are primitive fields of a per-thread instance and the line is built
+ * in reused buffers, so an invocation allocates little more than the line itself.
+ * <p>
+ * The invocation in progress is found through a thread local; work handed to another thread must go through
+ * {@link #propagate(Runnable)} to be counted. A handler called by another handler (the {@link EmployeeApiRouter})
+ * adds to the caller's invocation and is reported as its {@code Route}.
+ */
+public final class InvocationMetrics {
+
+    private static final String[] DYNAMO_DB_OPERATIONS = {
+            "GetItem", "PutItem", "UpdateItem", "DeleteItem", "Query", "Scan", "BatchGetItem", "BatchWriteItem", "Other"
+    };
+    private static final String[] CALLS = metricNames("Calls");
+    private static final String[] LATENCY = metricNames("Latency");
+    private static final String[] ERRORS = metricNames("Errors");
+    private static final String[] CONSUMED_CAPACITY = metricNames("ConsumedCapacity");
+    private static final String NAMESPACE = namespace();
+
+    private static final ThreadLocal<InvocationMetrics> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<InvocationMetrics> REUSABLE = ThreadLocal.withInitial(InvocationMetrics::new);
+    private static final InvocationMetrics DISABLED = new InvocationMetrics();
+    private static volatile PrintStream sink = enabled() ? System.out : null;
+
+    private final long[] dynamoDbCalls = new long[DYNAMO_DB_OPERATIONS.length];
+    private final long[] dynamoDbErrors = new long[DYNAMO_DB_OPERATIONS.length];
+    private final long[] dynamoDbNanos = new long[DYNAMO_DB_OPERATIONS.length];
+    private final double[] consumedCapacity = new double[DYNAMO_DB_OPERATIONS.length];
+    private final StringBuilder definitions = new StringBuilder(512);
+    private final StringBuilder values = new StringBuilder(512);
+    private PrintStream out;
+    private int depth;
+    private String handler;
+    private String route;
+    private String requestId;
+    private long timestamp;
+    private long startNanos;
+    private long jsonNanos;
+    private long results;
+    private boolean resultsRecorded;
+    private int statusCode;
+
+    private InvocationMetrics() {
+    }
+
+    /**
+     * Starts the invocation of {@code handler}; {@link #finish()} must be called in a {@code finally} block.
+     */
+    public static InvocationMetrics start(String handler, Context context) {
+        InvocationMetrics current = CURRENT.get();
+        if (current != null) {
+            current.enter(handler);
+            return current;
+        }
+        PrintStream out = sink;
+        if (out == null) {
+            return DISABLED;
+        }
+        InvocationMetrics metrics = REUSABLE.get();
+        metrics.reset(out, handler, context == null ? null : context.getAwsRequestId());
+        CURRENT.set(metrics);
+        return metrics;
+    }
+
+    /**
+     * Records the status code of the response and returns it.
+     */
+    public APIGatewayProxyResponseEvent recordResponse(APIGatewayProxyResponseEvent responseEvent) {
+        if (responseEvent != null && responseEvent.getStatusCode() != null) {
+            recordStatus(responseEvent.getStatusCode());
+        }
+        return responseEvent;
+    }
+
+    public void recordStatus(int statusCode) {
+        // Checked before locking so the shared disabled instance is never contended
+        if (out == null) {
+            return;
+        }
+        synchronized (this) {
+            this.statusCode = statusCode;
+        }
+    }
+
+    /**
+     * Writes the EMF line, once the outermost handler of the invocation finishes.
+     */
+    public void finish() {
+        if (out == null) {
+            return;
+        }
+        synchronized (this) {
+            if (--depth > 0) {
+                return;
+            }
+            CURRENT.remove();
+            out.print(emfLine(System.nanoTime() - startNanos));
+            out = null;
+        }
+    }
+
+    /**
+     * Adds to the number of employees returned or written by the current invocation.
+     */
+    public static void recordResults(long count) {
+        InvocationMetrics metrics = CURRENT.get();
+        if (metrics != null) {
+            metrics.addResults(count);
+        }
+    }
+
+    /**
+     * Adds the time since {@code startNanos} ({@link System#nanoTime()}) to the JSON time of the current invocation.
+     */
+    public static void recordJson(long startNanos) {
+        InvocationMetrics metrics = CURRENT.get();
+        if (metrics != null) {
+            metrics.addJson(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Runs {@code task} on behalf of the current invocation, whatever thread it ends up on.
+     */
+    public static Runnable propagate(Runnable task) {
+        InvocationMetrics metrics = CURRENT.get();
+        if (metrics == null) {
+            return task;
+        }
+        return () -> {
+            InvocationMetrics previous = CURRENT.get();
+            CURRENT.set(metrics);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+
+    /**
+     * The invocation in progress on this thread, or {@code null}.
+     */
+    static InvocationMetrics current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Sends the lines to {@code out} instead of stdout, or disables emission for {@code null}.
+     */
+    static void emitTo(PrintStream out) {
+        sink = out;
+    }
+
+    synchronized void recordDynamoDbCall(String operation, long nanos, double capacityUnits, boolean failed) {
+        if (out == null) {
+            return;
+        }
+        int index = operationIndex(operation);
+        dynamoDbCalls[index]++;
+        dynamoDbNanos[index] += nanos;
+        consumedCapacity[index] += capacityUnits;
+        if (failed) {
+            dynamoDbErrors[index]++;
+        }
+    }
+
+    private synchronized void enter(String handler) {
+        depth++;
+        route = handler;
+    }
+
+    private synchronized void addResults(long count) {
+        results += count;
+        resultsRecorded = true;
+    }
+
+    private synchronized void addJson(long nanos) {
+        jsonNanos += nanos;
+    }
+
+    private void reset(PrintStream out, String handler, String requestId) {
+        this.out = out;
+        this.depth = 1;
+        this.handler = handler;
+        this.route = null;
+        this.requestId = requestId;
+        this.timestamp = System.currentTimeMillis();
+        this.startNanos = System.nanoTime();
+        this.jsonNanos = 0;
+        this.results = 0;
+        this.resultsRecorded = false;
+        this.statusCode = 0;
+        for (int i = 0; i < DYNAMO_DB_OPERATIONS.length; i++) {
+            dynamoDbCalls[i] = 0;
+            dynamoDbErrors[i] = 0;
+            dynamoDbNanos[i] = 0;
+            consumedCapacity[i] = 0;
+        }
+    }
+
+    private String emfLine(long durationNanos) {
+        definitions.setLength(0);
+        values.setLength(0);
+        milliseconds("Duration", durationNanos);
+        milliseconds("JsonTime", jsonNanos);
+        if (resultsRecorded) {
+            count("Results").append(results);
+        }
+        if (statusCode > 0) {
+            count("Status2xx").append(statusCode / 100 == 2 ? 1 : 0);
+            count("Status4xx").append(statusCode / 100 == 4 ? 1 : 0);
+            count("Status5xx").append(statusCode / 100 == 5 ? 1 : 0);
+        }
+        for (int i = 0; i < DYNAMO_DB_OPERATIONS.length; i++) {
+            if (dynamoDbCalls[i] == 0) {
+                continue;
+            }
+            count(CALLS[i]).append(dynamoDbCalls[i]);
+            milliseconds(LATENCY[i], dynamoDbNanos[i]);
+            if (dynamoDbErrors[i] > 0) {
+                count(ERRORS[i]).append(dynamoDbErrors[i]);
+            }
+            if (consumedCapacity[i] > 0) {
+                count(CONSUMED_CAPACITY[i]).append(consumedCapacity[i]);
+            }
+        }
+
+        StringBuilder line = new StringBuilder(definitions.length() + values.length() + 256);
+        line.append("{\"_aws\":{\"Timestamp\":").append(timestamp)
+                .append(",\"CloudWatchMetrics\":[{\"Namespace\":");
+        appendString(line, NAMESPACE);
+        line.append(",\"Dimensions\":[[\"Handler\"]],\"Metrics\":[").append(definitions).append("]}]},\"Handler\":");
+        appendString(line, handler);
+        if (route != null) {
+            line.append(",\"Route\":");
+            appendString(line, route);
+        }
+        if (requestId != null) {
+            line.append(",\"RequestId\":");
+            appendString(line, requestId);
+        }
+        if (statusCode > 0) {
+            line.append(",\"StatusCode\":").append(statusCode);
+        }
+        return line.append(values).append("}\n").toString();
+    }
+
+    /**
+     * Declares a metric and returns the buffer its value must be appended to.
+     */
+    private StringBuilder metric(String name, String unit) {
+        if (!definitions.isEmpty()) {
+            definitions.append(',');
+        }
+        definitions.append("{\"Name\":\"").append(name).append("\",\"Unit\":\"").append(unit).append("\"}");
+        return values.append(",\"").append(name).append("\":");
+    }
+
+    private StringBuilder count(String name) {
+        return metric(name, "Count");
+    }
+
+    /**
+     * Nanoseconds as milliseconds with three decimals, without going through a double.
+     */
+    private void milliseconds(String name, long nanos) {
+        long micros = nanos / 1_000;
+        long fraction = micros % 1_000;
+        StringBuilder value = metric(name, "Milliseconds").append(micros / 1_000).append('.');
+        if (fraction < 100) {
+            value.append('0');
+        }
+        if (fraction < 10) {
+            value.append('0');
+        }
+        value.append(fraction);
+    }
+
+    private static void appendString(StringBuilder line, String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c < 0x20) {
+                line.append(String.format("\\u%04x", (int) c));
+            } else {
+                line.append(c);
+            }
+        }
+        line.append('"');
+    }
+
+    private static int operationIndex(String operation) {
+        for (int i = 0; i < DYNAMO_DB_OPERATIONS.length - 1; i++) {
+            if (DYNAMO_DB_OPERATIONS[i].equals(operation)) {
+                return i;
+            }
+        }
+        return DYNAMO_DB_OPERATIONS.length - 1;
+    }
+
+    private static String[] metricNames(String suffix) {
+        String[] names = new String[DYNAMO_DB_OPERATIONS.length];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "DynamoDb." + DYNAMO_DB_OPERATIONS[i] + "." + suffix;
+        }
+        return names;
+    }
+
+    private static boolean enabled() {
+        String enabled = System.getenv("METRICS_ENABLED");
+        if (enabled != null && !enabled.isBlank()) {
+            return Boolean.parseBoolean(enabled.trim());
+        }
+        return System.getenv("AWS_LAMBDA_FUNCTION_NAME") != null;
+    }
+
+    private static String namespace() {
+        String namespace = System.getenv("METRICS_NAMESPACE");
+        return namespace == null || namespace.isBlank() ? "EmployeeManagement" : namespace.trim();
+    }
+}
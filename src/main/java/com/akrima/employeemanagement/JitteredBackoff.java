@@ -0,0 +1,35 @@
+package com.akrima.employeemanagement;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with full jitter: the n-th retry waits a random delay in {@code [0, min(cap, base * 2^n))}.
+ */
+public final class JitteredBackoff {
+
+    private final long baseMillis;
+    private final long capMillis;
+    private final int maxRetries;
+
+    public JitteredBackoff(long baseMillis, long capMillis, int maxRetries) {
+        this.baseMillis = baseMillis;
+        this.capMillis = capMillis;
+        this.maxRetries = maxRetries;
+    }
+
+    public int maxRetries() {
+        return maxRetries;
+    }
+
+    public long delayMillis(int retry) {
+        long ceiling = Math.min(capMillis, baseMillis << Math.min(retry, 30));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Sleeps before the given retry (0 for the first retry).
+     */
+    public void sleep(int retry) throws InterruptedException {
+        Thread.sleep(delayMillis(retry));
+    }
+}
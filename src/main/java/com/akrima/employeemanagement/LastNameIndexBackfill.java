@@ -0,0 +1,139 @@
+package com.akrima.employeemanagement;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * One-off migration adding the lastName-index attributes ({@value EmployeeItemMapper#LAST_NAME_KEY} and
+ * {@value EmployeeItemMapper#LAST_NAME_INITIAL}) to the items written before the index existed, which the last name
+ * prefix search cannot find otherwise.
+ * <p>
+ * The table is read with a parallel scan of the items that have a last name but no
+ * {@value EmployeeItemMapper#LAST_NAME_KEY}, and each of them gets one UpdateItem setting the two attributes only.
+ * The update is conditional on the last name read by the scan, so an employee renamed meanwhile, whose write derived
+ * the attributes itself, is left alone. The version is not changed: the employee is the same, and so are its ETags.
+ * Running it again only touches the items still missing the attributes.
+ */
+public class LastNameIndexBackfill {
+
+    private static final String DYNAMO_DB_TABLE_NAME = "Employee";
+
+    private final DynamoDbClient dynamoDbClient;
+    private final int totalSegments;
+    private final int workers;
+
+    public LastNameIndexBackfill(DynamoDbClient dynamoDbClient, int totalSegments, int workers) {
+        if (totalSegments < 1 || workers < 1) {
+            throw new IllegalArgumentException("totalSegments and workers must be positive");
+        }
+        this.dynamoDbClient = dynamoDbClient;
+        this.totalSegments = totalSegments;
+        this.workers = workers;
+    }
+
+    /**
+     * @return the number of items updated
+     */
+    public long backfill() throws InterruptedException, ExecutionException {
+        ExecutorService executorService = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "last-name-backfill");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Long>> segments = new ArrayList<>(totalSegments);
+            for (int segment = 0; segment < totalSegments; segment++) {
+                int currentSegment = segment;
+                segments.add(executorService.submit(() -> backfillSegment(currentSegment)));
+            }
+
+            long updated = 0;
+            for (Future<Long> segment : segments) {
+                updated += segment.get();
+            }
+            return updated;
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private long backfillSegment(int segment) {
+        long updated = 0;
+        Map<String, AttributeValue> exclusiveStartKey = null;
+        do {
+            ScanResponse page = dynamoDbClient.scan(ScanRequest.builder()
+                    .tableName(DYNAMO_DB_TABLE_NAME)
+                    .segment(segment)
+                    .totalSegments(totalSegments)
+                    .projectionExpression("id, lastName")
+                    .filterExpression("attribute_exists(lastName) AND attribute_not_exists(#lastNameKey)")
+                    .expressionAttributeNames(Map.of("#lastNameKey", EmployeeItemMapper.LAST_NAME_KEY))
+                    .exclusiveStartKey(exclusiveStartKey)
+                    .build());
+            for (Map<String, AttributeValue> item : page.items()) {
+                if (update(item.get("id"), item.get("lastName"))) {
+                    updated++;
+                }
+            }
+            exclusiveStartKey = page.hasLastEvaluatedKey() ? page.lastEvaluatedKey() : null;
+        } while (exclusiveStartKey != null);
+        return updated;
+    }
+
+    private boolean update(AttributeValue id, AttributeValue lastName) {
+        String lastNameKey = EmployeeItemMapper.lastNameKey(lastName.s());
+        if (lastNameKey.isEmpty()) {
+            // Blank last names stay out of the index, as when they are written
+            return false;
+        }
+        try {
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(DYNAMO_DB_TABLE_NAME)
+                    .key(Map.of("id", id))
+                    .updateExpression("SET #lastNameKey = :lastNameKey, #lastNameInitial = :lastNameInitial")
+                    .conditionExpression("lastName = :lastName")
+                    .expressionAttributeNames(Map.of(
+                            "#lastNameKey", EmployeeItemMapper.LAST_NAME_KEY,
+                            "#lastNameInitial", EmployeeItemMapper.LAST_NAME_INITIAL))
+                    .expressionAttributeValues(Map.of(
+                            ":lastNameKey", AttributeValue.builder().s(lastNameKey).build(),
+                            ":lastNameInitial", AttributeValue.builder().s(EmployeeItemMapper.initial(lastNameKey)).build(),
+                            ":lastName", lastName))
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            // Renamed or deleted since the scan: its own write took care of it
+            return false;
+        }
+    }
+
+    /**
+     * Migration entry point: {@code LastNameIndexBackfill [totalSegments] [workers]}. Segments and workers default to
+     * the BACKFILL_TOTAL_SEGMENTS and BACKFILL_WORKERS environment variables.
+     */
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        int totalSegments = args.length > 0 ? Integer.parseInt(args[0]) : intFromEnvironment("BACKFILL_TOTAL_SEGMENTS", 4);
+        int workers = args.length > 1 ? Integer.parseInt(args[1]) : intFromEnvironment("BACKFILL_WORKERS", totalSegments);
+
+        LastNameIndexBackfill backfill = new LastNameIndexBackfill(DynamoDbClientFactory.createDynamoDbClient(), totalSegments, workers);
+        long updated = backfill.backfill();
+        System.out.println("Added the lastName-index attributes to " + updated + " employees");
+    }
+
+    private static int intFromEnvironment(String name, int defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
+    }
+}
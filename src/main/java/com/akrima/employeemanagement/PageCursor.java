@@ -0,0 +1,65 @@
+package com.akrima.employeemanagement;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Opaque pagination cursor: a DynamoDB LastEvaluatedKey serialised as URL-safe base64 JSON.
+ * Only string key attributes are supported, which is all the Employee table and its indexes use.
+ */
+public final class PageCursor {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, String>> KEY_TYPE = new TypeReference<>() {};
+
+    private PageCursor() {
+    }
+
+    public static String encode(Map<String, AttributeValue> lastEvaluatedKey) {
+        if (lastEvaluatedKey == null || lastEvaluatedKey.isEmpty()) {
+            return null;
+        }
+        Map<String, String> key = new LinkedHashMap<>();
+        lastEvaluatedKey.forEach((name, value) -> {
+            if (value.s() == null) {
+                throw new IllegalArgumentException("Unsupported key attribute type for " + name);
+            }
+            key.put(name, value.s());
+        });
+        try {
+            byte[] json = OBJECT_MAPPER.writeValueAsBytes(key);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor was not produced by {@link #encode(Map)}
+     */
+    public static Map<String, AttributeValue> decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(cursor);
+            Map<String, String> key = OBJECT_MAPPER.readValue(json, KEY_TYPE);
+            if (key == null || key.isEmpty()) {
+                throw new IllegalArgumentException("Empty cursor");
+            }
+            Map<String, AttributeValue> exclusiveStartKey = new HashMap<>();
+            key.forEach((name, value) -> exclusiveStartKey.put(name, AttributeValue.builder().s(value).build()));
+            return exclusiveStartKey;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+}
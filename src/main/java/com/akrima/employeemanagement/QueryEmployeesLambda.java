@@ -0,0 +1,103 @@
+package com.akrima.employeemanagement;
+
+import com.akrima.employeemanagement.model.EmployeePage;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.util.Map;
+
+/**
+ * {@code GET /employees}, one page at a time, read with a Query on a global secondary index instead of a Scan:
+ * <ul>
+ *     <li>{@code ?jobPosition=}: the employees holding a job position, in id order (jobPosition-index)</li>
+ *     <li>{@code ?lastNamePrefix=}: the employees whose last name starts with the prefix, ignoring case and accents,
+ *     in last name order (lastName-index)</li>
+ * </ul>
+ * Exactly one of the two is required. Takes the same {@code limit}, {@code cursor} and {@code fields} parameters as
+ * the paged {@link RetrieveAllEmployeesLambda}.
+ */
+public class QueryEmployeesLambda implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private final EmployeeRepository employeeRepository;
+
+    public QueryEmployeesLambda() {
+        // Default Constructor required aws lambda
+        DynamoDbClient dynamoDbClient = DynamoDbClientFactory.sharedDynamoDbClient();
+        DynamoDbClientFactory.primeIfEnabled(dynamoDbClient);
+        this.employeeRepository = DynamoDbEmployeeRepository.rateLimited(dynamoDbClient);
+    }
+    public QueryEmployeesLambda(DynamoDbClient dynamoDbClient) {
+        this(DynamoDbEmployeeRepository.rateLimited(dynamoDbClient));
+    }
+    public QueryEmployeesLambda(EmployeeRepository employeeRepository) {
+        this.employeeRepository = employeeRepository;
+    }
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent apiGatewayProxyRequestEvent, Context context) {
+        InvocationMetrics metrics = InvocationMetrics.start("QueryEmployeesLambda", context);
+        try {
+            return metrics.recordResponse(handle(apiGatewayProxyRequestEvent, context));
+        } finally {
+            metrics.finish();
+        }
+    }
+
+    private APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent apiGatewayProxyRequestEvent, Context context) {
+        APIGatewayProxyResponseEvent responseEvent = new APIGatewayProxyResponseEvent();
+        try {
+            Map<String, String> queryParameters = apiGatewayProxyRequestEvent == null ? null : apiGatewayProxyRequestEvent.getQueryStringParameters();
+            String jobPosition = queryParameters == null ? null : queryParameters.get("jobPosition");
+            String lastNamePrefix = queryParameters == null ? null : queryParameters.get("lastNamePrefix");
+            boolean byJobPosition = jobPosition != null && !jobPosition.isEmpty();
+            boolean byLastName = lastNamePrefix != null && !EmployeeItemMapper.lastNameKey(lastNamePrefix).isEmpty();
+            if (byJobPosition == byLastName) {
+                return responseEvent.withStatusCode(400).withBody("Invalid input. Please provide either a jobPosition or a lastNamePrefix.");
+            }
+
+            EmployeeFields fields;
+            try {
+                fields = EmployeeFields.parse(queryParameters.get("fields"));
+            } catch (IllegalArgumentException e) {
+                return responseEvent.withStatusCode(400).withBody("Invalid fields. Allowed fields: " + String.join(", ", EmployeeFields.NAMES) + ".");
+            }
+            int limit;
+            try {
+                limit = parseLimit(queryParameters.get("limit"));
+            } catch (IllegalArgumentException e) {
+                return responseEvent.withStatusCode(400).withBody("Invalid limit. Please provide a number between 1 and " + MAX_PAGE_SIZE + ".");
+            }
+            EmployeePage page;
+            try {
+                page = byJobPosition
+                        ? employeeRepository.findByJobPosition(jobPosition, limit, queryParameters.get("cursor"), fields)
+                        : employeeRepository.findByLastNamePrefix(lastNamePrefix, limit, queryParameters.get("cursor"), fields);
+            } catch (IllegalArgumentException e) {
+                return responseEvent.withStatusCode(400).withBody("Invalid cursor.");
+            }
+            InvocationMetrics.recordResults(page.items().size());
+            return ContentEncoding.compress(apiGatewayProxyRequestEvent, responseEvent.withStatusCode(200).withBody(EmployeeJsonCodec.writeEmployeePage(page, fields)));
+        } catch (ThrottledException e) {
+            return e.toResponse(responseEvent);
+        } catch (Exception e) {
+            context.getLogger().log("Error querying employees: " + e.getMessage());
+            return responseEvent.withStatusCode(500).withBody("Error querying employees.");
+        }
+    }
+
+    private int parseLimit(String limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        int pageSize = Integer.parseInt(limit);
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit out of range: " + pageSize);
+        }
+        return pageSize;
+    }
+}
@@ -0,0 +1,115 @@
+package com.akrima.employeemanagement;
+
+import com.akrima.employeemanagement.model.Employee;
+import com.akrima.employeemanagement.model.EmployeePage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Sends every call of another {@link EmployeeRepository} through an {@link AdaptiveRateLimiter}, so a throttled
+ * table slows this environment down instead of failing its requests with a 500.
+ * <p>
+ * Calls that fail with throttling once the retries are spent throw {@link ThrottledException}. Full scans
+ * ({@link #findAll} and the lazy {@link #scan(EmployeeFields)}) are read one {@link #scanPage} at a time, each page
+ * limited and retried on its own, so a throttled page costs one request again rather than the whole scan.
+ */
+public class RateLimitedEmployeeRepository implements EmployeeRepository {
+
+    private final EmployeeRepository delegate;
+    private final AdaptiveRateLimiter rateLimiter;
+
+    public RateLimitedEmployeeRepository(EmployeeRepository delegate, AdaptiveRateLimiter rateLimiter) {
+        this.delegate = delegate;
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public Employee findById(String id, EmployeeFields fields) {
+        return rateLimiter.call(() -> delegate.findById(id, fields));
+    }
+
+    @Override
+    public List<Employee> findAll(EmployeeFields fields, boolean consistentRead) {
+        List<Employee> employees = new ArrayList<>();
+        String cursor = null;
+        do {
+            EmployeePage page = scanPage(cursor, fields, consistentRead);
+            employees.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return employees;
+    }
+
+    @Override
+    public long directoryVersion() {
+        return rateLimiter.call(delegate::directoryVersion);
+    }
+
+    @Override
+    public Iterable<Employee> scan(EmployeeFields fields) {
+        // The next page is only requested when the iterator runs out of the current one
+        return () -> new Iterator<>() {
+            private Iterator<Employee> page = Collections.emptyIterator();
+            private String cursor;
+            private boolean started;
+
+            @Override
+            public boolean hasNext() {
+                while (!page.hasNext() && (!started || cursor != null)) {
+                    EmployeePage next = scanPage(cursor, fields, false);
+                    started = true;
+                    page = next.items().iterator();
+                    cursor = next.nextCursor();
+                }
+                return page.hasNext();
+            }
+
+            @Override
+            public Employee next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.next();
+            }
+        };
+    }
+
+    @Override
+    public EmployeePage scanPage(String cursor, EmployeeFields fields, boolean consistentRead) {
+        return rateLimiter.call(() -> delegate.scanPage(cursor, fields, consistentRead));
+    }
+
+    @Override
+    public EmployeePage findPage(int limit, String cursor, EmployeeFields fields) {
+        return rateLimiter.call(() -> delegate.findPage(limit, cursor, fields));
+    }
+
+    @Override
+    public EmployeePage findByJobPosition(String jobPosition, int limit, String cursor, EmployeeFields fields) {
+        return rateLimiter.call(() -> delegate.findByJobPosition(jobPosition, limit, cursor, fields));
+    }
+
+    @Override
+    public EmployeePage findByLastNamePrefix(String prefix, int limit, String cursor, EmployeeFields fields) {
+        return rateLimiter.call(() -> delegate.findByLastNamePrefix(prefix, limit, cursor, fields));
+    }
+
+    @Override
+    public boolean add(Employee employee) {
+        return rateLimiter.call(() -> delegate.add(employee));
+    }
+
+    @Override
+    public boolean update(Employee employee) {
+        return rateLimiter.call(() -> delegate.update(employee));
+    }
+
+    @Override
+    public boolean delete(String id) {
+        return rateLimiter.call(() -> delegate.delete(id));
+    }
+}
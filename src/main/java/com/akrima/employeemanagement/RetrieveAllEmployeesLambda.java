@@ -1,63 +1,134 @@
 package com.akrima.employeemanagement;
 
 import com.akrima.employeemanagement.model.Employee;
+import com.akrima.employeemanagement.model.EmployeePage;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
-import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
-import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
-import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
 
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
-public class RetrieveAllEmployeesLambda implements RequestHandler<Void, APIGatewayProxyResponseEvent> {
+public class RetrieveAllEmployeesLambda implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
 
-    private static final String DYNAMO_DB_TABLE_NAME = "Employee";
-    private final DynamoDbClient dynamoDbClient;
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private final EmployeeRepository employeeRepository;
+    private final DirectorySnapshotCache snapshotCache;
 
     public RetrieveAllEmployeesLambda() {
         // Default Constructor required aws lambda
-        this.dynamoDbClient = DynamoDbClientFactory.createDynamoDbClient();
+        DynamoDbClient dynamoDbClient = DynamoDbClientFactory.sharedDynamoDbClient();
+        DynamoDbClientFactory.primeIfEnabled(dynamoDbClient);
+        this.employeeRepository = DynamoDbEmployeeRepository.rateLimited(dynamoDbClient);
+        this.snapshotCache = snapshotCacheIfEnabled();
     }
     public RetrieveAllEmployeesLambda(DynamoDbClient dynamoDbClient) {
-        this.dynamoDbClient = dynamoDbClient;
+        this(DynamoDbEmployeeRepository.rateLimited(dynamoDbClient));
+    }
+    public RetrieveAllEmployeesLambda(EmployeeRepository employeeRepository) {
+        this(employeeRepository, null);
+    }
+    public RetrieveAllEmployeesLambda(EmployeeRepository employeeRepository, DirectorySnapshotCache snapshotCache) {
+        this.employeeRepository = employeeRepository;
+        this.snapshotCache = snapshotCache;
+    }
+
+    /**
+     * The shared {@link DirectorySnapshotCache} with EMPLOYEE_SNAPSHOT_CACHE=true, otherwise {@code null}: every
+     * unpaged request scans the table.
+     */
+    static DirectorySnapshotCache snapshotCacheIfEnabled() {
+        return DirectoryVersion.enabled() ? DirectorySnapshotCache.shared() : null;
     }
 
     @Override
-    public APIGatewayProxyResponseEvent handleRequest(Void input, Context context) {
+    public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent apiGatewayProxyRequestEvent, Context context) {
+        InvocationMetrics metrics = InvocationMetrics.start("RetrieveAllEmployeesLambda", context);
+        try {
+            return metrics.recordResponse(handle(apiGatewayProxyRequestEvent, context));
+        } finally {
+            metrics.finish();
+        }
+    }
+
+    private APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent apiGatewayProxyRequestEvent, Context context) {
         APIGatewayProxyResponseEvent responseEvent = new APIGatewayProxyResponseEvent();
         try {
-            List<Employee> allEmployees = getAllEmployeesFromDynamoDb();
+            Map<String, String> queryParameters = apiGatewayProxyRequestEvent == null ? null : apiGatewayProxyRequestEvent.getQueryStringParameters();
+            EmployeeFields fields;
+            try {
+                fields = EmployeeFields.parse(queryParameters == null ? null : queryParameters.get("fields"));
+            } catch (IllegalArgumentException e) {
+                return responseEvent.withStatusCode(400).withBody("Invalid fields. Allowed fields: " + String.join(", ", EmployeeFields.NAMES) + ".");
+            }
 
-            // Convert the list of employees to JSON
-            String jsonResponse = new ObjectMapper().writeValueAsString(allEmployees);
+            boolean paged = queryParameters != null && (queryParameters.containsKey("limit") || queryParameters.containsKey("cursor"));
+            if (!paged && snapshotCache != null) {
+                // One small read when the directory has not changed, the body is already serialised and compressed
+                DirectorySnapshotCache.Snapshot snapshot = snapshotCache.get(employeeRepository, fields);
+                InvocationMetrics.recordResults(snapshot.size());
+                String matchedTag = EntityTags.match(apiGatewayProxyRequestEvent, snapshot.etag());
+                if (matchedTag != null) {
+                    return EntityTags.notModified(responseEvent, matchedTag);
+                }
+                return EntityTags.tag(ContentEncoding.compress(apiGatewayProxyRequestEvent,
+                        responseEvent.withStatusCode(200).withBody(snapshot.body()), snapshot.compressed()), snapshot.etag());
+            }
+            if (!paged) {
+                // No paging requested: return the whole table as a JSON array
+                List<Employee> allEmployees = employeeRepository.findAll(fields);
+                InvocationMetrics.recordResults(allEmployees.size());
+                String etag = EntityTags.of(allEmployees, null);
+                String matchedTag = EntityTags.match(apiGatewayProxyRequestEvent, etag);
+                if (matchedTag != null) {
+                    // The client's copy is current: nothing to serialise or send
+                    return EntityTags.notModified(responseEvent, matchedTag);
+                }
 
-            return responseEvent.withStatusCode(200).withBody(jsonResponse);
+                // Convert the list of employees to JSON
+                String jsonResponse = EmployeeJsonCodec.writeEmployees(allEmployees, fields);
+
+                return EntityTags.tag(ContentEncoding.compress(apiGatewayProxyRequestEvent, responseEvent.withStatusCode(200).withBody(jsonResponse)), etag);
+            }
+
+            int limit;
+            try {
+                limit = parseLimit(queryParameters.get("limit"));
+            } catch (IllegalArgumentException e) {
+                return responseEvent.withStatusCode(400).withBody("Invalid limit. Please provide a number between 1 and " + MAX_PAGE_SIZE + ".");
+            }
+            EmployeePage page;
+            try {
+                page = employeeRepository.findPage(limit, queryParameters.get("cursor"), fields);
+            } catch (IllegalArgumentException e) {
+                return responseEvent.withStatusCode(400).withBody("Invalid cursor.");
+            }
+            InvocationMetrics.recordResults(page.items().size());
+            String etag = EntityTags.of(page.items(), page.nextCursor());
+            String matchedTag = EntityTags.match(apiGatewayProxyRequestEvent, etag);
+            if (matchedTag != null) {
+                return EntityTags.notModified(responseEvent, matchedTag);
+            }
+            return EntityTags.tag(ContentEncoding.compress(apiGatewayProxyRequestEvent, responseEvent.withStatusCode(200).withBody(EmployeeJsonCodec.writeEmployeePage(page, fields))), etag);
+        } catch (ThrottledException e) {
+            return e.toResponse(responseEvent);
         } catch (Exception e) {
             context.getLogger().log("Error retrieving all employees: " + e.getMessage());
             return responseEvent.withStatusCode(500).withBody("Error retrieving all employees.");
         }
     }
 
-    private List<Employee> getAllEmployeesFromDynamoDb() {
-        ScanRequest scanRequest = ScanRequest.builder().tableName(DYNAMO_DB_TABLE_NAME).build();
-        ScanResponse scanResponse = dynamoDbClient.scan(scanRequest);
-
-        return scanResponse.items().stream()
-                .map(this::mapDynamoDbItemToEmployee)
-                .collect(Collectors.toList());
-    }
-
-    private Employee mapDynamoDbItemToEmployee(Map<String, AttributeValue> item) {
-        return new Employee(
-                item.get("id").s(),
-                item.get("firstName").s(),
-                item.get("lastName").s(),
-                item.get("jobPosition").s()
-        );
+    private int parseLimit(String limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        int pageSize = Integer.parseInt(limit);
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit out of range: " + pageSize);
+        }
+        return pageSize;
     }
 }
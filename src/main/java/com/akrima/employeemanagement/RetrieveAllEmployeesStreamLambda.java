@@ -0,0 +1,219 @@
+package com.akrima.employeemanagement;
+
+import com.akrima.employeemanagement.model.Employee;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+/**
+ * Returns the whole Employee table like {@link RetrieveAllEmployeesLambda} without paging, but writes each employee
+ * to the output stream as the scan returns it instead of building the list and the JSON string first, so the heap
+ * used does not depend on the table size. Honours {@code fields=} like the other retrieve endpoints.
+ * <p>
+ * By default the output is an API Gateway proxy response whose body is escaped on the fly. With
+ * RESPONSE_STREAMING=true it uses the response streaming HTTP format instead (JSON prelude with status and
+ * headers, 8 NUL bytes, then the raw body), for a Function URL in RESPONSE_STREAM mode served by a runtime that
+ * supports it.
+ * <p>
+ * The status is written before the first employee: a scan failing mid-way cannot turn into a 500 any more, so the
+ * error is logged and rethrown to fail the invocation.
+ */
+public class RetrieveAllEmployeesStreamLambda implements RequestStreamHandler {
+
+    private static final byte[] STREAMING_PRELUDE_DELIMITER = new byte[8];
+    private final EmployeeRepository employeeRepository;
+    private final boolean responseStreaming;
+
+    public RetrieveAllEmployeesStreamLambda() {
+        // Default Constructor required aws lambda
+        DynamoDbClient dynamoDbClient = DynamoDbClientFactory.sharedDynamoDbClient();
+        DynamoDbClientFactory.primeIfEnabled(dynamoDbClient);
+        this.employeeRepository = DynamoDbEmployeeRepository.rateLimited(dynamoDbClient);
+        this.responseStreaming = Boolean.parseBoolean(System.getenv("RESPONSE_STREAMING"));
+    }
+    public RetrieveAllEmployeesStreamLambda(DynamoDbClient dynamoDbClient) {
+        this(DynamoDbEmployeeRepository.rateLimited(dynamoDbClient), false);
+    }
+    public RetrieveAllEmployeesStreamLambda(EmployeeRepository employeeRepository) {
+        this(employeeRepository, false);
+    }
+    public RetrieveAllEmployeesStreamLambda(EmployeeRepository employeeRepository, boolean responseStreaming) {
+        this.employeeRepository = employeeRepository;
+        this.responseStreaming = responseStreaming;
+    }
+
+    @Override
+    public void handleRequest(InputStream input, OutputStream output, Context context) throws IOException {
+        InvocationMetrics metrics = InvocationMetrics.start("RetrieveAllEmployeesStreamLambda", context);
+        try {
+            handle(input, output, context, metrics);
+        } finally {
+            metrics.finish();
+        }
+    }
+
+    private void handle(InputStream input, OutputStream output, Context context, InvocationMetrics metrics) throws IOException {
+        EmployeeFields fields;
+        try {
+            fields = EmployeeFields.parse(queryParameter(input, "fields"));
+        } catch (IllegalArgumentException | IOException e) {
+            metrics.recordStatus(400);
+            writeResponse(output, 400, "Invalid fields. Allowed fields: " + String.join(", ", EmployeeFields.NAMES) + ".");
+            return;
+        }
+
+        Iterator<Employee> employees;
+        try {
+            // Sends the first Scan, so a failing table read can still be reported as a 500
+            employees = employeeRepository.scan(fields).iterator();
+            employees.hasNext();
+        } catch (ThrottledException e) {
+            metrics.recordStatus(e.statusCode());
+            writeResponse(output, e.statusCode(), "Too many requests. Please retry after " + e.retryAfterSeconds() + " seconds.");
+            return;
+        } catch (Exception e) {
+            context.getLogger().log("Error retrieving all employees: " + e.getMessage());
+            metrics.recordStatus(500);
+            writeResponse(output, 500, "Error retrieving all employees.");
+            return;
+        }
+
+        metrics.recordStatus(200);
+        int count = 0;
+        try {
+            OutputStream body = startResponse(output, 200, "application/json");
+            try (JsonGenerator generator = EmployeeJsonCodec.createGenerator(body)) {
+                generator.writeStartArray();
+                while (employees.hasNext()) {
+                    EmployeeJsonCodec.writeEmployee(generator, employees.next(), fields);
+                    count++;
+                }
+                generator.writeEndArray();
+            }
+            endResponse(output);
+        } catch (RuntimeException | IOException e) {
+            context.getLogger().log("Error streaming all employees: " + e.getMessage());
+            throw e;
+        } finally {
+            InvocationMetrics.recordResults(count);
+        }
+    }
+
+    private void writeResponse(OutputStream output, int statusCode, String body) throws IOException {
+        OutputStream bodyStream = startResponse(output, statusCode, "text/plain");
+        bodyStream.write(body.getBytes(StandardCharsets.UTF_8));
+        endResponse(output);
+    }
+
+    /**
+     * Writes everything before the body and returns the stream the body must be written to, which must not be closed.
+     */
+    private OutputStream startResponse(OutputStream output, int statusCode, String contentType) throws IOException {
+        String head = "{\"statusCode\":" + statusCode + ",\"headers\":{\"Content-Type\":\"" + contentType + "\"}";
+        if (responseStreaming) {
+            output.write((head + "}").getBytes(StandardCharsets.UTF_8));
+            output.write(STREAMING_PRELUDE_DELIMITER);
+            return new NonClosingOutputStream(output);
+        }
+        output.write((head + ",\"isBase64Encoded\":false,\"body\":\"").getBytes(StandardCharsets.UTF_8));
+        return new JsonStringEscapingOutputStream(output);
+    }
+
+    private void endResponse(OutputStream output) throws IOException {
+        if (!responseStreaming) {
+            output.write("\"}".getBytes(StandardCharsets.UTF_8));
+        }
+        output.flush();
+    }
+
+    /**
+     * Reads one query string parameter from the invocation event (API Gateway proxy or Function URL format),
+     * skipping everything else without materialising it.
+     */
+    private static String queryParameter(InputStream input, String name) throws IOException {
+        try (JsonParser parser = EmployeeJsonCodec.createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            String field;
+            while ((field = parser.nextFieldName()) != null) {
+                JsonToken value = parser.nextToken();
+                if ("queryStringParameters".equals(field) && value == JsonToken.START_OBJECT) {
+                    String result = null;
+                    String parameter;
+                    while ((parameter = parser.nextFieldName()) != null) {
+                        parser.nextToken();
+                        if (name.equals(parameter)) {
+                            result = parser.getValueAsString();
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    return result;
+                }
+                parser.skipChildren();
+            }
+            return null;
+        }
+    }
+
+    private static class NonClosingOutputStream extends FilterOutputStream {
+
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    /**
+     * Escapes UTF-8 JSON text into the content of a JSON string. The generator already escapes control characters
+     * inside values and writes no whitespace, so only quotes and backslashes need escaping.
+     */
+    private static final class JsonStringEscapingOutputStream extends NonClosingOutputStream {
+
+        private static final byte[] ESCAPED_QUOTE = {'\\', '"'};
+        private static final byte[] ESCAPED_BACKSLASH = {'\\', '\\'};
+
+        JsonStringEscapingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            int start = off;
+            int end = off + len;
+            for (int i = off; i < end; i++) {
+                if (b[i] == '"' || b[i] == '\\') {
+                    out.write(b, start, i - start);
+                    out.write(b[i] == '"' ? ESCAPED_QUOTE : ESCAPED_BACKSLASH);
+                    start = i + 1;
+                }
+            }
+            out.write(b, start, end - start);
+        }
+    }
+}
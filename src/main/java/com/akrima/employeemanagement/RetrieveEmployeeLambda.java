@@ -5,28 +5,47 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
-import software.amazon.awssdk.services.dynamodb.model.*;
 
-import java.util.HashMap;
 import java.util.Map;
 
 public class RetrieveEmployeeLambda implements RequestHandler<APIGatewayProxyRequestEvent,  APIGatewayProxyResponseEvent> {
 
-    private static final String DYNAMO_DB_TABLE_NAME = "Employee";
-    private final DynamoDbClient dynamoDbClient;
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeCache employeeCache;
 
     public RetrieveEmployeeLambda() {
         // Default Constructor required aws lambda
-        this.dynamoDbClient = DynamoDbClientFactory.createDynamoDbClient();
+        DynamoDbClient dynamoDbClient = DynamoDbClientFactory.sharedDynamoDbClient();
+        DynamoDbClientFactory.primeIfEnabled(dynamoDbClient);
+        this.employeeRepository = DynamoDbEmployeeRepository.rateLimited(dynamoDbClient);
+        this.employeeCache = EmployeeCache.shared();
     }
     public RetrieveEmployeeLambda(DynamoDbClient dynamoDbClient) {
-        this.dynamoDbClient = dynamoDbClient;
+        this(dynamoDbClient, EmployeeCache.shared());
+    }
+    public RetrieveEmployeeLambda(DynamoDbClient dynamoDbClient, EmployeeCache employeeCache) {
+        this(DynamoDbEmployeeRepository.rateLimited(dynamoDbClient), employeeCache);
+    }
+    public RetrieveEmployeeLambda(EmployeeRepository employeeRepository) {
+        this(employeeRepository, EmployeeCache.shared());
+    }
+    public RetrieveEmployeeLambda(EmployeeRepository employeeRepository, EmployeeCache employeeCache) {
+        this.employeeRepository = employeeRepository;
+        this.employeeCache = employeeCache;
     }
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent apiGatewayProxyRequestEvent, Context context) {
+        InvocationMetrics metrics = InvocationMetrics.start("RetrieveEmployeeLambda", context);
+        try {
+            return metrics.recordResponse(handle(apiGatewayProxyRequestEvent, context));
+        } finally {
+            metrics.finish();
+        }
+    }
+
+    private APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent apiGatewayProxyRequestEvent, Context context) {
         APIGatewayProxyResponseEvent responseEvent = new APIGatewayProxyResponseEvent();
         try {
 
@@ -36,30 +55,38 @@ public class RetrieveEmployeeLambda implements RequestHandler<APIGatewayProxyReq
                 return responseEvent.withStatusCode(400).withBody("Invalid input. Please provide an employeeId.");
             }
             String employeeId = pathParameters.get("id");
-            // Check if the employee exists
-            if (!employeeExists(employeeId)) {
-                return responseEvent.withStatusCode(404).withBody("Employee with ID " + employeeId + " does not exist.");
-            }
-
-            // If the employee exists, retrieve their information from DynamoDB
-            Map<String, AttributeValue> keyMap = new HashMap<>();
-            keyMap.put("id", AttributeValue.builder().s(employeeId).build());
 
-            GetItemResponse response = dynamoDbClient.getItem(GetItemRequest.builder()
-                    .tableName(DYNAMO_DB_TABLE_NAME)
-                    .key(keyMap)
-                    .build());
+            EmployeeFields fields;
+            try {
+                fields = EmployeeFields.parse(queryParameter(apiGatewayProxyRequestEvent, "fields"));
+            } catch (IllegalArgumentException e) {
+                return responseEvent.withStatusCode(400).withBody("Invalid fields. Allowed fields: " + String.join(", ", EmployeeFields.NAMES) + ".");
+            }
 
-            Map<String, AttributeValue> item = response.item();
+            // Whole employees are served from the warm cache when possible, otherwise a single GetItem.
+            // A sparse fieldset reads only those attributes and bypasses the cache, which holds whole employees.
+            // A conditional request reads the item again, so a 304 is never decided on a cached copy that another
+            // environment's write has outdated; the fresh copy replaces the cached one.
+            if (fields.isAll() && ContentEncoding.header(apiGatewayProxyRequestEvent, "If-None-Match") != null) {
+                employeeCache.invalidate(employeeId);
+            }
+            Employee retrievedEmployee = fields.isAll()
+                    ? employeeCache.get(employeeId, employeeRepository::findById)
+                    : employeeRepository.findById(employeeId, fields);
+            InvocationMetrics.recordResults(retrievedEmployee == null ? 0 : 1);
+            if (retrievedEmployee == null) {
+                return responseEvent.withStatusCode(404).withBody("Employee with ID " + employeeId + " does not exist.");
+            }
 
-            // Map DynamoDB item to Employee object
-            Employee retrievedEmployee = new Employee(
-                    item.get("id").s(),
-                    item.get("firstName").s(),
-                    item.get("lastName").s(),
-                    item.get("jobPosition").s()
-            );
-            return responseEvent.withStatusCode(200).withBody(new ObjectMapper().writeValueAsString(retrievedEmployee));
+            String etag = EntityTags.of(retrievedEmployee);
+            String matchedTag = EntityTags.match(apiGatewayProxyRequestEvent, etag);
+            if (matchedTag != null) {
+                // The client's copy is current: nothing to serialise or send
+                return EntityTags.notModified(responseEvent, matchedTag);
+            }
+            return EntityTags.tag(responseEvent.withStatusCode(200).withBody(EmployeeJsonCodec.writeEmployee(retrievedEmployee, fields)), etag);
+        } catch (ThrottledException e) {
+            return e.toResponse(responseEvent);
         } catch (Exception e) {
             // Handle any errors
             context.getLogger().log("Error retrieving employee: " + e.getMessage());
@@ -67,11 +94,8 @@ public class RetrieveEmployeeLambda implements RequestHandler<APIGatewayProxyReq
         }
     }
 
-    private boolean employeeExists(String employeeId) {
-        GetItemResponse response = dynamoDbClient.getItem(GetItemRequest.builder()
-                .tableName(DYNAMO_DB_TABLE_NAME)
-                .key(Map.of("id", AttributeValue.builder().s(employeeId).build()))
-                .build());
-        return response.hasItem();
+    private static String queryParameter(APIGatewayProxyRequestEvent apiGatewayProxyRequestEvent, String name) {
+        Map<String, String> queryParameters = apiGatewayProxyRequestEvent.getQueryStringParameters();
+        return queryParameters == null ? null : queryParameters.get(name);
     }
 }
@@ -0,0 +1,151 @@
+package com.akrima.employeemanagement;
+
+import com.akrima.employeemanagement.model.Employee;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Batch retrieve: takes a JSON array of employee ids and reads them with BatchGetItem, 100 keys per call,
+ * calls issued in parallel. The response lists the employees found (in request order) and the ids that do
+ * not exist. Ids DynamoDB still reported as unprocessed after the retries are listed separately so the
+ * caller can ask for them again. Calls go through the shared {@link AdaptiveRateLimiter}; a table that keeps
+ * throttling is answered with 429/503 and Retry-After.
+ */
+public class RetrieveEmployeesLambda implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+
+    private static final String DYNAMO_DB_TABLE_NAME = "Employee";
+    private static final int MAX_IDS = 500;
+    private static final JitteredBackoff BACKOFF = new JitteredBackoff(25, 2_000, 8);
+    private final DynamoDbClient dynamoDbClient;
+    private final AdaptiveRateLimiter rateLimiter = AdaptiveRateLimiter.shared();
+
+    public RetrieveEmployeesLambda() {
+        // Default Constructor required aws lambda
+        this.dynamoDbClient = DynamoDbClientFactory.sharedDynamoDbClient();
+        DynamoDbClientFactory.primeIfEnabled(this.dynamoDbClient);
+    }
+    public RetrieveEmployeesLambda(DynamoDbClient dynamoDbClient) {
+        this.dynamoDbClient = dynamoDbClient;
+    }
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent apiGatewayProxyRequestEvent, Context context) {
+        InvocationMetrics metrics = InvocationMetrics.start("RetrieveEmployeesLambda", context);
+        try {
+            return metrics.recordResponse(handle(apiGatewayProxyRequestEvent, context));
+        } finally {
+            metrics.finish();
+        }
+    }
+
+    private APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent apiGatewayProxyRequestEvent, Context context) {
+        APIGatewayProxyResponseEvent responseEvent = new APIGatewayProxyResponseEvent();
+        try {
+            Set<String> ids = new LinkedHashSet<>(EmployeeJsonCodec.readStrings(ContentEncoding.requestBody(apiGatewayProxyRequestEvent)));
+            if (ids.isEmpty() || ids.size() > MAX_IDS) {
+                return responseEvent.withStatusCode(400).withBody("Invalid input. Please provide between 1 and " + MAX_IDS + " employee ids.");
+            }
+
+            List<CompletableFuture<ChunkResult>> chunks = new ArrayList<>();
+            for (List<String> chunk : DynamoDbBatches.partition(new ArrayList<>(ids), DynamoDbBatches.MAX_BATCH_GET_KEYS)) {
+                chunks.add(CompletableFuture.supplyAsync(() -> readChunk(chunk), DynamoDbBatches.executor()));
+            }
+            Map<String, Employee> found = new HashMap<>();
+            Set<String> unprocessedIds = new LinkedHashSet<>();
+            for (CompletableFuture<ChunkResult> chunk : chunks) {
+                ChunkResult result;
+                try {
+                    result = chunk.join();
+                } catch (CompletionException e) {
+                    throw e.getCause() instanceof ThrottledException throttled ? throttled : e;
+                }
+                result.employees().forEach(employee -> found.put(employee.id(), employee));
+                unprocessedIds.addAll(result.unprocessedIds());
+            }
+
+            List<Employee> employees = new ArrayList<>(found.size());
+            List<String> missingIds = new ArrayList<>();
+            for (String id : ids) {
+                Employee employee = found.get(id);
+                if (employee != null) {
+                    employees.add(employee);
+                } else if (!unprocessedIds.contains(id)) {
+                    missingIds.add(id);
+                }
+            }
+
+            InvocationMetrics.recordResults(employees.size());
+            String body = EmployeeJsonCodec.write(generator -> {
+                generator.writeStartObject();
+                generator.writeFieldName("employees");
+                EmployeeJsonCodec.writeEmployees(generator, employees);
+                generator.writeArrayFieldStart("missingIds");
+                for (String id : missingIds) {
+                    generator.writeString(id);
+                }
+                generator.writeEndArray();
+                generator.writeArrayFieldStart("unprocessedIds");
+                for (String id : unprocessedIds) {
+                    generator.writeString(id);
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+            });
+            return ContentEncoding.compress(apiGatewayProxyRequestEvent, responseEvent.withStatusCode(200).withBody(body));
+        } catch (ThrottledException e) {
+            return e.toResponse(responseEvent);
+        } catch (Exception e) {
+            // Handle any errors
+            context.getLogger().log("Error retrieving employees: " + e.getMessage());
+            return responseEvent.withStatusCode(500).withBody("Error retrieving employees.");
+        }
+    }
+
+    /**
+     * Reads one chunk of at most 100 ids, retrying unprocessed keys with jittered backoff.
+     */
+    private ChunkResult readChunk(List<String> ids) {
+        List<Map<String, AttributeValue>> keys = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            keys.add(Map.of("id", AttributeValue.builder().s(id).build()));
+        }
+        KeysAndAttributes pending = KeysAndAttributes.builder().keys(keys).build();
+
+        List<Employee> employees = new ArrayList<>(ids.size());
+        for (int retry = 0; ; retry++) {
+            BatchGetItemRequest request = BatchGetItemRequest.builder()
+                    .requestItems(Map.of(DYNAMO_DB_TABLE_NAME, pending))
+                    .build();
+            BatchGetItemResponse response = rateLimiter.call(() -> dynamoDbClient.batchGetItem(request));
+            response.responses().getOrDefault(DYNAMO_DB_TABLE_NAME, List.of())
+                    .forEach(item -> employees.add(EmployeeItemMapper.fromItem(item)));
+
+            pending = response.unprocessedKeys().get(DYNAMO_DB_TABLE_NAME);
+            if (pending == null || pending.keys().isEmpty()) {
+                return new ChunkResult(employees, List.of());
+            }
+            if (retry == BACKOFF.maxRetries()) {
+                List<String> unprocessedIds = new ArrayList<>(pending.keys().size());
+                pending.keys().forEach(key -> unprocessedIds.add(key.get("id").s()));
+                return new ChunkResult(employees, unprocessedIds);
+            }
+            try {
+                BACKOFF.sleep(retry);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while retrying unprocessed keys", e);
+            }
+        }
+    }
+
+    private record ChunkResult(List<Employee> employees, List<String> unprocessedIds) {
+    }
+}
@@ -0,0 +1,89 @@
+package com.akrima.employeemanagement;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * {@code GET /stats/headcount}: the number of employees per job position, read from the counters
+ * {@link HeadcountStreamLambda} maintains, so the cost grows with the number of positions rather than employees.
+ * <p>
+ * Returns {@code {"total":4,"jobPositions":{"Designer":1,"Developer":3}}}, positions in alphabetical order.
+ * The counters follow the table's stream, typically within a second of a write.
+ */
+public class RetrieveHeadcountLambda implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+
+    private final DynamoDbClient dynamoDbClient;
+    private final AdaptiveRateLimiter rateLimiter = AdaptiveRateLimiter.shared();
+
+    public RetrieveHeadcountLambda() {
+        // Default Constructor required aws lambda
+        this.dynamoDbClient = DynamoDbClientFactory.sharedDynamoDbClient();
+        DynamoDbClientFactory.primeIfEnabled(this.dynamoDbClient);
+    }
+
+    public RetrieveHeadcountLambda(DynamoDbClient dynamoDbClient) {
+        this.dynamoDbClient = dynamoDbClient;
+    }
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent apiGatewayProxyRequestEvent, Context context) {
+        InvocationMetrics metrics = InvocationMetrics.start("RetrieveHeadcountLambda", context);
+        try {
+            return metrics.recordResponse(handle(context));
+        } finally {
+            metrics.finish();
+        }
+    }
+
+    private APIGatewayProxyResponseEvent handle(Context context) {
+        APIGatewayProxyResponseEvent responseEvent = new APIGatewayProxyResponseEvent();
+        try {
+            SortedMap<String, Long> headcounts = rateLimiter.call(this::readHeadcounts);
+            InvocationMetrics.recordResults(headcounts.size());
+
+            long total = headcounts.values().stream().mapToLong(Long::longValue).sum();
+            String body = EmployeeJsonCodec.write(generator -> {
+                generator.writeStartObject();
+                generator.writeNumberField("total", total);
+                generator.writeObjectFieldStart("jobPositions");
+                for (Map.Entry<String, Long> headcount : headcounts.entrySet()) {
+                    generator.writeNumberField(headcount.getKey(), headcount.getValue());
+                }
+                generator.writeEndObject();
+                generator.writeEndObject();
+            });
+            return responseEvent.withStatusCode(200).withBody(body);
+        } catch (ThrottledException e) {
+            return e.toResponse(responseEvent);
+        } catch (Exception e) {
+            // Handle any errors
+            context.getLogger().log("Error retrieving headcount: " + e.getMessage());
+            return responseEvent.withStatusCode(500).withBody("Error retrieving headcount.");
+        }
+    }
+
+    /**
+     * One item per job position ever counted; positions back to zero are left out.
+     */
+    private SortedMap<String, Long> readHeadcounts() {
+        SortedMap<String, Long> headcounts = new TreeMap<>();
+        ScanRequest scanRequest = ScanRequest.builder().tableName(HeadcountStreamLambda.HEADCOUNT_TABLE_NAME).build();
+        for (Map<String, AttributeValue> item : dynamoDbClient.scanPaginator(scanRequest).items()) {
+            AttributeValue headcount = item.get("headcount");
+            long count = headcount == null || headcount.n() == null ? 0 : Long.parseLong(headcount.n());
+            if (count > 0) {
+                headcounts.put(item.get("jobPosition").s(), count);
+            }
+        }
+        return headcounts;
+    }
+}
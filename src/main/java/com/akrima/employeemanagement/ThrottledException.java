@@ -0,0 +1,40 @@
+package com.akrima.employeemanagement;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+
+import java.util.Map;
+
+/**
+ * A DynamoDB call refused by the {@link AdaptiveRateLimiter}: 429 when this environment is sending faster than the
+ * limiter allows, 503 when the table kept throttling. Handlers answer with the status and a {@code Retry-After}
+ * header instead of a 500.
+ */
+public class ThrottledException extends RuntimeException {
+
+    private final int statusCode;
+    private final long retryAfterSeconds;
+
+    public ThrottledException(int statusCode, long retryAfterSeconds, String message, Throwable cause) {
+        super(message, cause);
+        this.statusCode = statusCode;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int statusCode() {
+        return statusCode;
+    }
+
+    public long retryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    /**
+     * The response handlers give for a throttled call, caught ahead of their generic 500: DynamoDB is throttling,
+     * so the caller is told when to come back rather than that the request failed.
+     */
+    public APIGatewayProxyResponseEvent toResponse(APIGatewayProxyResponseEvent responseEvent) {
+        return responseEvent.withStatusCode(statusCode)
+                .withHeaders(Map.of("Retry-After", Long.toString(retryAfterSeconds)))
+                .withBody("Too many requests. Please retry after " + retryAfterSeconds + " seconds.");
+    }
+}
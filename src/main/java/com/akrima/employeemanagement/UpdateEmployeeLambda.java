@@ -5,60 +5,76 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
-import software.amazon.awssdk.services.dynamodb.model.*;
-
-import java.util.Map;
 
 public class UpdateEmployeeLambda implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
 
-    private static final String DYNAMO_DB_TABLE_NAME = "Employee";
-    private final DynamoDbClient dynamoDbClient;
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeCache employeeCache;
+    private final IdempotentRequests idempotentRequests;
 
     public UpdateEmployeeLambda() {
         // Default Constructor required aws lambda
-        this.dynamoDbClient = DynamoDbClientFactory.createDynamoDbClient();
+        DynamoDbClient dynamoDbClient = DynamoDbClientFactory.sharedDynamoDbClient();
+        DynamoDbClientFactory.primeIfEnabled(dynamoDbClient);
+        this.employeeRepository = DynamoDbEmployeeRepository.rateLimited(dynamoDbClient);
+        this.employeeCache = EmployeeCache.shared();
+        this.idempotentRequests = IdempotentRequests.backedBy(new DynamoDbIdempotencyStore(dynamoDbClient));
     }
     public UpdateEmployeeLambda(DynamoDbClient dynamoDbClient) {
-        this.dynamoDbClient = dynamoDbClient;
+        this(dynamoDbClient, EmployeeCache.shared());
+    }
+    public UpdateEmployeeLambda(DynamoDbClient dynamoDbClient, EmployeeCache employeeCache) {
+        this(DynamoDbEmployeeRepository.rateLimited(dynamoDbClient), employeeCache,
+                IdempotentRequests.backedBy(new DynamoDbIdempotencyStore(dynamoDbClient)));
+    }
+    public UpdateEmployeeLambda(EmployeeRepository employeeRepository) {
+        this(employeeRepository, EmployeeCache.shared());
+    }
+    public UpdateEmployeeLambda(EmployeeRepository employeeRepository, EmployeeCache employeeCache) {
+        this(employeeRepository, employeeCache, IdempotentRequests.backedBy(new InMemoryIdempotencyStore()));
+    }
+    public UpdateEmployeeLambda(EmployeeRepository employeeRepository, EmployeeCache employeeCache, IdempotentRequests idempotentRequests) {
+        this.employeeRepository = employeeRepository;
+        this.employeeCache = employeeCache;
+        this.idempotentRequests = idempotentRequests;
     }
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent apiGatewayProxyRequestEvent, Context context) {
+        InvocationMetrics metrics = InvocationMetrics.start("UpdateEmployeeLambda", context);
+        try {
+            // A retry carrying the Idempotency-Key of an earlier request gets its response, see IdempotentRequests
+            return metrics.recordResponse(idempotentRequests.execute("updateEmployee", apiGatewayProxyRequestEvent, context,
+                    () -> handle(apiGatewayProxyRequestEvent, context)));
+        } finally {
+            metrics.finish();
+        }
+    }
+
+    private APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent apiGatewayProxyRequestEvent, Context context) {
         APIGatewayProxyResponseEvent responseEvent=new APIGatewayProxyResponseEvent();
         try {
-            Employee updatedEmployee = new ObjectMapper().readValue(apiGatewayProxyRequestEvent.getBody(), Employee.class);
-            // Check if the employee exists
-            if (!employeeExists(updatedEmployee.id())) {
+            Employee updatedEmployee = EmployeeJsonCodec.readEmployee(ContentEncoding.requestBody(apiGatewayProxyRequestEvent));
+            // Update the employee only if they exist, in a single round trip
+            boolean updated;
+            try {
+                updated = employeeRepository.update(updatedEmployee);
+            } finally {
+                // Whatever the outcome, this environment's cached copy may now be stale
+                employeeCache.invalidate(updatedEmployee.id());
+            }
+            if (!updated) {
                 return responseEvent.withStatusCode(404).withBody("Employee with ID " + updatedEmployee.id() + " does not exist.");
             }
 
-            // If the employee exists, update their information in DynamoDB
-            dynamoDbClient.updateItem(UpdateItemRequest.builder()
-                    .tableName(DYNAMO_DB_TABLE_NAME)
-                    .key(Map.of("id", AttributeValue.builder().s(updatedEmployee.id()).build()))
-                    .updateExpression("SET firstName = :firstName, lastName = :lastName, jobPosition = :newJobPosition")
-                    .expressionAttributeValues(Map.of(
-                            ":firstName", AttributeValue.builder().s(updatedEmployee.firstName()).build(),
-                            ":lastName", AttributeValue.builder().s(updatedEmployee.lastName()).build(),
-                            ":newJobPosition", AttributeValue.builder().s(updatedEmployee.jobPosition()).build()
-                    ))
-                    .build());
-
             return responseEvent.withStatusCode(200).withBody("Employee updated successfully with ID: " + updatedEmployee.id());
+        } catch (ThrottledException e) {
+            return e.toResponse(responseEvent);
         } catch (Exception e) {
             // Handle any errors
             context.getLogger().log("Error updating employee: " + e.getMessage());
             return responseEvent.withStatusCode(500).withBody("Error updating employee.");
         }
     }
-
-    private boolean employeeExists(String id) {
-        GetItemResponse response = dynamoDbClient.getItem(GetItemRequest.builder()
-                .tableName(DYNAMO_DB_TABLE_NAME)
-                .key(Map.of("id", AttributeValue.builder().s(id).build()))
-                .build());
-        return response.hasItem();
-    }
 }
@@ -1,7 +1,23 @@
 package com.akrima.employeemanagement.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * An employee. {@code version} is maintained by the repository, which sets it on every write: it is {@code null} on
+ * employees built from a request body and on items written before versions existed. It is not part of the JSON
+ * representation, clients see it as the ETag.
+ */
 public record Employee(String id,
         String firstName,
         String lastName,
-        String jobPosition) {
+        String jobPosition,
+        @JsonIgnore Long version) {
+
+    public Employee(String id, String firstName, String lastName, String jobPosition) {
+        this(id, firstName, lastName, jobPosition, null);
+    }
+
+    public Employee withVersion(Long version) {
+        return new Employee(id, firstName, lastName, jobPosition, version);
+    }
 }
@@ -0,0 +1,7 @@
+package com.akrima.employeemanagement.model;
+
+import java.util.List;
+
+public record EmployeePage(List<Employee> items,
+        String nextCursor) {
+}
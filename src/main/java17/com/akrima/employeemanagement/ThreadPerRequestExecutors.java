@@ -0,0 +1,18 @@
+package com.akrima.employeemanagement;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Java 17 build: no virtual threads, so requests run on a cached pool of platform threads. The java21 profile
+ * compiles src/main/java21 instead.
+ */
+final class ThreadPerRequestExecutors {
+
+    private ThreadPerRequestExecutors() {
+    }
+
+    static ExecutorService create() {
+        return Executors.newCachedThreadPool();
+    }
+}
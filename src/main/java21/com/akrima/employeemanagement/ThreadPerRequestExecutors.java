@@ -0,0 +1,18 @@
+package com.akrima.employeemanagement;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Java 21 build (profile java21): every request runs on its own virtual thread, so a request waiting on DynamoDB
+ * holds no platform thread.
+ */
+final class ThreadPerRequestExecutors {
+
+    private ThreadPerRequestExecutors() {
+    }
+
+    static ExecutorService create() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
@@ -0,0 +1,191 @@
+package com.akrima.employeemanagement;
+
+import com.akrima.employeemanagement.model.Employee;
+import com.akrima.employeemanagement.model.EmployeePage;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class AdaptiveRateLimiterTest {
+
+    private static final long MILLI = 1_000_000L;
+
+    // Simulated time: sleeping and every DynamoDB call move it forward, so the test runs in milliseconds
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void keepsGoodputCloseToTheTableCapacityUnderThrottling() {
+        ThrottlingTable table = new ThrottlingTable(200, 20);
+        AdaptiveRateLimiter rateLimiter = new AdaptiveRateLimiter(1_000, 5, Duration.ofSeconds(1), 20, clock::get, clock::addAndGet);
+        EmployeeRepository repository = new RateLimitedEmployeeRepository(table, rateLimiter);
+
+        // A caller asking for 1000 writes per second (each call takes 1 ms) of a table provisioned for 200
+        long end = 30_000 * MILLI;
+        int requests = 0;
+        int written = 0;
+        int refused = 0;
+        while (clock.get() < end) {
+            requests++;
+            try {
+                repository.add(new Employee(Integer.toString(requests), "First", "Last", "Developer"));
+                written++;
+            } catch (ThrottledException e) {
+                refused++;
+                assertTrue(e.statusCode() == 429 || e.statusCode() == 503);
+                assertTrue(e.retryAfterSeconds() >= 1);
+            }
+        }
+
+        double goodput = written / 30.0;
+        assertTrue(goodput >= 0.75 * 200, "goodput " + goodput + " writes/s");
+        // Few calls are wasted on a throttled table, and few requests are turned away
+        assertTrue(table.throttled.get() <= 0.05 * table.calls.get(), table.throttled + " of " + table.calls + " calls throttled");
+        assertTrue(refused <= 0.05 * requests, refused + " of " + requests + " requests refused");
+        assertTrue(rateLimiter.rate() > 100 && rateLimiter.rate() < 300, "rate " + rateLimiter.rate());
+    }
+
+    @Test
+    void answersWith503AndRetryAfterOnceTheRetryBudgetIsSpent() {
+        ThrottlingTable table = new ThrottlingTable(0, 0);
+        AdaptiveRateLimiter rateLimiter = new AdaptiveRateLimiter(1_000, 5, Duration.ofSeconds(5), 3, clock::get, clock::addAndGet);
+        AddEmployeeLambda lambda = new AddEmployeeLambda(new RateLimitedEmployeeRepository(table, rateLimiter),
+                new EmployeeCache(Duration.ofSeconds(30), 100, System::nanoTime));
+
+        APIGatewayProxyResponseEvent response = lambda.handleRequest(new APIGatewayProxyRequestEvent()
+                .withBody("{\"id\":\"1\",\"firstName\":\"John\",\"lastName\":\"Doe\",\"jobPosition\":\"Developer\"}"), mock(Context.class));
+
+        assertEquals(503, response.getStatusCode());
+        assertTrue(Long.parseLong(response.getHeaders().get("Retry-After")) >= 1);
+        // The first attempt and the three retries the budget allows, no more
+        assertEquals(4, table.calls.get());
+    }
+
+    @Test
+    void turnsCallersAwayWith429WhenTheWaitWouldBeTooLong() {
+        AdaptiveRateLimiter rateLimiter = new AdaptiveRateLimiter(1, 1, Duration.ofMillis(100), 20, clock::get, clock::addAndGet);
+        AtomicInteger calls = new AtomicInteger();
+
+        ThrottledException e = assertThrows(ThrottledException.class, () -> rateLimiter.call(() -> {
+            if (calls.incrementAndGet() == 1) {
+                throw ProvisionedThroughputExceededException.builder().message("Throughput exceeds the provisioned capacity").build();
+            }
+            return true;
+        }));
+
+        // At one call per second, the retry would have waited for close to a second
+        assertEquals(429, e.statusCode());
+        assertEquals(1, e.retryAfterSeconds());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void staysOutOfTheWayUntilThrottled() {
+        AdaptiveRateLimiter rateLimiter = new AdaptiveRateLimiter(10, 1, Duration.ofMillis(1), 20, clock::get, clock::addAndGet);
+
+        for (int i = 0; i < 1_000; i++) {
+            rateLimiter.call(() -> true);
+        }
+        assertEquals(0, clock.get());
+        assertEquals(Double.POSITIVE_INFINITY, rateLimiter.rate());
+
+        IllegalStateException failure = new IllegalStateException("not throttling");
+        assertSame(failure, assertThrows(IllegalStateException.class, () -> rateLimiter.call(() -> {
+            throw failure;
+        })));
+        assertEquals(Double.POSITIVE_INFINITY, rateLimiter.rate());
+    }
+
+    @Test
+    void fullScansAreLimitedAndRetriedOnePageAtATime() {
+        AdaptiveRateLimiter rateLimiter = new AdaptiveRateLimiter(1_000, 5, Duration.ofSeconds(1), 20, clock::get, clock::addAndGet);
+        List<String> requests = new ArrayList<>();
+        Set<String> throttledOnce = new HashSet<>(Set.of("page-2"));
+        // Three pages of two employees; the second page is throttled on its first request
+        EmployeeRepository pagedTable = new InMemoryEmployeeRepository() {
+            @Override
+            public EmployeePage scanPage(String cursor, EmployeeFields fields, boolean consistentRead) {
+                assertTrue(AdaptiveRateLimiter.inLimitedCall());
+                int page = cursor == null ? 1 : Integer.parseInt(cursor.substring("page-".length()));
+                requests.add("page-" + page);
+                if (throttledOnce.remove("page-" + page)) {
+                    throw ProvisionedThroughputExceededException.builder().message("Throughput exceeds the provisioned capacity").build();
+                }
+                return new EmployeePage(List.of(new Employee(page + "a", "First", "Last", "Developer"), new Employee(page + "b", "First", "Last", "Developer")),
+                        page == 3 ? null : "page-" + (page + 1));
+            }
+        };
+        EmployeeRepository repository = new RateLimitedEmployeeRepository(pagedTable, rateLimiter);
+
+        assertEquals(List.of("1a", "1b", "2a", "2b", "3a", "3b"), repository.findAll().stream().map(Employee::id).toList());
+        // Only the throttled page was sent again
+        assertEquals(List.of("page-1", "page-2", "page-2", "page-3"), requests);
+
+        requests.clear();
+        Iterator<Employee> scan = repository.scan(EmployeeFields.ALL).iterator();
+        assertTrue(requests.isEmpty());
+        assertEquals("1a", scan.next().id());
+        assertEquals("1b", scan.next().id());
+        assertEquals(List.of("page-1"), requests);
+        List<String> rest = new ArrayList<>();
+        scan.forEachRemaining(employee -> rest.add(employee.id()));
+        assertEquals(List.of("2a", "2b", "3a", "3b"), rest);
+        assertEquals(List.of("page-1", "page-2", "page-3"), requests);
+        assertFalse(AdaptiveRateLimiter.inLimitedCall());
+    }
+
+    @Test
+    void marksTheCallsItLimitsForTheSdkRetryCondition() {
+        AdaptiveRateLimiter rateLimiter = new AdaptiveRateLimiter(1_000, 5, Duration.ofSeconds(1), 20, clock::get, clock::addAndGet);
+
+        assertFalse(AdaptiveRateLimiter.inLimitedCall());
+        assertTrue(rateLimiter.call(() -> rateLimiter.call(AdaptiveRateLimiter::inLimitedCall) && AdaptiveRateLimiter.inLimitedCall()));
+        assertThrows(IllegalStateException.class, () -> rateLimiter.call(() -> {
+            throw new IllegalStateException("not throttling");
+        }));
+        assertFalse(AdaptiveRateLimiter.inLimitedCall());
+    }
+
+    /**
+     * An employee table that accepts {@code capacity} writes per second, with a burst of {@code burst}, and throttles
+     * the rest like DynamoDB. Each call takes 1 ms of simulated time.
+     */
+    private final class ThrottlingTable extends InMemoryEmployeeRepository {
+
+        private final double capacity;
+        private final double burst;
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger throttled = new AtomicInteger();
+        private double tokens;
+        private long lastRefill;
+
+        ThrottlingTable(double capacity, double burst) {
+            this.capacity = capacity;
+            this.burst = burst;
+            this.tokens = burst;
+        }
+
+        @Override
+        public boolean add(Employee employee) {
+            calls.incrementAndGet();
+            long now = clock.addAndGet(MILLI);
+            tokens = Math.min(burst, tokens + (now - lastRefill) / 1e9 * capacity);
+            lastRefill = now;
+            if (tokens < 1) {
+                throttled.incrementAndGet();
+                throw ProvisionedThroughputExceededException.builder().message("Throughput exceeds the provisioned capacity").build();
+            }
+            tokens -= 1;
+            return super.add(employee);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.akrima.employeemanagement;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AddEmployeesLambdaTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final DynamoDbClient dynamoDbClient = mock(DynamoDbClient.class);
+    private final Context context = mock(Context.class);
+    private final Map<String, Map<String, AttributeValue>> writtenItems = Collections.synchronizedMap(new HashMap<>());
+    // Ids left unprocessed by the first call that carries them
+    private final Set<String> unprocessedOnce = Collections.synchronizedSet(new HashSet<>());
+    private final AddEmployeesLambda lambda = new AddEmployeesLambda(dynamoDbClient,
+            new EmployeeCache(Duration.ofSeconds(30), 100, System::nanoTime));
+
+    @BeforeEach
+    void stubBatchCalls() {
+        when(context.getLogger()).thenReturn(mock(LambdaLogger.class));
+        when(dynamoDbClient.batchGetItem(any(BatchGetItemRequest.class))).thenAnswer(invocation -> {
+            List<Map<String, AttributeValue>> found = new ArrayList<>();
+            for (Map<String, AttributeValue> key : invocation.getArgument(0, BatchGetItemRequest.class).requestItems().get("Employee").keys()) {
+                if (writtenItems.containsKey(key.get("id").s())) {
+                    found.add(Map.of("id", key.get("id")));
+                }
+            }
+            return BatchGetItemResponse.builder().responses(Map.of("Employee", found)).build();
+        });
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class))).thenAnswer(invocation -> {
+            List<WriteRequest> writeRequests = invocation.getArgument(0, BatchWriteItemRequest.class).requestItems().get("Employee");
+            // As DynamoDB: an attribute without a value fails the whole call
+            if (writeRequests.stream().flatMap(writeRequest -> writeRequest.putRequest().item().values().stream())
+                    .anyMatch(value -> value.s() == null && value.n() == null)) {
+                throw DynamoDbException.builder().message("Supplied AttributeValue is empty").statusCode(400).build();
+            }
+            List<WriteRequest> unprocessed = new ArrayList<>();
+            for (WriteRequest writeRequest : writeRequests) {
+                Map<String, AttributeValue> item = writeRequest.putRequest().item();
+                if (unprocessedOnce.remove(item.get("id").s())) {
+                    unprocessed.add(writeRequest);
+                } else {
+                    writtenItems.put(item.get("id").s(), item);
+                }
+            }
+            return BatchWriteItemResponse.builder()
+                    .unprocessedItems(unprocessed.isEmpty() ? Map.of() : Map.of("Employee", unprocessed))
+                    .build();
+        });
+    }
+
+    @Test
+    void retriesUnprocessedItems() throws IOException {
+        unprocessedOnce.addAll(List.of("3", "27"));
+
+        APIGatewayProxyResponseEvent response = lambda.handleRequest(request(employees(30)), context);
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(30, objectMapper.readTree(response.getBody()).get("written").asInt());
+        assertEquals(30, writtenItems.size());
+        // Two chunks, each retried once with only its unprocessed item
+        ArgumentCaptor<BatchWriteItemRequest> requests = ArgumentCaptor.forClass(BatchWriteItemRequest.class);
+        verify(dynamoDbClient, times(4)).batchWriteItem(requests.capture());
+        Set<String> retried = new HashSet<>();
+        for (BatchWriteItemRequest batchWriteItemRequest : requests.getAllValues()) {
+            List<WriteRequest> writeRequests = batchWriteItemRequest.requestItems().get("Employee");
+            if (writeRequests.size() == 1) {
+                retried.add(writeRequests.get(0).putRequest().item().get("id").s());
+            }
+        }
+        assertEquals(Set.of("3", "27"), retried);
+    }
+
+    @Test
+    void incompleteEmployeesAreInvalidWithoutFailingTheirChunk() throws IOException {
+        List<String> employees = new ArrayList<>(employees(24));
+        employees.add(5, "{\"id\":\"no-position\",\"firstName\":\"First\",\"lastName\":\"Last\"}");
+        employees.add(10, "{\"id\":\"empty-position\",\"firstName\":\"First\",\"lastName\":\"Last\",\"jobPosition\":\"\"}");
+        employees.add(15, "{\"id\":\"no-last-name\",\"firstName\":\"First\",\"jobPosition\":\"Developer\"}");
+
+        APIGatewayProxyResponseEvent response = lambda.handleRequest(request(employees), context);
+
+        assertEquals(207, response.getStatusCode());
+        JsonNode body = objectMapper.readTree(response.getBody());
+        assertEquals(24, body.get("written").asInt());
+        Map<String, String> statuses = new HashMap<>();
+        body.get("results").forEach(result -> statuses.put(result.get("id").asText(), result.get("status").asText()));
+        assertEquals("invalid", statuses.get("no-position"));
+        assertEquals("invalid", statuses.get("empty-position"));
+        assertEquals("invalid", statuses.get("no-last-name"));
+        assertEquals(24, writtenItems.size());
+        verify(dynamoDbClient, times(1)).batchWriteItem(any(BatchWriteItemRequest.class));
+    }
+
+    @Test
+    void existingEmployeesAreDuplicatesAndNotOverwritten() throws IOException {
+        Map<String, AttributeValue> existing = Map.of("id", AttributeValue.builder().s("7").build(),
+                "firstName", AttributeValue.builder().s("Existing").build());
+        writtenItems.put("7", existing);
+
+        APIGatewayProxyResponseEvent response = lambda.handleRequest(request(employees(10)), context);
+
+        assertEquals(207, response.getStatusCode());
+        JsonNode body = objectMapper.readTree(response.getBody());
+        assertEquals(9, body.get("written").asInt());
+        assertEquals("duplicate", body.get("results").get(7).get("status").asText());
+        assertSame(existing, writtenItems.get("7"));
+        ArgumentCaptor<BatchWriteItemRequest> requests = ArgumentCaptor.forClass(BatchWriteItemRequest.class);
+        verify(dynamoDbClient).batchWriteItem(requests.capture());
+        assertEquals(9, requests.getValue().requestItems().get("Employee").size());
+    }
+
+    private static List<String> employees(int count) {
+        List<String> employees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            employees.add("{\"id\":\"" + i + "\",\"firstName\":\"First\",\"lastName\":\"Last\",\"jobPosition\":\"Developer\"}");
+        }
+        return employees;
+    }
+
+    private static APIGatewayProxyRequestEvent request(List<String> employees) {
+        return new APIGatewayProxyRequestEvent().withBody("[" + String.join(",", employees) + "]");
+    }
+}
@@ -0,0 +1,100 @@
+package com.akrima.employeemanagement;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentEncodingTest {
+
+    private static final String LARGE_BODY = "[" + "{\"id\":\"1\",\"firstName\":\"John\",\"lastName\":\"Doe\",\"jobPosition\":\"Developer\"},".repeat(200) + "{}]";
+
+    @Test
+    void negotiatesGzipOrDeflate() {
+        assertEquals("gzip", ContentEncoding.negotiate("gzip, deflate, br"));
+        assertEquals("deflate", ContentEncoding.negotiate("br, deflate"));
+        assertEquals("deflate", ContentEncoding.negotiate("gzip;q=0.5, deflate"));
+        assertEquals("gzip", ContentEncoding.negotiate("*"));
+        assertEquals("deflate", ContentEncoding.negotiate("gzip;q=0, *"));
+        assertNull(ContentEncoding.negotiate("gzip;q=0"));
+        assertNull(ContentEncoding.negotiate("br, identity"));
+        assertNull(ContentEncoding.negotiate(null));
+    }
+
+    @Test
+    void compressesLargeBodiesWithGzip() throws IOException {
+        APIGatewayProxyResponseEvent response = ContentEncoding.compress(request("GZIP;q=1.0"), ok(LARGE_BODY));
+
+        assertTrue(response.getIsBase64Encoded());
+        assertEquals("gzip", response.getHeaders().get("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeaders().get("Vary"));
+        assertTrue(response.getBody().length() < LARGE_BODY.length() / 4);
+        assertEquals(LARGE_BODY, decompress(new GZIPInputStream(decoded(response))));
+    }
+
+    @Test
+    void compressesLargeBodiesWithDeflate() throws IOException {
+        APIGatewayProxyResponseEvent response = ContentEncoding.compress(request("deflate"), ok(LARGE_BODY));
+
+        assertEquals("deflate", response.getHeaders().get("Content-Encoding"));
+        assertEquals(LARGE_BODY, decompress(new InflaterInputStream(decoded(response))));
+    }
+
+    @Test
+    void reusesTheThreadBufferAcrossResponses() throws IOException {
+        String larger = LARGE_BODY.repeat(50);
+        ContentEncoding.compress(request("gzip"), ok(larger));
+        APIGatewayProxyResponseEvent response = ContentEncoding.compress(request("gzip"), ok(LARGE_BODY));
+
+        assertEquals(LARGE_BODY, decompress(new GZIPInputStream(decoded(response))));
+    }
+
+    @Test
+    void leavesSmallBodiesAndClientsWithoutCompressionAlone() {
+        APIGatewayProxyResponseEvent small = ContentEncoding.compress(request("gzip"), ok("{\"id\":\"1\"}"));
+        assertNull(small.getIsBase64Encoded());
+        assertEquals("{\"id\":\"1\"}", small.getBody());
+
+        APIGatewayProxyResponseEvent identity = ContentEncoding.compress(new APIGatewayProxyRequestEvent(), ok(LARGE_BODY));
+        assertEquals(LARGE_BODY, identity.getBody());
+        assertNull(identity.getHeaders());
+    }
+
+    @Test
+    void decodesBase64RequestBodies() {
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent()
+                .withBody(Base64.getEncoder().encodeToString("{\"id\":\"é\"}".getBytes(StandardCharsets.UTF_8)))
+                .withIsBase64Encoded(true);
+
+        assertEquals("{\"id\":\"é\"}", ContentEncoding.requestBody(request));
+        assertEquals("plain", ContentEncoding.requestBody(new APIGatewayProxyRequestEvent().withBody("plain")));
+    }
+
+    private static APIGatewayProxyRequestEvent request(String acceptEncoding) {
+        return new APIGatewayProxyRequestEvent().withHeaders(Map.of("accept-encoding", acceptEncoding));
+    }
+
+    private static APIGatewayProxyResponseEvent ok(String body) {
+        return new APIGatewayProxyResponseEvent().withStatusCode(200).withBody(body);
+    }
+
+    private static InputStream decoded(APIGatewayProxyResponseEvent response) {
+        return new ByteArrayInputStream(Base64.getDecoder().decode(response.getBody()));
+    }
+
+    private static String decompress(InputStream in) throws IOException {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
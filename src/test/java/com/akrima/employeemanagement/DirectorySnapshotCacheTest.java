@@ -0,0 +1,103 @@
+package com.akrima.employeemanagement;
+
+import com.akrima.employeemanagement.model.Employee;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DirectorySnapshotCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger scans = new AtomicInteger();
+    private final Context context = mock(Context.class);
+    // Counts the consistent scans: a snapshot must hold every write its version counts
+    private final InMemoryEmployeeRepository repository = new InMemoryEmployeeRepository() {
+        @Override
+        public List<Employee> findAll(EmployeeFields fields, boolean consistentRead) {
+            if (consistentRead) {
+                scans.incrementAndGet();
+            }
+            return super.findAll(fields, consistentRead);
+        }
+    };
+    private final DirectorySnapshotCache cache = new DirectorySnapshotCache(Duration.ofSeconds(300), clock::get);
+    private final RetrieveAllEmployeesLambda lambda = new RetrieveAllEmployeesLambda(repository, cache);
+
+    @BeforeEach
+    void addEmployees() {
+        when(context.getLogger()).thenReturn(mock(LambdaLogger.class));
+        for (int i = 0; i < 50; i++) {
+            repository.add(new Employee(Integer.toString(i), "First" + i, "Last" + i, "Developer"));
+        }
+    }
+
+    @Test
+    void hotReadsServeTheSnapshotUntilAWrite() throws IOException {
+        APIGatewayProxyResponseEvent first = lambda.handleRequest(request(Map.of()), context);
+        APIGatewayProxyResponseEvent second = lambda.handleRequest(request(Map.of()), context);
+
+        assertEquals(200, second.getStatusCode());
+        assertEquals(EmployeeJsonCodec.writeEmployees(repository.findAll()), second.getBody());
+        // The body is kept, not serialised again
+        assertSame(first.getBody(), second.getBody());
+        assertEquals(first.getHeaders().get("ETag"), second.getHeaders().get("ETag"));
+        APIGatewayProxyResponseEvent gzipped = lambda.handleRequest(request(Map.of("Accept-Encoding", "gzip")), context);
+        assertEquals("gzip", gzipped.getHeaders().get("Content-Encoding"));
+        assertEquals(second.getBody(), gunzip(gzipped.getBody()));
+        assertEquals(304, lambda.handleRequest(request(Map.of("If-None-Match", second.getHeaders().get("ETag"))), context).getStatusCode());
+        assertEquals(1, scans.get());
+
+        repository.update(new Employee("7", "Seven", "Last7", "Manager"));
+        APIGatewayProxyResponseEvent afterWrite = lambda.handleRequest(request(Map.of()), context);
+        assertTrue(afterWrite.getBody().contains("\"Manager\""));
+        assertNotEquals(second.getHeaders().get("ETag"), afterWrite.getHeaders().get("ETag"));
+        assertEquals(200, lambda.handleRequest(request(Map.of("If-None-Match", second.getHeaders().get("ETag"))), context).getStatusCode());
+        assertEquals(2, scans.get());
+        assertEquals(new DirectorySnapshotCache.Stats(4, 2, 1), cache.stats());
+    }
+
+    @Test
+    void rebuildsAfterTheMaximumAgeAndPerFieldset() throws IOException {
+        cache.get(repository, EmployeeFields.ALL);
+        clock.addAndGet(Duration.ofSeconds(299).toNanos());
+        cache.get(repository, EmployeeFields.ALL);
+        assertEquals(1, scans.get());
+
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        cache.get(repository, EmployeeFields.ALL);
+        assertEquals(2, scans.get());
+
+        DirectorySnapshotCache.Snapshot lastNames = cache.get(repository, EmployeeFields.parse("lastName"));
+        assertFalse(lastNames.body().contains("firstName"));
+        assertEquals(50, lastNames.size());
+        assertEquals(3, scans.get());
+    }
+
+    private static APIGatewayProxyRequestEvent request(Map<String, String> headers) {
+        return new APIGatewayProxyRequestEvent().withHeaders(headers);
+    }
+
+    private static String gunzip(String base64) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(base64)))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.akrima.employeemanagement;
+
+import com.akrima.employeemanagement.model.Employee;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class DynamoDbEmployeeRepositoryTest {
+
+    private final DynamoDbClient dynamoDbClient = mock(DynamoDbClient.class);
+    private final DynamoDbEmployeeRepository repository = new DynamoDbEmployeeRepository(dynamoDbClient);
+
+    @Test
+    void sparseFieldsetBecomesAProjectionExpression() {
+        when(dynamoDbClient.getItem(any(GetItemRequest.class))).thenReturn(GetItemResponse.builder()
+                .item(Map.of("id", s("1"), "version", AttributeValue.builder().n("7").build(), "lastName", s("Doe")))
+                .build());
+
+        Employee employee = repository.findById("1", EmployeeFields.parse("lastName"));
+
+        ArgumentCaptor<GetItemRequest> request = ArgumentCaptor.forClass(GetItemRequest.class);
+        verify(dynamoDbClient).getItem(request.capture());
+        // The version is always read, for the ETag
+        assertEquals("#id, #version, #lastName", request.getValue().projectionExpression());
+        assertEquals(Map.of("#id", "id", "#version", "version", "#lastName", "lastName"), request.getValue().expressionAttributeNames());
+        assertEquals(new Employee("1", null, "Doe", null, 7L), employee);
+    }
+
+    @Test
+    void scanPagesAreSingleScanRequestsWithoutLimit() {
+        Map<String, AttributeValue> lastKey = Map.of("id", s("1"));
+        when(dynamoDbClient.scan(any(ScanRequest.class)))
+                .thenReturn(ScanResponse.builder()
+                        .items(List.of(EmployeeItemMapper.toItem(new Employee("1", "John", "Doe", "Developer"))))
+                        .lastEvaluatedKey(lastKey)
+                        .build())
+                .thenReturn(ScanResponse.builder().items(List.of()).build());
+
+        String cursor = repository.scanPage(null, EmployeeFields.ALL, true).nextCursor();
+        assertNull(repository.scanPage(cursor, EmployeeFields.ALL, true).nextCursor());
+
+        ArgumentCaptor<ScanRequest> requests = ArgumentCaptor.forClass(ScanRequest.class);
+        verify(dynamoDbClient, times(2)).scan(requests.capture());
+        for (ScanRequest request : requests.getAllValues()) {
+            assertNull(request.limit());
+            assertTrue(request.consistentRead());
+        }
+        assertEquals(lastKey, requests.getAllValues().get(1).exclusiveStartKey());
+    }
+
+    @Test
+    void wholeEmployeesAreReadWithoutProjection() {
+        when(dynamoDbClient.scan(any(ScanRequest.class))).thenReturn(ScanResponse.builder()
+                .items(List.of(EmployeeItemMapper.toItem(new Employee("1", "John", "Doe", "Developer"))))
+                .build());
+
+        repository.findPage(10, null);
+
+        ArgumentCaptor<ScanRequest> request = ArgumentCaptor.forClass(ScanRequest.class);
+        verify(dynamoDbClient).scan(request.capture());
+        assertNull(request.getValue().projectionExpression());
+        assertFalse(request.getValue().hasExpressionAttributeNames());
+    }
+
+    @Test
+    void jobPositionIsQueriedOnTheIndex() {
+        Map<String, AttributeValue> lastEvaluatedKey = Map.of("id", s("2"), "jobPosition", s("Developer"));
+        when(dynamoDbClient.query(any(QueryRequest.class))).thenReturn(QueryResponse.builder()
+                .items(List.of(Map.of("id", s("2"), "lastName", s("Smith"))))
+                .lastEvaluatedKey(lastEvaluatedKey)
+                .build());
+
+        var page = repository.findByJobPosition("Developer", 1, null, EmployeeFields.parse("lastName"));
+
+        ArgumentCaptor<QueryRequest> request = ArgumentCaptor.forClass(QueryRequest.class);
+        verify(dynamoDbClient).query(request.capture());
+        assertEquals(DynamoDbEmployeeRepository.JOB_POSITION_INDEX_NAME, request.getValue().indexName());
+        assertEquals("#jobPosition = :jobPosition", request.getValue().keyConditionExpression());
+        assertEquals(Map.of(":jobPosition", s("Developer")), request.getValue().expressionAttributeValues());
+        assertEquals("#id, #version, #lastName", request.getValue().projectionExpression());
+        assertEquals(Map.of("#id", "id", "#version", "version", "#lastName", "lastName", "#jobPosition", "jobPosition"), request.getValue().expressionAttributeNames());
+        assertEquals(1, request.getValue().limit());
+        assertEquals(List.of(new Employee("2", null, "Smith", null)), page.items());
+        assertEquals(lastEvaluatedKey, PageCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    void lastNamePrefixIsNormalisedAndQueriedWithBeginsWith() {
+        when(dynamoDbClient.query(any(QueryRequest.class))).thenReturn(QueryResponse.builder().items(List.of()).build());
+
+        repository.findByLastNamePrefix(" MÜl", 20, null, EmployeeFields.ALL);
+
+        ArgumentCaptor<QueryRequest> request = ArgumentCaptor.forClass(QueryRequest.class);
+        verify(dynamoDbClient).query(request.capture());
+        assertEquals(DynamoDbEmployeeRepository.LAST_NAME_INDEX_NAME, request.getValue().indexName());
+        assertEquals("#lastNameInitial = :lastNameInitial AND begins_with(#lastNameKey, :lastNameKeyPrefix)",
+                request.getValue().keyConditionExpression());
+        assertEquals(Map.of(":lastNameInitial", s("m"), ":lastNameKeyPrefix", s("mul")), request.getValue().expressionAttributeValues());
+        assertNull(request.getValue().projectionExpression());
+        assertThrows(IllegalArgumentException.class, () -> repository.findByLastNamePrefix("  ", 20, null, EmployeeFields.ALL));
+    }
+
+    @Test
+    void writesKeepTheLastNameIndexAttributesInStep() {
+        Map<String, AttributeValue> item = EmployeeItemMapper.toItem(new Employee("1", "Jürgen", "Müller", "Developer"));
+        assertEquals(s("Müller"), item.get("lastName"));
+        assertEquals(s("muller"), item.get(EmployeeItemMapper.LAST_NAME_KEY));
+        assertEquals(s("m"), item.get(EmployeeItemMapper.LAST_NAME_INITIAL));
+        assertFalse(EmployeeItemMapper.toItem(new Employee("2", "Cher", "", "Singer")).containsKey(EmployeeItemMapper.LAST_NAME_KEY));
+
+        when(dynamoDbClient.updateItem(any(UpdateItemRequest.class))).thenReturn(UpdateItemResponse.builder().build());
+        repository.update(new Employee("1", "Jürgen", "Ørsted", "Developer"));
+        repository.update(new Employee("2", "Cher", "", "Singer"));
+
+        List<UpdateItemRequest> updates = employeeUpdates();
+        assertEquals(2, updates.size());
+        UpdateItemRequest renamed = updates.get(0);
+        assertTrue(renamed.updateExpression().endsWith(", lastNameKey = :lastNameKey, lastNameInitial = :lastNameInitial"));
+        assertEquals(s("ørsted"), renamed.expressionAttributeValues().get(":lastNameKey"));
+        assertEquals(s("ø"), renamed.expressionAttributeValues().get(":lastNameInitial"));
+        assertTrue(updates.get(1).updateExpression().endsWith(" REMOVE lastNameKey, lastNameInitial"));
+    }
+
+    @Test
+    void everyWriteSetsANewVersion() {
+        when(dynamoDbClient.putItem(any(PutItemRequest.class))).thenReturn(PutItemResponse.builder().build());
+        when(dynamoDbClient.updateItem(any(UpdateItemRequest.class))).thenReturn(UpdateItemResponse.builder().build());
+
+        repository.add(new Employee("1", "John", "Doe", "Developer"));
+        repository.update(new Employee("1", "John", "Doe", "Lead Developer"));
+
+        ArgumentCaptor<PutItemRequest> put = ArgumentCaptor.forClass(PutItemRequest.class);
+        verify(dynamoDbClient).putItem(put.capture());
+        assertTrue(Long.parseLong(put.getValue().item().get(EmployeeItemMapper.VERSION).n()) > 0);
+        UpdateItemRequest update = employeeUpdates().get(0);
+        assertTrue(update.updateExpression().contains("#version = if_not_exists(#version, :initialVersion) + :one"));
+        assertEquals(Map.of("#version", "version"), update.expressionAttributeNames());
+    }
+
+    @Test
+    void successfulWritesBumpTheDirectoryVersionAfterwards() {
+        DynamoDbEmployeeRepository repository = new DynamoDbEmployeeRepository(dynamoDbClient, () -> DirectoryVersion.bump(dynamoDbClient));
+        when(dynamoDbClient.putItem(any(PutItemRequest.class)))
+                .thenReturn(PutItemResponse.builder().build())
+                .thenThrow(ConditionalCheckFailedException.builder().message("exists").build());
+        when(dynamoDbClient.updateItem(any(UpdateItemRequest.class))).thenReturn(UpdateItemResponse.builder().build());
+        when(dynamoDbClient.deleteItem(any(DeleteItemRequest.class))).thenReturn(DeleteItemResponse.builder().build());
+
+        assertTrue(repository.add(new Employee("1", "John", "Doe", "Developer")));
+        assertFalse(repository.add(new Employee("1", "John", "Doe", "Developer")));
+        assertTrue(repository.update(new Employee("1", "John", "Doe", "Lead Developer")));
+        assertTrue(repository.delete("1"));
+
+        // Each bump follows the write it counts; the rejected add bumped nothing
+        List<String> calls = mockingDetails(dynamoDbClient).getInvocations().stream()
+                .map(invocation -> invocation.getMethod().getName() + " " + tableName(invocation.getArgument(0)))
+                .toList();
+        assertEquals(List.of(
+                "putItem Employee", "updateItem EmployeeDirectoryVersion",
+                "putItem Employee",
+                "updateItem Employee", "updateItem EmployeeDirectoryVersion",
+                "deleteItem Employee", "updateItem EmployeeDirectoryVersion"), calls);
+        ArgumentCaptor<UpdateItemRequest> updates = ArgumentCaptor.forClass(UpdateItemRequest.class);
+        verify(dynamoDbClient, times(4)).updateItem(updates.capture());
+        assertEquals("ADD #version :one", updates.getValue().updateExpression());
+    }
+
+    @Test
+    void writesDoNotBumpTheDirectoryVersionWithoutTheSnapshotCache() {
+        when(dynamoDbClient.putItem(any(PutItemRequest.class))).thenReturn(PutItemResponse.builder().build());
+        when(dynamoDbClient.deleteItem(any(DeleteItemRequest.class))).thenReturn(DeleteItemResponse.builder().build());
+
+        // EMPLOYEE_SNAPSHOT_CACHE is not set
+        assertTrue(repository.add(new Employee("1", "John", "Doe", "Developer")));
+        assertTrue(repository.delete("1"));
+
+        verify(dynamoDbClient, never()).updateItem(any(UpdateItemRequest.class));
+    }
+
+    @Test
+    void directoryVersionIsAConsistentReadOfOneItem() {
+        when(dynamoDbClient.getItem(any(GetItemRequest.class)))
+                .thenReturn(GetItemResponse.builder().build())
+                .thenReturn(GetItemResponse.builder().item(Map.of("version", AttributeValue.builder().n("42").build())).build());
+
+        assertEquals(0, repository.directoryVersion());
+        assertEquals(42, repository.directoryVersion());
+
+        ArgumentCaptor<GetItemRequest> request = ArgumentCaptor.forClass(GetItemRequest.class);
+        verify(dynamoDbClient, times(2)).getItem(request.capture());
+        assertEquals(DirectoryVersion.TABLE_NAME, request.getValue().tableName());
+        assertTrue(request.getValue().consistentRead());
+    }
+
+    private static String tableName(Object request) {
+        if (request instanceof PutItemRequest put) {
+            return put.tableName();
+        }
+        if (request instanceof UpdateItemRequest update) {
+            return update.tableName();
+        }
+        return ((DeleteItemRequest) request).tableName();
+    }
+
+    private List<UpdateItemRequest> employeeUpdates() {
+        ArgumentCaptor<UpdateItemRequest> request = ArgumentCaptor.forClass(UpdateItemRequest.class);
+        verify(dynamoDbClient, atLeastOnce()).updateItem(request.capture());
+        return request.getAllValues().stream().filter(update -> update.tableName().equals("Employee")).toList();
+    }
+
+    private static AttributeValue s(String value) {
+        return AttributeValue.builder().s(value).build();
+    }
+}
@@ -0,0 +1,74 @@
+package com.akrima.employeemanagement;
+
+import com.akrima.employeemanagement.model.Employee;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+class EmployeeApiRouterTest {
+
+    private static final String JOHN = "{\"id\":\"1\",\"firstName\":\"John\",\"lastName\":\"Doe\",\"jobPosition\":\"Developer\"}";
+
+    private final InMemoryEmployeeRepository repository = new InMemoryEmployeeRepository();
+    private final EmployeeApiRouter router = new EmployeeApiRouter(repository, mock(DynamoDbClient.class),
+            new EmployeeCache(Duration.ofSeconds(30), 100, System::nanoTime));
+    private final Context context = mock(Context.class);
+
+    @Test
+    void dispatchesOnTheResourceTemplate() {
+        APIGatewayProxyResponseEvent added = router.handleRequest(request("POST", "/addEmployee", "/addEmployee").withBody(JOHN), context);
+        assertEquals(201, added.getStatusCode());
+
+        APIGatewayProxyResponseEvent retrieved = router.handleRequest(request("GET", "/retrieveEmployee/{id}", "/retrieveEmployee/1")
+                .withPathParameters(Map.of("id", "1")), context);
+        assertEquals(200, retrieved.getStatusCode());
+        assertEquals(JOHN, retrieved.getBody());
+    }
+
+    @Test
+    void extractsPathParametersBehindAProxyResource() {
+        repository.add(new Employee("42", "Jane", "Doe", "Manager"));
+
+        APIGatewayProxyResponseEvent deleted = router.handleRequest(request("DELETE", "/{proxy+}", "/deleteEmployee/42/")
+                .withPathParameters(Map.of("proxy", "deleteEmployee/42")), context);
+
+        assertEquals(202, deleted.getStatusCode());
+        assertEquals(0, repository.size());
+    }
+
+    @Test
+    void acceptsOnlyPostForUpdates() {
+        repository.add(new Employee("1", "John", "Doe", "Intern"));
+
+        assertEquals(200, router.handleRequest(request("POST", "/updateEmployee", "/updateEmployee").withBody(JOHN), context).getStatusCode());
+        assertEquals(200, router.handleRequest(request("post", "/{proxy+}", "/updateEmployee").withBody(JOHN), context).getStatusCode());
+        // As the deployed API, which declares POST only
+        APIGatewayProxyResponseEvent put = router.handleRequest(request("PUT", "/{proxy+}", "/updateEmployee").withBody(JOHN), context);
+        assertEquals(405, put.getStatusCode());
+        assertEquals("POST", put.getHeaders().get("Allow"));
+    }
+
+    @Test
+    void rejectsUnknownRoutesAndMethods() {
+        APIGatewayProxyResponseEvent wrongMethod = router.handleRequest(request("GET", "/{proxy+}", "/deleteEmployee/1"), context);
+        assertEquals(405, wrongMethod.getStatusCode());
+        assertEquals("DELETE", wrongMethod.getHeaders().get("Allow"));
+
+        assertEquals(404, router.handleRequest(request("GET", "/{proxy+}", "/departments"), context).getStatusCode());
+        // Routed to QueryEmployeesLambda, which requires a jobPosition
+        assertEquals(400, router.handleRequest(request("GET", "/employees", "/employees"), context).getStatusCode());
+        assertEquals(400, router.handleRequest(new APIGatewayProxyRequestEvent(), context).getStatusCode());
+    }
+
+    private static APIGatewayProxyRequestEvent request(String method, String resource, String path) {
+        return new APIGatewayProxyRequestEvent().withHttpMethod(method).withResource(resource).withPath(path);
+    }
+}
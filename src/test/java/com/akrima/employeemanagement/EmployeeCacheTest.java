@@ -0,0 +1,92 @@
+package com.akrima.employeemanagement;
+
+import com.akrima.employeemanagement.model.Employee;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class EmployeeCacheTest {
+
+    private static final Employee JOHN = new Employee("1", "John", "Doe", "Developer");
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void coldMissLoadsOnceThenHits() {
+        EmployeeCache cache = new EmployeeCache(Duration.ofSeconds(30), 10, clock::get);
+
+        assertEquals(JOHN, cache.get("1", this::load));
+        assertEquals(JOHN, cache.get("1", this::load));
+
+        assertEquals(1, loads.get());
+        assertEquals(new EmployeeCache.Stats(1, 1, 0, 1), cache.stats());
+    }
+
+    @Test
+    void cachesMissingEmployeesUntilInvalidated() {
+        EmployeeCache cache = new EmployeeCache(Duration.ofSeconds(30), 10, clock::get);
+
+        assertNull(cache.get("404", this::load));
+        assertNull(cache.get("404", this::load));
+        assertEquals(1, loads.get());
+
+        cache.invalidate("404");
+        assertNull(cache.get("404", this::load));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void expiresEntriesAfterTheTtl() {
+        EmployeeCache cache = new EmployeeCache(Duration.ofSeconds(30), 10, clock::get);
+        cache.get("1", this::load);
+
+        clock.addAndGet(Duration.ofSeconds(29).toNanos());
+        cache.get("1", this::load);
+        assertEquals(1, loads.get());
+
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        cache.get("1", this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntry() {
+        EmployeeCache cache = new EmployeeCache(Duration.ofSeconds(30), 2, clock::get);
+        cache.get("1", this::load);
+        cache.get("2", this::load);
+        cache.get("1", this::load);
+        cache.get("3", this::load);
+
+        assertEquals(new EmployeeCache.Stats(1, 3, 1, 2), cache.stats());
+        // "1" was used most recently and survived, "2" was evicted
+        cache.get("1", this::load);
+        assertEquals(3, loads.get());
+        cache.get("2", this::load);
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void doesNotCacheAValueLoadedBeforeAnInvalidation() {
+        EmployeeCache cache = new EmployeeCache(Duration.ofSeconds(30), 10, clock::get);
+
+        // An update served by this environment lands while the read is in flight
+        cache.get("1", id -> {
+            cache.invalidate(id);
+            return load(id);
+        });
+        cache.get("1", this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    private Employee load(String id) {
+        loads.incrementAndGet();
+        return "404".equals(id) ? null : new Employee(id, "John", "Doe", "Developer");
+    }
+}
@@ -0,0 +1,33 @@
+package com.akrima.employeemanagement;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeFieldsTest {
+
+    @Test
+    void parsesACommaSeparatedList() {
+        EmployeeFields fields = EmployeeFields.parse("lastName, id");
+
+        assertEquals(List.of("id", "lastName"), fields.names());
+        assertTrue(fields.includes("id"));
+        assertFalse(fields.includes("firstName"));
+        assertFalse(fields.isAll());
+    }
+
+    @Test
+    void everyFieldOrNoParameterMeansAll() {
+        assertSame(EmployeeFields.ALL, EmployeeFields.parse(null));
+        assertTrue(EmployeeFields.parse("jobPosition,lastName,firstName,id").isAll());
+    }
+
+    @Test
+    void rejectsUnknownAndEmptyFields() {
+        assertThrows(IllegalArgumentException.class, () -> EmployeeFields.parse("salary"));
+        assertThrows(IllegalArgumentException.class, () -> EmployeeFields.parse(""));
+        assertThrows(IllegalArgumentException.class, () -> EmployeeFields.parse("id,,lastName"));
+    }
+}
@@ -0,0 +1,128 @@
+package com.akrima.employeemanagement;
+
+import com.akrima.employeemanagement.model.EmployeePage;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+/**
+ * Drives the five handlers from several threads against {@link InMemoryEmployeeRepository} and checks the table
+ * is consistent afterwards. The default build runs a short smoke of {@value #SMOKE_OPERATIONS} operations; soak runs
+ * are opt-in with {@code -Dloadtest.operations=1000000} or {@code 10000000}, and report their throughput.
+ */
+class EmployeeHandlersLoadTest {
+
+    private static final int SMOKE_OPERATIONS = 20_000;
+    private static final Integer SOAK_OPERATIONS = Integer.getInteger("loadtest.operations");
+    private static final int OPERATIONS = SOAK_OPERATIONS == null ? SMOKE_OPERATIONS : SOAK_OPERATIONS;
+    private static final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+    private static final int ID_SPACE = 10_000;
+
+    private final InMemoryEmployeeRepository repository = new InMemoryEmployeeRepository();
+    private final EmployeeCache employeeCache = new EmployeeCache(Duration.ofSeconds(30), 1_000, System::nanoTime);
+    private final AddEmployeeLambda addEmployeeLambda = new AddEmployeeLambda(repository, employeeCache);
+    private final UpdateEmployeeLambda updateEmployeeLambda = new UpdateEmployeeLambda(repository, employeeCache);
+    private final DeleteEmployeeLambda deleteEmployeeLambda = new DeleteEmployeeLambda(repository, employeeCache);
+    private final RetrieveEmployeeLambda retrieveEmployeeLambda = new RetrieveEmployeeLambda(repository, employeeCache);
+    private final RetrieveAllEmployeesLambda retrieveAllEmployeesLambda = new RetrieveAllEmployeesLambda(repository);
+
+    private final LambdaLogger lambdaLogger = mock(LambdaLogger.class);
+    private final Context context = mock(Context.class);
+
+    private final AtomicLong added = new AtomicLong();
+    private final AtomicLong deleted = new AtomicLong();
+
+    @Test
+    void handlersKeepTheTableConsistentUnderConcurrentLoad() throws Exception {
+        when(context.getLogger()).thenReturn(lambdaLogger);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        try {
+            int perThread = OPERATIONS / THREADS;
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(executor.submit(() -> run(perThread)));
+            }
+            for (Future<?> worker : workers) {
+                worker.get(5, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        if (SOAK_OPERATIONS != null) {
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            System.out.printf("%d operations on %d threads in %d ms (%.0f ops/s)%n",
+                    OPERATIONS, THREADS, millis, OPERATIONS * 1000.0 / Math.max(1, millis));
+        }
+
+        verifyNoInteractions(lambdaLogger);
+        assertEquals(added.get() - deleted.get(), repository.size());
+        assertEquals(repository.size(), pageThroughEveryEmployee());
+    }
+
+    private void run(int operations) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < operations; i++) {
+            String id = Integer.toString(random.nextInt(ID_SPACE));
+            int operation = random.nextInt(100);
+            if (operation < 40) {
+                expect(retrieveEmployeeLambda.handleRequest(byId(id), context), 200, 404);
+            } else if (operation < 60) {
+                if (expect(addEmployeeLambda.handleRequest(withBody(id), context), 201, 409) == 201) {
+                    added.incrementAndGet();
+                }
+            } else if (operation < 80) {
+                expect(updateEmployeeLambda.handleRequest(withBody(id), context), 200, 404);
+            } else if (operation < 95) {
+                if (expect(deleteEmployeeLambda.handleRequest(byId(id), context), 202, 404) == 202) {
+                    deleted.incrementAndGet();
+                }
+            } else {
+                APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent().withQueryStringParameters(Map.of("limit", "20"));
+                expect(retrieveAllEmployeesLambda.handleRequest(request, context), 200, 200);
+            }
+        }
+    }
+
+    private long pageThroughEveryEmployee() {
+        Set<String> ids = new HashSet<>();
+        String cursor = null;
+        do {
+            EmployeePage page = repository.findPage(1_000, cursor);
+            page.items().forEach(employee -> ids.add(employee.id()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return ids.size();
+    }
+
+    private static int expect(APIGatewayProxyResponseEvent response, int success, int conflict) {
+        int statusCode = response.getStatusCode();
+        if (statusCode != success && statusCode != conflict) {
+            throw new AssertionError("Unexpected status " + statusCode + ": " + response.getBody());
+        }
+        return statusCode;
+    }
+
+    private static APIGatewayProxyRequestEvent byId(String id) {
+        return new APIGatewayProxyRequestEvent().withPathParameters(Map.of("id", id));
+    }
+
+    private static APIGatewayProxyRequestEvent withBody(String id) {
+        return new APIGatewayProxyRequestEvent()
+                .withBody("{\"id\":\"" + id + "\",\"firstName\":\"John\",\"lastName\":\"Doe\",\"jobPosition\":\"Developer\"}");
+    }
+}
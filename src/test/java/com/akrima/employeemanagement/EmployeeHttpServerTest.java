@@ -0,0 +1,87 @@
+package com.akrima.employeemanagement;
+
+import com.akrima.employeemanagement.model.Employee;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class EmployeeHttpServerTest {
+
+    private static final String JOHN = "{\"id\":\"1\",\"firstName\":\"John\",\"lastName\":\"Doe\",\"jobPosition\":\"Developer\"}";
+
+    private final InMemoryEmployeeRepository repository = new InMemoryEmployeeRepository();
+    private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private EmployeeHttpServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = EmployeeHttpServer.start(new InetSocketAddress("localhost", 0), 16, new EmployeeApiRouter(repository,
+                mock(DynamoDbClient.class), new EmployeeCache(Duration.ofSeconds(30), 100, System::nanoTime)));
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(Duration.ZERO);
+    }
+
+    @Test
+    void servesTheRoutesOverHttp() throws Exception {
+        HttpResponse<String> added = send(request("/addEmployee").POST(HttpRequest.BodyPublishers.ofString(JOHN)));
+        assertEquals(201, added.statusCode());
+
+        HttpResponse<String> retrieved = send(request("/retrieveEmployee/1"));
+        assertEquals(200, retrieved.statusCode());
+        assertEquals(JOHN, retrieved.body());
+        String etag = retrieved.headers().firstValue("ETag").orElseThrow();
+
+        HttpResponse<String> notModified = send(request("/retrieveEmployee/1").header("If-None-Match", etag));
+        assertEquals(304, notModified.statusCode());
+        assertEquals("", notModified.body());
+
+        assertEquals(404, send(request("/retrieveEmployee/2")).statusCode());
+        assertEquals(405, send(request("/deleteEmployee/1")).statusCode());
+        assertEquals(202, send(request("/deleteEmployee/1").DELETE()).statusCode());
+    }
+
+    @Test
+    void passesTheQueryStringAndDecodesCompressedBodies() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            repository.add(new Employee(Integer.toString(i), "First" + i, "Last" + i, i % 2 == 0 ? "Lead Developer" : "Designer"));
+        }
+
+        HttpResponse<String> page = send(request("/employees?jobPosition=Lead%20Developer&limit=10"));
+        assertEquals(200, page.statusCode());
+        assertTrue(page.body().contains("\"Lead Developer\""));
+        assertFalse(page.body().contains("\"Designer\""));
+
+        HttpResponse<byte[]> all = httpClient.send(request("/retrieveAllEmployees").header("Accept-Encoding", "gzip").build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals("gzip", all.headers().firstValue("Content-Encoding").orElseThrow());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(all.body()))) {
+            assertEquals(EmployeeJsonCodec.writeEmployees(repository.findAll()), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + server.port() + path));
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,75 @@
+package com.akrima.employeemanagement;
+
+import com.akrima.employeemanagement.model.Employee;
+import com.akrima.employeemanagement.model.EmployeePage;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EmployeeJsonCodecTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void writesTheSameJsonAsObjectMapper() throws IOException {
+        Employee employee = new Employee("1", "Jöhn \"J\"", "Doe", null);
+        List<Employee> employees = List.of(employee, new Employee("2", "Jane", "Smith", "Designer"));
+
+        assertEquals(objectMapper.writeValueAsString(employee), EmployeeJsonCodec.writeEmployee(employee));
+        assertEquals(objectMapper.writeValueAsString(employees), EmployeeJsonCodec.writeEmployees(employees));
+        assertEquals(objectMapper.writeValueAsString(new EmployeePage(employees, "cursor")),
+                EmployeeJsonCodec.writeEmployeePage(new EmployeePage(employees, "cursor")));
+    }
+
+    @Test
+    void writesOnlyTheRequestedFields() throws IOException {
+        Employee employee = new Employee("1", null, "Doe", null);
+        EmployeeFields fields = EmployeeFields.parse("id,lastName");
+
+        assertEquals("{\"id\":\"1\",\"lastName\":\"Doe\"}", EmployeeJsonCodec.writeEmployee(employee, fields));
+        assertEquals("{\"items\":[{\"id\":\"1\",\"lastName\":\"Doe\"}],\"nextCursor\":null}",
+                EmployeeJsonCodec.writeEmployeePage(new EmployeePage(List.of(employee), null), fields));
+    }
+
+    @Test
+    void readsWhatObjectMapperReads() throws IOException {
+        String json = """
+                {
+                  "jobPosition": "Developer",
+                  "id": 1234,
+                  "firstName": "John",
+                  "lastName": null
+                }
+                """;
+        assertEquals(objectMapper.readValue(json, Employee.class), EmployeeJsonCodec.readEmployee(json));
+
+        String array = "[" + json + "," + json + "]";
+        assertEquals(objectMapper.readValue(array, new TypeReference<List<Employee>>() {}), EmployeeJsonCodec.readEmployees(array));
+    }
+
+    @Test
+    void rejectsUnknownFieldsAndMalformedInput() {
+        assertThrows(IOException.class, () -> EmployeeJsonCodec.readEmployee("{\"id\":\"1\",\"salary\":\"1\"}"));
+        assertThrows(IOException.class, () -> EmployeeJsonCodec.readEmployee("{\"id\":{\"nested\":true}}"));
+        assertThrows(IOException.class, () -> EmployeeJsonCodec.readEmployee("[]"));
+        assertThrows(IOException.class, () -> EmployeeJsonCodec.readEmployee("{\"id\":\"1\""));
+        assertThrows(IllegalArgumentException.class, () -> EmployeeJsonCodec.readEmployee((String) null));
+    }
+
+    @Test
+    void reusesTheBufferWithoutLeakingPreviousContent() throws IOException {
+        String large = EmployeeJsonCodec.writeEmployee(new Employee("1", "x".repeat(10_000), "Doe", "Developer"));
+        String small = EmployeeJsonCodec.writeEmployee(new Employee("2", "Jane", "Smith", "Designer"));
+
+        assertEquals(10_000, objectMapper.readValue(large, Employee.class).firstName().length());
+        assertEquals("{\"id\":\"2\",\"firstName\":\"Jane\",\"lastName\":\"Smith\",\"jobPosition\":\"Designer\"}", small);
+        assertNull(objectMapper.readValue(EmployeeJsonCodec.writeEmployeePage(new EmployeePage(List.of(), null)), EmployeePage.class).nextCursor());
+    }
+}
@@ -1,13 +0,0 @@
-package com.akrima.employeemanagement;
-
-import org.junit.jupiter.api.Test;
-import org.springframework.boot.test.context.SpringBootTest;
-
-@SpringBootTest
-class EmployeeManagementLambdaJavaApplicationTests {
-
-	@Test
-	void contextLoads() {
-	}
-
-}
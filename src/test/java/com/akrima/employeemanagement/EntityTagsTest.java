@@ -0,0 +1,128 @@
+package com.akrima.employeemanagement;
+
+import com.akrima.employeemanagement.model.Employee;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class EntityTagsTest {
+
+    private final InMemoryEmployeeRepository repository = new InMemoryEmployeeRepository();
+    private final EmployeeCache cache = new EmployeeCache(Duration.ofSeconds(30), 100, System::nanoTime);
+    private final Context context = mock(Context.class);
+
+    @Test
+    void unchangedEmployeeIsNotSentAgain() {
+        repository.add(new Employee("1", "John", "Doe", "Developer"));
+        RetrieveEmployeeLambda lambda = new RetrieveEmployeeLambda(repository, cache);
+
+        APIGatewayProxyResponseEvent first = lambda.handleRequest(retrieve("1", Map.of()), context);
+        String etag = first.getHeaders().get("ETag");
+        assertEquals(200, first.getStatusCode());
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""), etag);
+
+        APIGatewayProxyResponseEvent second = lambda.handleRequest(retrieve("1", Map.of("if-none-match", "\"other\", " + etag)), context);
+        assertEquals(304, second.getStatusCode());
+        assertNull(second.getBody());
+        assertEquals(etag, second.getHeaders().get("ETag"));
+        // If-None-Match compares weakly
+        assertEquals(304, lambda.handleRequest(retrieve("1", Map.of("If-None-Match", "W/" + etag)), context).getStatusCode());
+    }
+
+    @Test
+    void everyWriteChangesTheEtag() {
+        repository.add(new Employee("1", "John", "Doe", "Developer"));
+        RetrieveEmployeeLambda lambda = new RetrieveEmployeeLambda(repository, cache);
+        String etag = lambda.handleRequest(retrieve("1", Map.of()), context).getHeaders().get("ETag");
+
+        new UpdateEmployeeLambda(repository, cache).handleRequest(new APIGatewayProxyRequestEvent()
+                .withBody("{\"id\":\"1\",\"firstName\":\"John\",\"lastName\":\"Doe\",\"jobPosition\":\"Lead Developer\"}"), context);
+        APIGatewayProxyResponseEvent updated = lambda.handleRequest(retrieve("1", Map.of("If-None-Match", etag)), context);
+        assertEquals(200, updated.getStatusCode());
+        assertNotEquals(etag, updated.getHeaders().get("ETag"));
+
+        // Added again with the same attributes, the employee still gets an ETag of its own
+        String updatedEtag = updated.getHeaders().get("ETag");
+        repository.delete("1");
+        repository.add(new Employee("1", "John", "Doe", "Lead Developer"));
+        cache.invalidateAll();
+        APIGatewayProxyResponseEvent readded = lambda.handleRequest(retrieve("1", Map.of("If-None-Match", updatedEtag)), context);
+        assertEquals(200, readded.getStatusCode());
+        assertNotEquals(updatedEtag, readded.getHeaders().get("ETag"));
+    }
+
+    @Test
+    void conditionalRequestsDoNotTrustTheCache() {
+        repository.add(new Employee("1", "John", "Doe", "Developer"));
+        RetrieveEmployeeLambda lambda = new RetrieveEmployeeLambda(repository, cache);
+        String etag = lambda.handleRequest(retrieve("1", Map.of()), context).getHeaders().get("ETag");
+
+        // Updated by another execution environment: this one's cache still holds the old version
+        repository.update(new Employee("1", "John", "Doe", "Lead Developer"));
+        assertEquals(etag, lambda.handleRequest(retrieve("1", Map.of()), context).getHeaders().get("ETag"));
+
+        APIGatewayProxyResponseEvent conditional = lambda.handleRequest(retrieve("1", Map.of("If-None-Match", etag)), context);
+        assertEquals(200, conditional.getStatusCode());
+        assertNotEquals(etag, conditional.getHeaders().get("ETag"));
+    }
+
+    @Test
+    void employeesWithoutVersionHaveNoEtag() {
+        Employee legacy = new Employee("1", "John", "Doe", "Developer");
+        RetrieveEmployeeLambda lambda = new RetrieveEmployeeLambda(new InMemoryEmployeeRepository() {
+            @Override
+            public Employee findById(String id, EmployeeFields fields) {
+                return legacy;
+            }
+        }, cache);
+
+        APIGatewayProxyResponseEvent response = lambda.handleRequest(retrieve("1", Map.of("If-None-Match", "*")), context);
+
+        assertEquals(200, response.getStatusCode());
+        assertTrue(response.getHeaders() == null || !response.getHeaders().containsKey("ETag"));
+    }
+
+    @Test
+    void listEtagFollowsTheContentAndTheCoding() {
+        for (int i = 0; i < 50; i++) {
+            repository.add(new Employee(Integer.toString(i), "First" + i, "Last" + i, "Developer"));
+        }
+        RetrieveAllEmployeesLambda lambda = new RetrieveAllEmployeesLambda(repository);
+
+        APIGatewayProxyResponseEvent plain = lambda.handleRequest(new APIGatewayProxyRequestEvent(), context);
+        APIGatewayProxyResponseEvent gzipped = lambda.handleRequest(new APIGatewayProxyRequestEvent()
+                .withHeaders(Map.of("Accept-Encoding", "gzip")), context);
+        String etag = plain.getHeaders().get("ETag");
+        assertEquals("gzip", gzipped.getHeaders().get("Content-Encoding"));
+        assertEquals(etag.substring(0, etag.length() - 1) + "-gzip\"", gzipped.getHeaders().get("ETag"));
+
+        // Either copy is still current
+        for (String cached : new String[]{etag, gzipped.getHeaders().get("ETag")}) {
+            APIGatewayProxyResponseEvent notModified = lambda.handleRequest(new APIGatewayProxyRequestEvent()
+                    .withHeaders(Map.of("Accept-Encoding", "gzip", "If-None-Match", cached)), context);
+            assertEquals(304, notModified.getStatusCode());
+            assertNull(notModified.getBody());
+        }
+
+        // Pages have ETags of their own
+        APIGatewayProxyResponseEvent page = lambda.handleRequest(new APIGatewayProxyRequestEvent()
+                .withQueryStringParameters(Map.of("limit", "10")), context);
+        assertNotEquals(etag, page.getHeaders().get("ETag"));
+
+        repository.update(new Employee("7", "First7", "Last7", "Designer"));
+        assertNotEquals(etag, lambda.handleRequest(new APIGatewayProxyRequestEvent(), context).getHeaders().get("ETag"));
+        repository.delete("7");
+        assertNotEquals(etag, lambda.handleRequest(new APIGatewayProxyRequestEvent(), context).getHeaders().get("ETag"));
+    }
+
+    private static APIGatewayProxyRequestEvent retrieve(String id, Map<String, String> headers) {
+        return new APIGatewayProxyRequestEvent().withPathParameters(Map.of("id", id)).withHeaders(headers);
+    }
+}
@@ -0,0 +1,59 @@
+package com.akrima.employeemanagement;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class HeadcountReconciliationTest {
+
+    private final DynamoDbClient dynamoDbClient = mock(DynamoDbClient.class);
+
+    @Test
+    void addsTheDifferenceBetweenTheEmployeesAndTheStoredHeadcounts() {
+        // Two pages of employees, as existing before the stream: 3 developers, 1 designer, 1 without position
+        when(dynamoDbClient.scan(argThat((ScanRequest request) -> request != null && request.tableName().equals("Employee"))))
+                .thenReturn(ScanResponse.builder()
+                        .items(List.of(employee("Developer"), employee("Designer"), Map.of()))
+                        .lastEvaluatedKey(Map.of("id", AttributeValue.builder().s("3").build()))
+                        .build())
+                .thenReturn(ScanResponse.builder().items(List.of(employee("Developer"), employee("Developer"))).build());
+        // Only the writes since the stream was enabled were counted
+        when(dynamoDbClient.scan(argThat((ScanRequest request) -> request != null && request.tableName().equals(HeadcountStreamLambda.HEADCOUNT_TABLE_NAME))))
+                .thenReturn(ScanResponse.builder()
+                        .items(List.of(headcount("Developer", 1), headcount("Designer", 1), headcount("Manager", 2)))
+                        .build());
+
+        Map<String, Long> differences = new HeadcountReconciliation(dynamoDbClient).reconcile();
+
+        assertEquals(Map.of("Developer", 2L, "Manager", -2L), differences);
+        ArgumentCaptor<UpdateItemRequest> updates = ArgumentCaptor.forClass(UpdateItemRequest.class);
+        verify(dynamoDbClient, times(2)).updateItem(updates.capture());
+        Map<String, String> deltas = new HashMap<>();
+        for (UpdateItemRequest update : updates.getAllValues()) {
+            assertEquals("ADD headcount :delta", update.updateExpression());
+            deltas.put(update.key().get("jobPosition").s(), update.expressionAttributeValues().get(":delta").n());
+        }
+        assertEquals(Map.of("Developer", "2", "Manager", "-2"), deltas);
+    }
+
+    private static Map<String, AttributeValue> employee(String jobPosition) {
+        return Map.of("jobPosition", AttributeValue.builder().s(jobPosition).build());
+    }
+
+    private static Map<String, AttributeValue> headcount(String jobPosition, long headcount) {
+        return Map.of("jobPosition", AttributeValue.builder().s(jobPosition).build(),
+                "headcount", AttributeValue.builder().n(Long.toString(headcount)).build());
+    }
+}
@@ -0,0 +1,163 @@
+package com.akrima.employeemanagement;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.amazonaws.services.lambda.runtime.events.DynamodbEvent;
+import com.amazonaws.services.lambda.runtime.events.models.dynamodb.StreamRecord;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class HeadcountStreamLambdaTest {
+
+    private static final String STREAM_ARN = "arn:aws:dynamodb:eu-west-1:123456789012:table/Employee/stream/2024-01-01T00:00:00.000";
+    private static final List<String> JOB_POSITIONS = Arrays.asList("Developer", "Designer", "Manager", "Tester", null);
+
+    private final DynamoDbClient dynamoDbClient = mock(DynamoDbClient.class);
+    private final Context context = mock(Context.class);
+    // The EmployeeHeadcount table, and the transactions it has applied by ClientRequestToken
+    private final Map<String, Long> counters = new HashMap<>();
+    private final Set<String> appliedTokens = new HashSet<>();
+    private int transactions;
+    private boolean loseNextResponse;
+
+    @BeforeEach
+    void stubHeadcountTable() {
+        when(context.getLogger()).thenReturn(mock(LambdaLogger.class));
+        when(dynamoDbClient.transactWriteItems(any(TransactWriteItemsRequest.class))).thenAnswer(invocation -> {
+            TransactWriteItemsRequest request = invocation.getArgument(0);
+            transactions++;
+            assertTrue(request.transactItems().size() <= HeadcountStreamLambda.MAX_TRANSACTION_ITEMS);
+            if (appliedTokens.add(request.clientRequestToken())) {
+                for (TransactWriteItem item : request.transactItems()) {
+                    Update update = item.update();
+                    assertEquals("ADD headcount :delta", update.updateExpression());
+                    counters.merge(update.key().get("jobPosition").s(), Long.parseLong(update.expressionAttributeValues().get(":delta").n()), Long::sum);
+                }
+            }
+            if (loseNextResponse) {
+                // Applied, but the caller never hears about it
+                loseNextResponse = false;
+                throw DynamoDbException.builder().message("Connection reset").statusCode(500).build();
+            }
+            return TransactWriteItemsResponse.builder().build();
+        });
+        when(dynamoDbClient.scanPaginator(any(ScanRequest.class))).thenCallRealMethod();
+        when(dynamoDbClient.scan(any(ScanRequest.class))).thenAnswer(invocation -> {
+            List<Map<String, AttributeValue>> items = new ArrayList<>();
+            counters.forEach((jobPosition, headcount) -> items.add(Map.of(
+                    "jobPosition", AttributeValue.builder().s(jobPosition).build(),
+                    "headcount", AttributeValue.builder().n(Long.toString(headcount)).build())));
+            return ScanResponse.builder().items(items).build();
+        });
+    }
+
+    @Test
+    void replayedStreamMatchesAFullRecount() throws Exception {
+        Random random = new Random(42);
+        Map<String, String> table = new HashMap<>();
+        List<DynamodbEvent.DynamodbStreamRecord> stream = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            String id = Integer.toString(random.nextInt(500));
+            String jobPosition = JOB_POSITIONS.get(random.nextInt(JOB_POSITIONS.size()));
+            boolean exists = table.containsKey(id);
+            if (!exists) {
+                table.put(id, jobPosition);
+                stream.add(record(stream.size(), "INSERT", null, image(id, jobPosition)));
+            } else if (random.nextInt(4) == 0) {
+                stream.add(record(stream.size(), "REMOVE", image(id, table.remove(id)), null));
+            } else {
+                // Some updates keep the position and only change other attributes
+                String newJobPosition = random.nextBoolean() ? table.get(id) : jobPosition;
+                stream.add(record(stream.size(), "MODIFY", image(id, table.get(id)), image(id, newJobPosition)));
+                table.put(id, newJobPosition);
+            }
+        }
+
+        HeadcountStreamLambda lambda = new HeadcountStreamLambda(dynamoDbClient);
+        int batches = 0;
+        for (int start = 0; start < stream.size(); batches++) {
+            int end = Math.min(stream.size(), start + 1 + random.nextInt(100));
+            DynamodbEvent event = new DynamodbEvent();
+            event.setRecords(stream.subList(start, end));
+            if (batches % 10 == 3) {
+                // Lambda retries a batch whose transaction went through unacknowledged: it must not count twice
+                loseNextResponse = true;
+                assertThrows(DynamoDbException.class, () -> lambda.handleRequest(event, context));
+            }
+            lambda.handleRequest(event, context);
+            start = end;
+        }
+
+        Map<String, Long> recount = new TreeMap<>();
+        table.values().stream().filter(Objects::nonNull).forEach(jobPosition -> recount.merge(jobPosition, 1L, Long::sum));
+        Map<String, Long> maintained = new TreeMap<>(counters);
+        maintained.values().removeIf(headcount -> headcount == 0);
+        assertEquals(recount, maintained);
+        // Deltas are coalesced: at most one update per position and batch, far fewer than the records
+        assertTrue(transactions < batches + batches / 10 + 1, transactions + " transactions for " + batches + " batches");
+
+        APIGatewayProxyResponseEvent response = new RetrieveHeadcountLambda(dynamoDbClient)
+                .handleRequest(new APIGatewayProxyRequestEvent(), context);
+        assertEquals(200, response.getStatusCode());
+        JsonNode body = new ObjectMapper().readTree(response.getBody());
+        assertEquals(recount.values().stream().mapToLong(Long::longValue).sum(), body.get("total").asLong());
+        Map<String, Long> returned = new TreeMap<>();
+        body.get("jobPositions").fields().forEachRemaining(field -> returned.put(field.getKey(), field.getValue().asLong()));
+        assertEquals(recount, returned);
+        assertEquals(new ArrayList<>(recount.keySet()), new ArrayList<>(returned.keySet()));
+    }
+
+    @Test
+    void coalescesTheDeltasOfABatch() {
+        List<DynamodbEvent.DynamodbStreamRecord> records = List.of(
+                record(0, "INSERT", null, image("1", "Developer")),
+                record(1, "MODIFY", image("1", "Developer"), image("1", "Manager")),
+                record(2, "INSERT", null, image("2", "Developer")),
+                record(3, "MODIFY", image("2", "Developer"), image("2", "Developer")),
+                record(4, "REMOVE", image("1", "Manager"), null),
+                record(5, "INSERT", null, image("3", null)));
+
+        assertEquals(new TreeMap<>(Map.of("Developer", 1L)), HeadcountStreamLambda.deltas(records));
+
+        DynamodbEvent event = new DynamodbEvent();
+        event.setRecords(records);
+        new HeadcountStreamLambda(dynamoDbClient).handleRequest(event, context);
+        assertEquals(1, transactions);
+        assertEquals(Map.of("Developer", 1L), counters);
+    }
+
+    private static DynamodbEvent.DynamodbStreamRecord record(int sequenceNumber, String eventName,
+                                                             Map<String, com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue> oldImage,
+                                                             Map<String, com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue> newImage) {
+        DynamodbEvent.DynamodbStreamRecord record = new DynamodbEvent.DynamodbStreamRecord();
+        record.setEventName(eventName);
+        record.setEventSourceARN(STREAM_ARN);
+        record.setDynamodb(new StreamRecord()
+                .withSequenceNumber(String.format("%021d", sequenceNumber))
+                .withOldImage(oldImage)
+                .withNewImage(newImage));
+        return record;
+    }
+
+    private static Map<String, com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue> image(String id, String jobPosition) {
+        Map<String, com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue> image = new HashMap<>();
+        image.put("id", new com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue().withS(id));
+        image.put("firstName", new com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue().withS("First"));
+        if (jobPosition != null) {
+            image.put("jobPosition", new com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue().withS(jobPosition));
+        }
+        return image;
+    }
+}
@@ -0,0 +1,216 @@
+package com.akrima.employeemanagement;
+
+import com.akrima.employeemanagement.IdempotencyStore.IdempotencyRecord;
+import com.akrima.employeemanagement.model.Employee;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValuesOnConditionCheckFailure;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class IdempotentRequestsTest {
+
+    private static final String JOHN = "{\"id\":\"1\",\"firstName\":\"John\",\"lastName\":\"Doe\",\"jobPosition\":\"Developer\"}";
+
+    private final AtomicLong clock = new AtomicLong(1_700_000_000L);
+    private final InMemoryIdempotencyStore store = new InMemoryIdempotencyStore();
+    private final IdempotentRequests idempotentRequests = new IdempotentRequests(store, Duration.ofHours(1), 100, clock::get);
+    private final Context context = mock(Context.class);
+
+    @BeforeEach
+    void setUp() {
+        when(context.getLogger()).thenReturn(mock(LambdaLogger.class));
+    }
+
+    @Test
+    void concurrentDuplicatesRunTheRequestOnce() throws Exception {
+        AtomicInteger adds = new AtomicInteger();
+        CountDownLatch adding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        EmployeeRepository repository = new InMemoryEmployeeRepository() {
+            @Override
+            public boolean add(Employee employee) {
+                adds.incrementAndGet();
+                adding.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.add(employee);
+            }
+        };
+        AddEmployeeLambda lambda = new AddEmployeeLambda(repository, cache(), idempotentRequests);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            Future<APIGatewayProxyResponseEvent> first = executor.submit(() -> lambda.handleRequest(request("key-1", JOHN), context));
+            assertTrue(adding.await(5, TimeUnit.SECONDS));
+
+            // Duplicates reaching this instance wait for the first request
+            List<Thread> waiting = new CopyOnWriteArrayList<>();
+            List<Future<APIGatewayProxyResponseEvent>> duplicates = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                duplicates.add(executor.submit(() -> {
+                    waiting.add(Thread.currentThread());
+                    return lambda.handleRequest(request("key-1", JOHN), context);
+                }));
+            }
+            awaitParked(waiting, 8);
+            // Another instance sharing the store is told to come back
+            IdempotentRequests otherInstance = new IdempotentRequests(store, Duration.ofHours(1), 100, clock::get);
+            APIGatewayProxyResponseEvent elsewhere = new AddEmployeeLambda(repository, cache(), otherInstance)
+                    .handleRequest(request("key-1", JOHN), context);
+            assertEquals(409, elsewhere.getStatusCode());
+            assertEquals("1", elsewhere.getHeaders().get("Retry-After"));
+
+            release.countDown();
+            assertEquals(201, first.get(5, TimeUnit.SECONDS).getStatusCode());
+            for (Future<APIGatewayProxyResponseEvent> duplicate : duplicates) {
+                APIGatewayProxyResponseEvent response = duplicate.get(5, TimeUnit.SECONDS);
+                assertEquals(201, response.getStatusCode());
+                assertEquals("true", response.getHeaders().get(IdempotentRequests.REPLAYED));
+            }
+            assertEquals(1, adds.get());
+            assertEquals(new IdempotentRequests.Stats(8, 1), idempotentRequests.stats());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void replaysDoNotTouchTheEmployeeTable() {
+        EmployeeRepository repository = mock(EmployeeRepository.class);
+        when(repository.add(any())).thenReturn(true);
+        AddEmployeeLambda lambda = new AddEmployeeLambda(repository, cache(), idempotentRequests);
+
+        APIGatewayProxyResponseEvent first = lambda.handleRequest(request("key-1", JOHN), context);
+        APIGatewayProxyResponseEvent replay = lambda.handleRequest(request("key-1", JOHN), context);
+        // A cold instance finds the response in the store instead of its memory
+        APIGatewayProxyResponseEvent fromStore = new AddEmployeeLambda(repository, cache(),
+                new IdempotentRequests(store, Duration.ofHours(1), 100, clock::get)).handleRequest(request("key-1", JOHN), context);
+
+        assertEquals(201, first.getStatusCode());
+        assertNull(first.getHeaders());
+        for (APIGatewayProxyResponseEvent response : List.of(replay, fromStore)) {
+            assertEquals(201, response.getStatusCode());
+            assertEquals(first.getBody(), response.getBody());
+            assertEquals("true", response.getHeaders().get(IdempotentRequests.REPLAYED));
+        }
+        assertEquals(422, lambda.handleRequest(request("key-1", JOHN.replace("Doe", "Smith")), context).getStatusCode());
+        assertEquals(400, lambda.handleRequest(request("k".repeat(256), JOHN), context).getStatusCode());
+        verify(repository, times(1)).add(any());
+
+        // Keys are per operation, and requests without one always run
+        when(repository.update(any())).thenReturn(true);
+        UpdateEmployeeLambda update = new UpdateEmployeeLambda(repository, cache(), idempotentRequests);
+        assertNull(update.handleRequest(request("key-1", JOHN), context).getHeaders());
+        lambda.handleRequest(request(null, JOHN), context);
+        verify(repository, times(1)).update(any());
+        verify(repository, times(2)).add(any());
+    }
+
+    @Test
+    void keysExpireAfterTheTtl() {
+        EmployeeRepository repository = new InMemoryEmployeeRepository();
+        AddEmployeeLambda lambda = new AddEmployeeLambda(repository, cache(), idempotentRequests);
+
+        assertEquals(201, lambda.handleRequest(request("key-1", JOHN), context).getStatusCode());
+        clock.addAndGet(Duration.ofHours(1).toSeconds() - 1);
+        assertEquals(201, lambda.handleRequest(request("key-1", JOHN), context).getStatusCode());
+
+        // Expired in memory and in the store: the request runs again, and the employee now exists
+        clock.addAndGet(1);
+        APIGatewayProxyResponseEvent afterExpiry = lambda.handleRequest(request("key-1", JOHN), context);
+        assertEquals(409, afterExpiry.getStatusCode());
+        assertNull(afterExpiry.getHeaders());
+
+        // A claim left by an instance that died mid-request frees the key after IN_PROGRESS_SECONDS
+        long now = clock.get();
+        assertNull(store.claim("addEmployee#key-2", IdempotentRequests.requestHash(JOHN), now, now + IdempotentRequests.IN_PROGRESS_SECONDS));
+        assertEquals(409, lambda.handleRequest(request("key-2", JOHN), context).getStatusCode());
+        clock.addAndGet(IdempotentRequests.IN_PROGRESS_SECONDS);
+        APIGatewayProxyResponseEvent afterClaimExpiry = lambda.handleRequest(request("key-2", JOHN), context);
+        assertEquals("Employee with ID 1 already exists.", afterClaimExpiry.getBody());
+    }
+
+    @Test
+    void failedRequestsAreNotStored() {
+        EmployeeRepository repository = mock(EmployeeRepository.class);
+        when(repository.add(any()))
+                .thenThrow(new ThrottledException(429, 1, "throttled", null))
+                .thenReturn(true);
+        AddEmployeeLambda lambda = new AddEmployeeLambda(repository, cache(), idempotentRequests);
+
+        assertEquals(429, lambda.handleRequest(request("key-1", JOHN), context).getStatusCode());
+        assertEquals(201, lambda.handleRequest(request("key-1", JOHN), context).getStatusCode());
+        verify(repository, times(2)).add(any());
+    }
+
+    @Test
+    void dynamoDbStoreClaimsWithOneConditionalPut() {
+        DynamoDbClient dynamoDbClient = mock(DynamoDbClient.class);
+        Map<String, AttributeValue> existing = Map.of(
+                "idempotencyKey", AttributeValue.builder().s("addEmployee#key-1").build(),
+                "requestHash", AttributeValue.builder().s("hash").build(),
+                "statusCode", AttributeValue.builder().n("201").build(),
+                "body", AttributeValue.builder().s("Employee added successfully with ID: 1").build(),
+                "expiresAt", AttributeValue.builder().n("1700003600").build());
+        when(dynamoDbClient.putItem(any(PutItemRequest.class)))
+                .thenReturn(null)
+                .thenThrow(ConditionalCheckFailedException.builder().item(existing).build());
+        DynamoDbIdempotencyStore dynamoDbStore = new DynamoDbIdempotencyStore(dynamoDbClient);
+
+        assertNull(dynamoDbStore.claim("addEmployee#key-1", "hash", 1_700_000_000L, 1_700_000_060L));
+        assertEquals(new IdempotencyRecord("hash", 201, "Employee added successfully with ID: 1", 1_700_003_600L),
+                dynamoDbStore.claim("addEmployee#key-1", "hash", 1_700_000_001L, 1_700_000_061L));
+
+        ArgumentCaptor<PutItemRequest> claim = ArgumentCaptor.forClass(PutItemRequest.class);
+        verify(dynamoDbClient, times(2)).putItem(claim.capture());
+        assertEquals(DynamoDbIdempotencyStore.TABLE_NAME, claim.getValue().tableName());
+        assertEquals("attribute_not_exists(#key) OR #expiresAt <= :now", claim.getValue().conditionExpression());
+        assertEquals("1700000001", claim.getValue().expressionAttributeValues().get(":now").n());
+        assertEquals(ReturnValuesOnConditionCheckFailure.ALL_OLD, claim.getValue().returnValuesOnConditionCheckFailure());
+        assertFalse(claim.getValue().item().containsKey("statusCode"));
+    }
+
+    private static EmployeeCache cache() {
+        return new EmployeeCache(Duration.ofSeconds(30), 0, System::nanoTime);
+    }
+
+    private static APIGatewayProxyRequestEvent request(String idempotencyKey, String body) {
+        return new APIGatewayProxyRequestEvent()
+                .withHeaders(idempotencyKey == null ? Map.of() : Map.of("idempotency-key", idempotencyKey))
+                .withBody(body);
+    }
+
+    private static void awaitParked(List<Thread> threads, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            if (threads.size() == count && threads.stream().allMatch(thread -> thread.getState() == Thread.State.WAITING)) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("Duplicates did not wait for the first request");
+    }
+}
@@ -0,0 +1,117 @@
+package com.akrima.employeemanagement;
+
+import com.akrima.employeemanagement.model.Employee;
+import com.akrima.employeemanagement.model.EmployeePage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryEmployeeRepositoryTest {
+
+    private final InMemoryEmployeeRepository repository = new InMemoryEmployeeRepository();
+
+    @Test
+    void writesAreConditionalOnTheId() {
+        Employee john = new Employee("1", "John", "Doe", "Developer");
+        Employee promoted = new Employee("1", "John", "Doe", "Lead Developer");
+
+        assertFalse(repository.update(promoted));
+        assertTrue(repository.add(john));
+        assertFalse(repository.add(promoted));
+        Employee added = repository.findById("1");
+        assertEquals(john, added.withVersion(null));
+        assertNotNull(added.version());
+
+        assertTrue(repository.update(promoted));
+        assertEquals(promoted.withVersion(added.version() + 1), repository.findById("1"));
+
+        assertTrue(repository.delete("1"));
+        assertFalse(repository.delete("1"));
+        assertNull(repository.findById("1"));
+    }
+
+    @Test
+    void pagesThroughEveryEmployeeInIdOrder() {
+        for (int i = 0; i < 25; i++) {
+            repository.add(new Employee(String.format("%03d", i), "First" + i, "Last" + i, "Developer"));
+        }
+
+        List<String> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            EmployeePage page = repository.findPage(10, cursor);
+            page.items().forEach(employee -> ids.add(employee.id()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(25, ids.size());
+        assertEquals(repository.findAll().stream().map(Employee::id).toList(), ids);
+    }
+
+    @Test
+    void pagesThroughOneJobPosition() {
+        for (int i = 0; i < 9; i++) {
+            repository.add(new Employee(String.format("%03d", i), "First" + i, "Last" + i, i % 2 == 0 ? "Developer" : "Designer"));
+        }
+
+        List<String> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            EmployeePage page = repository.findByJobPosition("Designer", 2, cursor, EmployeeFields.ALL);
+            page.items().forEach(employee -> ids.add(employee.id()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // The second page is full but only a Developer follows it, so there is no empty trailing page
+        assertEquals(2, pages);
+        assertEquals(List.of("001", "003", "005", "007"), ids);
+    }
+
+    @Test
+    void searchesLastNamePrefixesInLastNameOrder() {
+        repository.add(new Employee("1", "Anna", "martin", "Developer"));
+        repository.add(new Employee("2", "Jürgen", "Müller", "Developer"));
+        repository.add(new Employee("3", "Marie", "MARTINEZ", "Designer"));
+        repository.add(new Employee("4", "Paul", "Martin", "Designer"));
+        repository.add(new Employee("5", "Lea", "Moreau", "Developer"));
+
+        List<String> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            EmployeePage page = repository.findByLastNamePrefix("Mar", 2, cursor, EmployeeFields.ALL);
+            page.items().forEach(employee -> ids.add(employee.id()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of("1", "4", "3"), ids);
+        assertEquals(List.of("2"), repository.findByLastNamePrefix("MUL", 10, null, EmployeeFields.ALL).items().stream().map(Employee::id).toList());
+        assertThrows(IllegalArgumentException.class, () -> repository.findByLastNamePrefix(" ", 10, null, EmployeeFields.ALL));
+    }
+
+    @Test
+    void cursorStaysValidWhenTheNextEmployeeIsDeleted() {
+        repository.add(new Employee("a", "A", "A", "Developer"));
+        repository.add(new Employee("b", "B", "B", "Developer"));
+        repository.add(new Employee("c", "C", "C", "Developer"));
+
+        EmployeePage first = repository.findPage(1, null);
+        repository.delete("b");
+        EmployeePage second = repository.findPage(1, first.nextCursor());
+
+        assertEquals("c", second.items().get(0).id());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    void rejectsForeignCursors() {
+        assertThrows(IllegalArgumentException.class, () -> repository.findPage(10, "not-a-cursor"));
+    }
+}
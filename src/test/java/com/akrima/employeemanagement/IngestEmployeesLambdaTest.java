@@ -0,0 +1,143 @@
+package com.akrima.employeemanagement;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
+import com.amazonaws.services.lambda.runtime.events.SQSEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class IngestEmployeesLambdaTest {
+
+    private final DynamoDbClient dynamoDbClient = mock(DynamoDbClient.class);
+    private final Context context = mock(Context.class);
+    private final List<Map<String, AttributeValue>> writtenItems = Collections.synchronizedList(new ArrayList<>());
+    private final Set<String> rejectedIds = new HashSet<>();
+    private final IngestEmployeesLambda lambda = new IngestEmployeesLambda(dynamoDbClient,
+            new EmployeeCache(Duration.ofSeconds(30), 100, System::nanoTime));
+
+    @BeforeEach
+    void stubBatchWriteItem() {
+        when(context.getLogger()).thenReturn(mock(LambdaLogger.class));
+        // Writes the chunk, unless it holds a rejected id or an incomplete item: then the whole call fails
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class))).thenAnswer(invocation -> {
+            List<Map<String, AttributeValue>> items = new ArrayList<>();
+            for (WriteRequest writeRequest : invocation.getArgument(0, BatchWriteItemRequest.class).requestItems().get("Employee")) {
+                items.add(writeRequest.putRequest().item());
+            }
+            // As DynamoDB: an attribute without a value fails the whole call
+            if (items.stream().flatMap(item -> item.values().stream()).anyMatch(value -> value.s() == null && value.n() == null)
+                    || items.stream().anyMatch(item -> rejectedIds.contains(item.get("id").s()))) {
+                throw DynamoDbException.builder().message("Internal server error").statusCode(500).build();
+            }
+            writtenItems.addAll(items);
+            return BatchWriteItemResponse.builder().unprocessedItems(Map.of()).build();
+        });
+    }
+
+    @Test
+    void coalescesRepeatedIdsToTheLastWrite() {
+        SQSBatchResponse response = lambda.handleRequest(event(
+                message("m1", employee("1", "Developer")),
+                message("m2", employee("2", "Designer")),
+                message("m3", employee("1", "Lead Developer"))), context);
+
+        assertTrue(response.getBatchItemFailures().isEmpty());
+        verify(dynamoDbClient, times(1)).batchWriteItem(any(BatchWriteItemRequest.class));
+        assertEquals(2, writtenItems.size());
+        Map<String, String> jobPositions = new HashMap<>();
+        writtenItems.forEach(item -> jobPositions.put(item.get("id").s(), item.get("jobPosition").s()));
+        assertEquals(Map.of("1", "Lead Developer", "2", "Designer"), jobPositions);
+        assertTrue(writtenItems.stream().allMatch(item -> item.containsKey(EmployeeItemMapper.VERSION)));
+    }
+
+    @Test
+    void reportsUndecodableMessagesAndKeepsGoing() {
+        SQSBatchResponse response = lambda.handleRequest(event(
+                message("m1", "{\"id\":\"1\",\"salary\":10}"),
+                message("m2", "not json"),
+                message("m3", employee("", "Developer")),
+                message("m4", employee("4", "Developer"))), context);
+
+        assertEquals(List.of("m1", "m2", "m3"), failedMessageIds(response));
+        assertEquals(1, writtenItems.size());
+        assertEquals("4", writtenItems.get(0).get("id").s());
+    }
+
+    @Test
+    void reportsOnlyTheMessageMissingAnAttribute() {
+        List<SQSEvent.SQSMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            messages.add(message("m" + i, employee(Integer.toString(i), "Developer")));
+        }
+        messages.add(4, message("no-position", "{\"id\":\"10\",\"firstName\":\"First\",\"lastName\":\"Last\"}"));
+        messages.add(7, message("no-first-name", "{\"id\":\"11\",\"lastName\":\"Last\",\"jobPosition\":\"Developer\"}"));
+        messages.add(message("empty-position", employee("12", "")));
+
+        SQSBatchResponse response = lambda.handleRequest(event(messages.toArray(SQSEvent.SQSMessage[]::new)), context);
+
+        assertEquals(List.of("empty-position", "no-first-name", "no-position"), failedMessageIds(response));
+        verify(dynamoDbClient, times(1)).batchWriteItem(any(BatchWriteItemRequest.class));
+        assertEquals(10, writtenItems.size());
+    }
+
+    @Test
+    void redeliversOnlyTheLastMessageOfAnIdThatWasNotWritten() {
+        List<SQSEvent.SQSMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            messages.add(message("m" + i, employee(Integer.toString(i), "Developer")));
+        }
+        messages.add(message("m60", employee("30", "Lead Developer")));
+        rejectedIds.add("30");
+
+        SQSBatchResponse response = lambda.handleRequest(event(messages.toArray(SQSEvent.SQSMessage[]::new)), context);
+
+        // 60 ids are three chunks; the one holding id 30 failed, and only its latest message comes back
+        verify(dynamoDbClient, times(3)).batchWriteItem(any(BatchWriteItemRequest.class));
+        assertEquals(35, writtenItems.size());
+        List<String> failed = failedMessageIds(response);
+        assertEquals(25, failed.size());
+        assertTrue(failed.contains("m60"));
+        assertFalse(failed.contains("m30"));
+    }
+
+    @Test
+    void emptyBatchWritesNothing() {
+        assertTrue(lambda.handleRequest(new SQSEvent(), context).getBatchItemFailures().isEmpty());
+        verifyNoInteractions(dynamoDbClient);
+    }
+
+    private static List<String> failedMessageIds(SQSBatchResponse response) {
+        return response.getBatchItemFailures().stream().map(SQSBatchResponse.BatchItemFailure::getItemIdentifier).sorted().toList();
+    }
+
+    private static String employee(String id, String jobPosition) {
+        return "{\"id\":\"" + id + "\",\"firstName\":\"First\",\"lastName\":\"Last\",\"jobPosition\":\"" + jobPosition + "\"}";
+    }
+
+    private static SQSEvent.SQSMessage message(String messageId, String body) {
+        SQSEvent.SQSMessage message = new SQSEvent.SQSMessage();
+        message.setMessageId(messageId);
+        message.setBody(body);
+        return message;
+    }
+
+    private static SQSEvent event(SQSEvent.SQSMessage... messages) {
+        SQSEvent event = new SQSEvent();
+        event.setRecords(List.of(messages));
+        return event;
+    }
+}
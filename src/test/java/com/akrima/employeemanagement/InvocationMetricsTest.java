@@ -0,0 +1,203 @@
+package com.akrima.employeemanagement;
+
+import com.akrima.employeemanagement.model.Employee;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.*;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class InvocationMetricsTest {
+
+    private static final String ITEM = "{\"id\":{\"S\":\"1\"},\"firstName\":{\"S\":\"John\"},"
+            + "\"lastName\":{\"S\":\"Doe\"},\"jobPosition\":{\"S\":\"Developer\"}}";
+    private static final String CAPACITY = "{\"TableName\":\"Employee\",\"CapacityUnits\":0.5}";
+
+    private final ByteArrayOutputStream emitted = new ByteArrayOutputStream();
+    private final Context context = mock(Context.class);
+    private final List<String> requestBodies = Collections.synchronizedList(new ArrayList<>());
+
+    @AfterEach
+    void disableEmission() {
+        InvocationMetrics.emitTo(null);
+    }
+
+    @Test
+    void emitsOneLinePerInvocationWithDynamoDbLatencyAndConsumedCapacity() throws IOException {
+        InvocationMetrics.emitTo(new PrintStream(emitted, true, StandardCharsets.UTF_8));
+        when(context.getAwsRequestId()).thenReturn("request-1");
+        RetrieveEmployeeLambda lambda = new RetrieveEmployeeLambda(stubDynamoDbClient(), newCache());
+
+        APIGatewayProxyRequestEvent requestEvent = new APIGatewayProxyRequestEvent().withPathParameters(Map.of("id", "1"));
+        assertEquals(200, lambda.handleRequest(requestEvent, context).getStatusCode());
+
+        JsonNode line = singleLine();
+        assertEquals("RetrieveEmployeeLambda", line.get("Handler").asText());
+        assertEquals("request-1", line.get("RequestId").asText());
+        assertEquals(200, line.get("StatusCode").asInt());
+        assertEquals(1, line.get("Status2xx").asInt());
+        assertEquals(0, line.get("Status5xx").asInt());
+        assertEquals(1, line.get("Results").asInt());
+        assertEquals(1, line.get("DynamoDb.GetItem.Calls").asInt());
+        assertTrue(line.get("DynamoDb.GetItem.Latency").asDouble() > 0);
+        assertEquals(0.5, line.get("DynamoDb.GetItem.ConsumedCapacity").asDouble());
+        assertTrue(line.get("JsonTime").isNumber());
+        assertTrue(line.get("Duration").asDouble() >= line.get("DynamoDb.GetItem.Latency").asDouble());
+        // The interceptor asked DynamoDB for the consumed capacity
+        assertTrue(requestBodies.get(0).contains("\"ReturnConsumedCapacity\":\"TOTAL\""));
+    }
+
+    @Test
+    void declaresEveryMetricItEmits() throws IOException {
+        InvocationMetrics.emitTo(new PrintStream(emitted, true, StandardCharsets.UTF_8));
+        new RetrieveEmployeeLambda(stubDynamoDbClient(), newCache())
+                .handleRequest(new APIGatewayProxyRequestEvent().withPathParameters(Map.of("id", "1")), context);
+
+        JsonNode line = singleLine();
+        JsonNode directive = line.get("_aws").get("CloudWatchMetrics").get(0);
+        assertEquals("EmployeeManagement", directive.get("Namespace").asText());
+        assertEquals("[[\"Handler\"]]", directive.get("Dimensions").toString());
+        assertTrue(line.get("_aws").get("Timestamp").asLong() > 0);
+
+        Set<String> declared = new HashSet<>();
+        directive.get("Metrics").forEach(metric -> {
+            declared.add(metric.get("Name").asText());
+            assertTrue(Set.of("Count", "Milliseconds").contains(metric.get("Unit").asText()));
+            assertTrue(line.get(metric.get("Name").asText()).isNumber(), metric.get("Name").asText());
+        });
+        Set<String> numbers = new HashSet<>();
+        line.fields().forEachRemaining(field -> {
+            if (field.getValue().isNumber() && !field.getKey().equals("StatusCode")) {
+                numbers.add(field.getKey());
+            }
+        });
+        assertEquals(numbers, declared);
+    }
+
+    @Test
+    void countsBatchCallsMadeOnOtherThreads() throws IOException {
+        InvocationMetrics.emitTo(new PrintStream(emitted, true, StandardCharsets.UTF_8));
+        StringBuilder ids = new StringBuilder("[");
+        for (int i = 0; i < 250; i++) {
+            ids.append(i == 0 ? "" : ",").append('"').append(i).append('"');
+        }
+        RetrieveEmployeesLambda lambda = new RetrieveEmployeesLambda(stubDynamoDbClient());
+
+        assertEquals(200, lambda.handleRequest(new APIGatewayProxyRequestEvent().withBody(ids.append(']').toString()), context).getStatusCode());
+
+        JsonNode line = singleLine();
+        // 250 ids are three BatchGetItem calls, sent from the batch pool
+        assertEquals(3, line.get("DynamoDb.BatchGetItem.Calls").asInt());
+        assertEquals(1.5, line.get("DynamoDb.BatchGetItem.ConsumedCapacity").asDouble());
+    }
+
+    @Test
+    void reportsARoutedHandlerInTheRoutersLine() throws IOException {
+        InvocationMetrics.emitTo(new PrintStream(emitted, true, StandardCharsets.UTF_8));
+        InMemoryEmployeeRepository repository = new InMemoryEmployeeRepository();
+        repository.add(new Employee("1", "John", "Doe", "Developer"));
+        repository.add(new Employee("2", "Jane", "Smith", "Designer"));
+        EmployeeApiRouter router = new EmployeeApiRouter(repository, mock(DynamoDbClient.class), newCache());
+
+        router.handleRequest(new APIGatewayProxyRequestEvent().withHttpMethod("GET").withPath("/retrieveAllEmployees"), context);
+
+        JsonNode line = singleLine();
+        assertEquals("EmployeeApiRouter", line.get("Handler").asText());
+        assertEquals("RetrieveAllEmployeesLambda", line.get("Route").asText());
+        assertEquals(2, line.get("Results").asInt());
+        assertFalse(line.has("DynamoDb.Scan.Calls"));
+    }
+
+    @Test
+    void emitsNothingWhenDisabled() {
+        InvocationMetrics.emitTo(null);
+        InMemoryEmployeeRepository repository = new InMemoryEmployeeRepository();
+
+        new RetrieveAllEmployeesLambda(repository).handleRequest(new APIGatewayProxyRequestEvent(), context);
+
+        assertEquals(0, emitted.size());
+        assertNull(InvocationMetrics.current());
+        verifyNoInteractions(context);
+    }
+
+    private JsonNode singleLine() throws IOException {
+        String output = emitted.toString(StandardCharsets.UTF_8);
+        assertTrue(output.endsWith("\n"));
+        assertEquals(1, output.lines().count(), output);
+        return new ObjectMapper().readTree(output);
+    }
+
+    private static EmployeeCache newCache() {
+        return new EmployeeCache(Duration.ofSeconds(30), 100, System::nanoTime);
+    }
+
+    /**
+     * A real client (signing, marshalling, interceptors) answering GetItem and BatchGetItem from memory, with the
+     * consumed capacity DynamoDB reports when asked for it.
+     */
+    private DynamoDbClient stubDynamoDbClient() {
+        SdkHttpClient httpClient = new SdkHttpClient() {
+            @Override
+            public ExecutableHttpRequest prepareRequest(HttpExecuteRequest request) {
+                String target = request.httpRequest().firstMatchingHeader("X-Amz-Target").orElse("");
+                String body = target.endsWith(".GetItem")
+                        ? "{\"Item\":" + ITEM + ",\"ConsumedCapacity\":" + CAPACITY + "}"
+                        : "{\"Responses\":{\"Employee\":[" + ITEM + "]},\"UnprocessedKeys\":{},\"ConsumedCapacity\":[" + CAPACITY + "]}";
+                request.contentStreamProvider().ifPresent(content -> {
+                    try {
+                        requestBodies.add(new String(content.newStream().readAllBytes(), StandardCharsets.UTF_8));
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                return new ExecutableHttpRequest() {
+                    @Override
+                    public HttpExecuteResponse call() {
+                        return HttpExecuteResponse.builder()
+                                .response(SdkHttpResponse.builder()
+                                        .statusCode(200)
+                                        .putHeader("Content-Type", "application/x-amz-json-1.0")
+                                        .putHeader("Content-Length", Integer.toString(bytes.length))
+                                        .build())
+                                .responseBody(AbortableInputStream.create(new ByteArrayInputStream(bytes)))
+                                .build();
+                    }
+
+                    @Override
+                    public void abort() {
+                    }
+                };
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        return DynamoDbClient.builder()
+                .httpClient(httpClient)
+                .region(Region.EU_WEST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("key", "secret")))
+                .overrideConfiguration(configuration -> configuration
+                        .addExecutionInterceptor(new DynamoDbMetricsInterceptor(ReturnConsumedCapacity.TOTAL)))
+                .build();
+    }
+}
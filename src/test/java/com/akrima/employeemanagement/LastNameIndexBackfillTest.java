@@ -0,0 +1,59 @@
+package com.akrima.employeemanagement;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class LastNameIndexBackfillTest {
+
+    private final DynamoDbClient dynamoDbClient = mock(DynamoDbClient.class);
+
+    @Test
+    void setsTheDerivedAttributesOfEveryPageOnly() throws Exception {
+        Map<String, AttributeValue> lastKey = Map.of("id", s("2"));
+        when(dynamoDbClient.scan(any(ScanRequest.class)))
+                .thenReturn(ScanResponse.builder()
+                        .items(List.of(Map.of("id", s("1"), "lastName", s("  Müller")), Map.of("id", s("2"), "lastName", s(" "))))
+                        .lastEvaluatedKey(lastKey)
+                        .build())
+                .thenReturn(ScanResponse.builder()
+                        .items(List.of(Map.of("id", s("3"), "lastName", s("Doe")), Map.of("id", s("4"), "lastName", s("Renamed"))))
+                        .build());
+        when(dynamoDbClient.updateItem(argThat((UpdateItemRequest request) -> request.key().get("id").s().equals("4"))))
+                .thenThrow(ConditionalCheckFailedException.builder().build());
+
+        assertEquals(2, new LastNameIndexBackfill(dynamoDbClient, 1, 1).backfill());
+
+        ArgumentCaptor<ScanRequest> scans = ArgumentCaptor.forClass(ScanRequest.class);
+        verify(dynamoDbClient, times(2)).scan(scans.capture());
+        assertEquals("attribute_exists(lastName) AND attribute_not_exists(#lastNameKey)", scans.getAllValues().get(0).filterExpression());
+        assertEquals(lastKey, scans.getAllValues().get(1).exclusiveStartKey());
+
+        ArgumentCaptor<UpdateItemRequest> updates = ArgumentCaptor.forClass(UpdateItemRequest.class);
+        verify(dynamoDbClient, times(3)).updateItem(updates.capture());
+        UpdateItemRequest muller = updates.getAllValues().get(0);
+        assertEquals("1", muller.key().get("id").s());
+        assertEquals("SET #lastNameKey = :lastNameKey, #lastNameInitial = :lastNameInitial", muller.updateExpression());
+        assertEquals("lastName = :lastName", muller.conditionExpression());
+        assertEquals("muller", muller.expressionAttributeValues().get(":lastNameKey").s());
+        assertEquals("m", muller.expressionAttributeValues().get(":lastNameInitial").s());
+        assertEquals("  Müller", muller.expressionAttributeValues().get(":lastName").s());
+    }
+
+    private static AttributeValue s(String value) {
+        return AttributeValue.builder().s(value).build();
+    }
+}
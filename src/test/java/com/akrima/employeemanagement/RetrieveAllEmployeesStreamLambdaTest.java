@@ -0,0 +1,231 @@
+package com.akrima.employeemanagement;
+
+import com.akrima.employeemanagement.model.Employee;
+import com.akrima.employeemanagement.model.EmployeePage;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class RetrieveAllEmployeesStreamLambdaTest {
+
+    // A List<Employee> of 1M items alone is well over 100 MB
+    private static final long MAX_LIVE_HEAP_GROWTH_BYTES = 8L * 1024 * 1024;
+    // A full GC per sample: twice during the 10k run, and few enough that the 1M run stays short
+    private static final int SAMPLE_INTERVAL_EMPLOYEES = 5_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Context context = mock(Context.class);
+
+    @Test
+    void writesAnApiGatewayProxyResponse() throws IOException {
+        InMemoryEmployeeRepository repository = new InMemoryEmployeeRepository();
+        repository.add(new Employee("1", "John \"JD\"", "Doe\\Smith", "Developer"));
+        repository.add(new Employee("2", "Jöhn", "Dœ", null));
+
+        Map<String, Object> response = objectMapper.readValue(invoke(new RetrieveAllEmployeesStreamLambda(repository), "{}"), new TypeReference<>() {});
+
+        assertEquals(200, response.get("statusCode"));
+        assertEquals(withoutVersions(repository.findAll()), objectMapper.readValue((String) response.get("body"), new TypeReference<List<Employee>>() {}));
+    }
+
+    @Test
+    void honoursFieldsAndRejectsUnknownOnes() throws IOException {
+        InMemoryEmployeeRepository repository = new InMemoryEmployeeRepository();
+        repository.add(new Employee("1", "John", "Doe", "Developer"));
+        RetrieveAllEmployeesStreamLambda lambda = new RetrieveAllEmployeesStreamLambda(repository);
+
+        Map<String, Object> response = objectMapper.readValue(invoke(lambda,
+                "{\"resource\":\"/x\",\"headers\":{\"a\":\"b\"},\"queryStringParameters\":{\"limit\":\"1\",\"fields\":\"lastName\"}}"), new TypeReference<>() {});
+        assertEquals("[{\"lastName\":\"Doe\"}]", response.get("body"));
+
+        response = objectMapper.readValue(invoke(lambda, "{\"queryStringParameters\":{\"fields\":\"salary\"}}"), new TypeReference<>() {});
+        assertEquals(400, response.get("statusCode"));
+    }
+
+    @Test
+    void writesTheResponseStreamingFormat() throws IOException {
+        InMemoryEmployeeRepository repository = new InMemoryEmployeeRepository();
+        repository.add(new Employee("1", "John", "Doe", "Developer"));
+
+        byte[] output = invoke(new RetrieveAllEmployeesStreamLambda(repository, true), "{}");
+
+        String expectedPrelude = "{\"statusCode\":200,\"headers\":{\"Content-Type\":\"application/json\"}}";
+        int bodyStart = expectedPrelude.length() + 8;
+        assertEquals(expectedPrelude, new String(output, 0, expectedPrelude.length(), StandardCharsets.UTF_8));
+        assertArrayEquals(new byte[8], Arrays.copyOfRange(output, expectedPrelude.length(), bodyStart));
+        assertEquals(withoutVersions(repository.findAll()), objectMapper.readValue(Arrays.copyOfRange(output, bodyStart, output.length), new TypeReference<List<Employee>>() {}));
+    }
+
+    @Test
+    void liveHeapStaysFlatFromTenThousandToOneMillionEmployees() throws IOException {
+        HeapProfile tenThousand = liveHeapProfile(10_000);
+        HeapProfile oneMillion = liveHeapProfile(1_000_000);
+
+        assertTrue(tenThousand.baseline() > 0 && oneMillion.baseline() > 0, "No baseline measured");
+        assertEquals(10_000 / SAMPLE_INTERVAL_EMPLOYEES, tenThousand.samples());
+        assertEquals(1_000_000 / SAMPLE_INTERVAL_EMPLOYEES, oneMillion.samples());
+        assertTrue(oneMillion.growth() < MAX_LIVE_HEAP_GROWTH_BYTES, "Live heap grew by " + oneMillion.growth() + " bytes for 1M employees");
+        assertTrue(oneMillion.growth() - tenThousand.growth() < MAX_LIVE_HEAP_GROWTH_BYTES / 2,
+                "Live heap growth went from " + tenThousand.growth() + " to " + oneMillion.growth() + " bytes");
+    }
+
+    /**
+     * Streams {@code employeeCount} generated employees, measuring the live heap every
+     * {@value #SAMPLE_INTERVAL_EMPLOYEES} employees, i.e. while the handler is in the middle of its response.
+     */
+    private HeapProfile liveHeapProfile(int employeeCount) throws IOException {
+        HeapSampler sampler = new HeapSampler();
+        RetrieveAllEmployeesStreamLambda lambda = new RetrieveAllEmployeesStreamLambda(new GeneratedEmployeeRepository(employeeCount, sampler));
+        long baseline = liveHeap();
+        CountingOutputStream out = new CountingOutputStream();
+        lambda.handleRequest(new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)), out, context);
+        assertTrue(out.written > employeeCount * 60L, "Only " + out.written + " bytes written");
+        return new HeapProfile(baseline, sampler.maxLiveHeap, sampler.samples);
+    }
+
+    private byte[] invoke(RetrieveAllEmployeesStreamLambda lambda, String event) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        InputStream input = new ByteArrayInputStream(event.getBytes(StandardCharsets.UTF_8));
+        lambda.handleRequest(input, output, context);
+        return output.toByteArray();
+    }
+
+    /**
+     * Versions are not part of the JSON body.
+     */
+    private static List<Employee> withoutVersions(List<Employee> employees) {
+        return employees.stream().map(employee -> employee.withVersion(null)).toList();
+    }
+
+    private static long liveHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private record HeapProfile(long baseline, long maxLiveHeap, int samples) {
+        long growth() {
+            return maxLiveHeap - baseline;
+        }
+    }
+
+    private static final class HeapSampler {
+        private long maxLiveHeap = Long.MIN_VALUE;
+        private int samples;
+
+        void sample() {
+            maxLiveHeap = Math.max(maxLiveHeap, liveHeap());
+            samples++;
+        }
+    }
+
+    /**
+     * Discards the output, counting the bytes written.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long written;
+
+        @Override
+        public void write(int b) {
+            written++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            written += len;
+        }
+    }
+
+    /**
+     * Produces employees on the fly, so the table itself takes no heap and only the handler's usage is measured, and
+     * samples the live heap as the handler pulls them.
+     */
+    private record GeneratedEmployeeRepository(int employeeCount, HeapSampler sampler) implements EmployeeRepository {
+
+        @Override
+        public Iterable<Employee> scan(EmployeeFields fields) {
+            return () -> new Iterator<>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < employeeCount;
+                }
+
+                @Override
+                public Employee next() {
+                    if (next >= employeeCount) {
+                        throw new NoSuchElementException();
+                    }
+                    int i = next++;
+                    if (next % SAMPLE_INTERVAL_EMPLOYEES == 0) {
+                        sampler.sample();
+                    }
+                    return new Employee("employee-" + i, "First" + i, "Last" + i, "Position" + (i % 20));
+                }
+            };
+        }
+
+        @Override
+        public Employee findById(String id, EmployeeFields fields) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Employee> findAll(EmployeeFields fields, boolean consistentRead) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long directoryVersion() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public EmployeePage findByJobPosition(String jobPosition, int limit, String cursor, EmployeeFields fields) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public EmployeePage findByLastNamePrefix(String prefix, int limit, String cursor, EmployeeFields fields) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public EmployeePage findPage(int limit, String cursor, EmployeeFields fields) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean add(Employee employee) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean update(Employee employee) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean delete(String id) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.akrima.employeemanagement.coldstart;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Starts one JVM per handler and records, up to the end of its first handleRequest, the time since JVM start and
+ * the number of loaded classes. The numbers are printed and written to target/cold-start.csv so a regression shows
+ * up on every build. Run it alone with {@code mvn test -Dtest=ColdStartHarnessTest}; to measure a packaged jar
+ * instead of target/classes, pass {@code -Dcoldstart.classpath=target/<jar>:target/test-classes}.
+ */
+class ColdStartHarnessTest {
+
+    @Test
+    void measuresTheFirstInvocationOfEveryHandler() throws Exception {
+        List<String> rows = new ArrayList<>();
+        rows.add("handler,status,millisToFirstResponse,loadedClasses");
+        try (StubDynamoDbEndpoint dynamoDb = StubDynamoDbEndpoint.start()) {
+            for (String handlerName : new TreeSet<>(ColdStartProbe.HANDLERS)) {
+                String row = probe(handlerName, dynamoDb.url());
+                int status = Integer.parseInt(row.split(",")[1]);
+                assertTrue(status >= 200 && status < 300, row);
+                rows.add(row);
+            }
+        }
+
+        Path report = Path.of("target", "cold-start.csv");
+        Files.createDirectories(report.getParent());
+        Files.write(report, rows, StandardCharsets.UTF_8);
+        System.out.printf("%-28s %6s %8s %8s%n", "handler", "status", "millis", "classes");
+        rows.stream().skip(1).map(row -> row.split(","))
+                .forEach(columns -> System.out.printf("%-28s %6s %8s %8s%n", (Object[]) columns));
+    }
+
+    private static String probe(String handlerName, String dynamoDbEndpoint) throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        // C1 only, as a small Lambda would effectively run during its first invocation
+        ProcessBuilder processBuilder = new ProcessBuilder(java, "-XX:TieredStopAtLevel=1",
+                "-cp", System.getProperty("coldstart.classpath", System.getProperty("java.class.path")),
+                ColdStartProbe.class.getName(), handlerName)
+                .redirectError(ProcessBuilder.Redirect.INHERIT);
+        // What the Lambda runtime exports, pointed at the stub
+        Map<String, String> environment = processBuilder.environment();
+        environment.put("AWS_REGION", "us-east-1");
+        environment.put("AWS_ACCESS_KEY_ID", "cold");
+        environment.put("AWS_SECRET_ACCESS_KEY", "start");
+        environment.put("DYNAMODB_ENDPOINT", dynamoDbEndpoint);
+        Process process = processBuilder.start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+        assertTrue(process.waitFor(60, TimeUnit.SECONDS), handlerName + " did not finish");
+        assertEquals(0, process.exitValue(), handlerName + " failed: " + output);
+        String[] lines = output.split("\\R");
+        return lines[lines.length - 1];
+    }
+}
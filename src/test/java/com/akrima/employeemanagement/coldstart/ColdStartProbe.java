@@ -0,0 +1,92 @@
+package com.akrima.employeemanagement.coldstart;
+
+import com.amazonaws.services.lambda.runtime.ClientContext;
+import com.amazonaws.services.lambda.runtime.CognitoIdentity;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs in a fresh JVM: builds one handler the way the Lambda runtime would, through its default constructor, so the
+ * shared DynamoDB client is created from the environment as in production, sends it a single request and prints
+ * {@code <handler>,<status>,<millis since JVM start>,<loaded classes>} once the first handleRequest has completed.
+ */
+public class ColdStartProbe {
+
+    static final List<String> HANDLERS = List.of(
+            "AddEmployeeLambda",
+            "RetrieveEmployeeLambda",
+            "RetrieveAllEmployeesLambda",
+            "UpdateEmployeeLambda",
+            "DeleteEmployeeLambda",
+            "AddEmployeesLambda",
+            "RetrieveEmployeesLambda",
+            "EmployeeApiRouter"
+    );
+
+    private static final String EMPLOYEE = "{\"id\":\"1\",\"firstName\":\"John\",\"lastName\":\"Doe\",\"jobPosition\":\"Developer\"}";
+
+    @SuppressWarnings("unchecked")
+    public static void main(String[] args) throws ReflectiveOperationException {
+        String handlerName = args[0];
+        RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> handler =
+                (RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent>)
+                        Class.forName("com.akrima.employeemanagement." + handlerName).getDeclaredConstructor().newInstance();
+
+        APIGatewayProxyResponseEvent response = handler.handleRequest(request(handlerName), new ProbeContext());
+
+        long millis = ManagementFactory.getRuntimeMXBean().getUptime();
+        int loadedClasses = ManagementFactory.getClassLoadingMXBean().getLoadedClassCount();
+        System.out.println(handlerName + "," + response.getStatusCode() + "," + millis + "," + loadedClasses);
+    }
+
+    private static APIGatewayProxyRequestEvent request(String handlerName) {
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent();
+        switch (handlerName) {
+            case "AddEmployeeLambda", "UpdateEmployeeLambda" -> request.setBody(EMPLOYEE);
+            case "RetrieveEmployeeLambda", "DeleteEmployeeLambda" -> request.setPathParameters(Map.of("id", "1"));
+            case "AddEmployeesLambda" -> request.setBody("[" + EMPLOYEE + "]");
+            case "RetrieveEmployeesLambda" -> request.setBody("[\"1\"]");
+            case "EmployeeApiRouter" -> request.withHttpMethod("GET").withResource("/retrieveEmployee/{id}")
+                    .withPath("/retrieveEmployee/1").setPathParameters(Map.of("id", "1"));
+            default -> {
+            }
+        }
+        return request;
+    }
+
+    private static final class ProbeContext implements Context {
+        @Override public String getAwsRequestId() { return "cold-start"; }
+        @Override public String getLogGroupName() { return null; }
+        @Override public String getLogStreamName() { return null; }
+        @Override public String getFunctionName() { return "cold-start"; }
+        @Override public String getFunctionVersion() { return "$LATEST"; }
+        @Override public String getInvokedFunctionArn() { return null; }
+        @Override public CognitoIdentity getIdentity() { return null; }
+        @Override public ClientContext getClientContext() { return null; }
+        @Override public int getRemainingTimeInMillis() { return 30_000; }
+        @Override public int getMemoryLimitInMB() { return 512; }
+
+        @Override
+        public LambdaLogger getLogger() {
+            return new LambdaLogger() {
+                @Override
+                public void log(String message) {
+                    System.err.println(message);
+                }
+
+                @Override
+                public void log(byte[] message) {
+                    System.err.println(new String(message, StandardCharsets.UTF_8));
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.akrima.employeemanagement.coldstart;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Local HTTP endpoint answering every DynamoDB operation the handlers use with a canned response, so a cold start
+ * can be measured without the network: the probed JVM reaches it through DYNAMODB_ENDPOINT with the client the
+ * handlers build themselves, which still signs, sends, marshals and unmarshals as it would against DynamoDB.
+ */
+final class StubDynamoDbEndpoint implements AutoCloseable {
+
+    private static final String ITEM = "{\"id\":{\"S\":\"1\"},\"firstName\":{\"S\":\"John\"},"
+            + "\"lastName\":{\"S\":\"Doe\"},\"jobPosition\":{\"S\":\"Developer\"}}";
+
+    private static final Map<String, String> RESPONSES = Map.of(
+            "GetItem", "{\"Item\":" + ITEM + "}",
+            "PutItem", "{}",
+            "UpdateItem", "{}",
+            "DeleteItem", "{}",
+            "Scan", "{\"Items\":[" + ITEM + "],\"Count\":1,\"ScannedCount\":1}",
+            "BatchWriteItem", "{\"UnprocessedItems\":{}}",
+            "BatchGetItem", "{\"Responses\":{\"Employee\":[" + ITEM + "]},\"UnprocessedKeys\":{}}"
+    );
+
+    private final HttpServer server;
+
+    private StubDynamoDbEndpoint(HttpServer server) {
+        this.server = server;
+    }
+
+    static StubDynamoDbEndpoint start() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            try (InputStream requestBody = exchange.getRequestBody()) {
+                requestBody.readAllBytes();
+            }
+            // X-Amz-Target is "DynamoDB_20120810.<Operation>"
+            String target = exchange.getRequestHeaders().getFirst("X-Amz-Target");
+            String operation = target == null ? "" : target.substring(target.indexOf('.') + 1);
+            String body = RESPONSES.get(operation);
+            int status = 200;
+            if (body == null) {
+                status = 400;
+                body = "{\"__type\":\"com.amazon.coral.validate#ValidationException\",\"message\":\"No canned response for "
+                        + target + "\"}";
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/x-amz-json-1.0");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(bytes);
+            }
+        });
+        server.start();
+        return new StubDynamoDbEndpoint(server);
+    }
+
+    String url() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
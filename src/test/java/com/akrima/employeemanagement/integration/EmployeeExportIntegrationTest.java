@@ -0,0 +1,166 @@
+package com.akrima.employeemanagement.integration;
+
+import com.akrima.employeemanagement.EmployeeTableExporter;
+import com.akrima.employeemanagement.model.Employee;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.GenericContainer;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exports the Employee table from DynamoDB Local at 20k and then 100k items, and checks the live heap does not grow
+ * with the table size.
+ */
+public class EmployeeExportIntegrationTest {
+
+    private static final int DYNAMODB_PORT = 8000;
+    private static final String DYNAMODB_TABLE_NAME = "Employee";
+    private static final int SMALL_EMPLOYEE_COUNT = 20_000;
+    private static final int EMPLOYEE_COUNT = 100_000;
+    // A fully materialised List<Employee> of 100k items is around 30 MB, and 80k more items around 24 MB
+    private static final long MAX_LIVE_HEAP_GROWTH_BYTES = 16L * 1024 * 1024;
+
+    private static GenericContainer<?> dynamoDbContainer;
+    private static DynamoDbClient dynamoDbClient;
+
+    @BeforeAll
+    public static void setUp() {
+        dynamoDbContainer = new GenericContainer<>("amazon/dynamodb-local:latest")
+                .withExposedPorts(DYNAMODB_PORT);
+        dynamoDbContainer.start();
+
+        String serviceEndpoint = "http://" + dynamoDbContainer.getHost() + ":" + dynamoDbContainer.getMappedPort(DYNAMODB_PORT);
+
+        dynamoDbClient = DynamoDbClient.builder()
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("accessKey", "secretKey")))
+                .endpointOverride(URI.create(serviceEndpoint))
+                .build();
+
+        dynamoDbClient.createTable(CreateTableRequest.builder()
+                .attributeDefinitions(AttributeDefinition.builder().attributeName("id").attributeType(ScalarAttributeType.S).build())
+                .keySchema(KeySchemaElement.builder().attributeName("id").keyType(KeyType.HASH).build())
+                .billingMode(BillingMode.PAY_PER_REQUEST)
+                .tableName(DYNAMODB_TABLE_NAME)
+                .build());
+
+        load(0, SMALL_EMPLOYEE_COUNT);
+    }
+
+    /**
+     * Loads employees {@code from} (inclusive) to {@code to} (exclusive), 25 at a time, the BatchWriteItem maximum.
+     */
+    private static void load(int from, int to) {
+        IntStream.range(from / 25, to / 25).parallel().forEach(batch -> {
+            List<WriteRequest> writeRequests = new ArrayList<>(25);
+            for (int i = batch * 25; i < (batch + 1) * 25; i++) {
+                writeRequests.add(WriteRequest.builder().putRequest(PutRequest.builder().item(Map.of(
+                        "id", AttributeValue.builder().s("employee-" + i).build(),
+                        "firstName", AttributeValue.builder().s("First" + i).build(),
+                        "lastName", AttributeValue.builder().s("Last" + i).build(),
+                        "jobPosition", AttributeValue.builder().s("Position" + (i % 20)).build()
+                )).build()).build());
+            }
+            Map<String, List<WriteRequest>> pending = Map.of(DYNAMODB_TABLE_NAME, writeRequests);
+            while (!pending.isEmpty()) {
+                pending = dynamoDbClient.batchWriteItem(BatchWriteItemRequest.builder().requestItems(pending).build()).unprocessedItems();
+            }
+        });
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        dynamoDbContainer.stop();
+    }
+
+    @Test
+    public void testExportCompletesWithFlatHeap() throws IOException {
+        long small = exportedLiveHeapGrowth(SMALL_EMPLOYEE_COUNT);
+        load(SMALL_EMPLOYEE_COUNT, EMPLOYEE_COUNT);
+        long large = exportedLiveHeapGrowth(EMPLOYEE_COUNT);
+        System.out.printf("Live heap growth while exporting: 20k employees %d KB, 100k employees %d KB%n", small / 1024, large / 1024);
+
+        assertTrue(large < MAX_LIVE_HEAP_GROWTH_BYTES, "Live heap grew by " + large + " bytes for 100k employees");
+        // Materialising the table would add around 24 MB between the two exports
+        assertTrue(large - small < MAX_LIVE_HEAP_GROWTH_BYTES / 2,
+                "Live heap growth went from " + small + " to " + large + " bytes");
+    }
+
+    /**
+     * Exports the table, checks every employee appears exactly once, and returns the largest live heap growth seen
+     * during the export.
+     */
+    private static long exportedLiveHeapGrowth(int employeeCount) throws IOException {
+        Path exportFile = Files.createTempFile("employees", ".ndjson.gz");
+        try {
+            long baseline = liveHeap();
+            HeapSamplingOutputStream out = new HeapSamplingOutputStream(Files.newOutputStream(exportFile));
+            try (out) {
+                assertEquals(employeeCount, new EmployeeTableExporter(dynamoDbClient, 8, 8).export(out));
+            }
+            // The gzip header, the trailer, and at least one sample while the segments were being scanned
+            assertTrue(out.samples >= 3, "Only " + out.samples + " heap samples for " + employeeCount + " employees");
+
+            ObjectMapper objectMapper = new ObjectMapper();
+            Set<String> ids = new HashSet<>();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(exportFile)), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    assertTrue(ids.add(objectMapper.readValue(line, Employee.class).id()));
+                }
+            }
+            assertEquals(employeeCount, ids.size());
+            return out.maxLiveHeap - baseline;
+        } finally {
+            Files.deleteIfExists(exportFile);
+        }
+    }
+
+    private static long liveHeap() {
+        MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        return memoryMXBean.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Measures the live heap after a full GC on every write: the gzip stream writes its 64 KB deflate buffer at most,
+     * so a 20k-item export (around 2 MB of NDJSON) is sampled many times.
+     */
+    private static final class HeapSamplingOutputStream extends FilterOutputStream {
+
+        private int samples;
+        private long maxLiveHeap = Long.MIN_VALUE;
+
+        HeapSamplingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            samples++;
+            maxLiveHeap = Math.max(maxLiveHeap, liveHeap());
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.akrima.employeemanagement.integration;
+
+import com.akrima.employeemanagement.*;
+import com.akrima.employeemanagement.model.Employee;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.testcontainers.containers.GenericContainer;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives {@link EmployeeHttpServer} over HTTP with 1000 concurrent keep-alive connections against DynamoDB Local,
+ * and reports throughput and latency percentiles. The employee cache is disabled so reads reach DynamoDB.
+ * Opt-in with {@code -Dloadtest=true}; tune with {@code -Dloadtest.connections=1000 -Dloadtest.seconds=30}.
+ * <p>
+ * The JDK server settings that EmployeeManagementLambdaJavaApplication.main sets are read once per JVM, so surefire
+ * passes them to the test JVM (see the pom); raise {@code -Dsun.net.httpserver.maxIdleConnections} with the
+ * connections.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class EmployeeHttpServerLoadIntegrationTest {
+
+    private static final int DYNAMODB_PORT = 8000;
+    private static final int CONNECTIONS = Integer.getInteger("loadtest.connections", 1000);
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("loadtest.seconds", 30));
+    private static final int EMPLOYEES = 1000;
+    private static final List<String> JOB_POSITIONS = List.of("Developer", "Designer", "Manager", "Tester");
+
+    private static GenericContainer<?> dynamoDbContainer;
+    private static DynamoDbClient dynamoDbClient;
+
+    @BeforeAll
+    static void setUp() {
+        dynamoDbContainer = new GenericContainer<>("amazon/dynamodb-local:latest").withExposedPorts(DYNAMODB_PORT);
+        dynamoDbContainer.start();
+        // One client shared by every route, with a connection per concurrent request
+        dynamoDbClient = DynamoDbClient.builder()
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("accessKey", "secretKey")))
+                .endpointOverride(URI.create("http://" + dynamoDbContainer.getHost() + ":" + dynamoDbContainer.getMappedPort(DYNAMODB_PORT)))
+                .httpClientBuilder(ApacheHttpClient.builder().maxConnections(CONNECTIONS))
+                .build();
+        EmployeeLambdaIntegrationTest.createTables(dynamoDbClient);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        dynamoDbContainer.stop();
+    }
+
+    @Test
+    void reportsThroughputAndP99Latency() throws Exception {
+        EmployeeRepository employeeRepository = new DynamoDbEmployeeRepository(dynamoDbClient);
+        for (int i = 0; i < EMPLOYEES; i++) {
+            employeeRepository.add(new Employee(Integer.toString(i), "First" + i, "Last" + i, JOB_POSITIONS.get(i % JOB_POSITIONS.size())));
+        }
+        EmployeeHttpServer server = EmployeeHttpServer.start(new InetSocketAddress("localhost", 0), CONNECTIONS * 2,
+                new EmployeeApiRouter(DynamoDbEmployeeRepository.rateLimited(dynamoDbClient), dynamoDbClient,
+                        new EmployeeCache(Duration.ofSeconds(30), 0, System::nanoTime)));
+        ExecutorService clients = Executors.newFixedThreadPool(CONNECTIONS);
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        String baseUri = "http://localhost:" + server.port();
+        AtomicInteger nextId = new AtomicInteger(EMPLOYEES);
+        AtomicLong errors = new AtomicLong();
+        try {
+            // Warm up the JIT, the connection pools and DynamoDB Local before measuring
+            run(clients, httpClient, baseUri, nextId, errors, System.nanoTime() + Duration.ofSeconds(5).toNanos());
+            errors.set(0);
+
+            long start = System.nanoTime();
+            long[] latencies = run(clients, httpClient, baseUri, nextId, errors, start + DURATION.toNanos());
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            Arrays.sort(latencies);
+            System.out.printf("%d requests over %d connections in %.1f s: %.0f requests/s, p50 %.1f ms, p99 %.1f ms, max %.1f ms, %d errors%n",
+                    latencies.length, CONNECTIONS, seconds, latencies.length / seconds,
+                    percentile(latencies, 0.50) / 1e6, percentile(latencies, 0.99) / 1e6,
+                    latencies[latencies.length - 1] / 1e6, errors.get());
+            assertTrue(latencies.length > 0);
+            assertEquals(0, errors.get());
+        } finally {
+            clients.shutdownNow();
+            server.stop(Duration.ZERO);
+        }
+    }
+
+    /**
+     * One worker per connection until {@code deadlineNanos}, each sending its next request once the previous one
+     * answered: 60% reads by id, 20% pages by job position, 10% updates, 10% adds.
+     *
+     * @return the latency of every request, in nanoseconds
+     */
+    private static long[] run(ExecutorService clients, HttpClient httpClient, String baseUri, AtomicInteger nextId,
+                              AtomicLong errors, long deadlineNanos) throws Exception {
+        CountDownLatch ready = new CountDownLatch(CONNECTIONS);
+        List<Future<long[]>> workers = new ArrayList<>(CONNECTIONS);
+        for (int c = 0; c < CONNECTIONS; c++) {
+            workers.add(clients.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long[] latencies = new long[1024];
+                int count = 0;
+                ready.countDown();
+                ready.await();
+                while (System.nanoTime() < deadlineNanos) {
+                    HttpRequest request = nextRequest(random, baseUri, nextId);
+                    long sent = System.nanoTime();
+                    try {
+                        int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        if (status >= 500 || status == 429) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = System.nanoTime() - sent;
+                }
+                return Arrays.copyOf(latencies, count);
+            }));
+        }
+
+        List<long[]> results = new ArrayList<>(CONNECTIONS);
+        int total = 0;
+        for (Future<long[]> worker : workers) {
+            long[] latencies = worker.get(DURATION.toSeconds() + 60, TimeUnit.SECONDS);
+            results.add(latencies);
+            total += latencies.length;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (long[] latencies : results) {
+            System.arraycopy(latencies, 0, all, offset, latencies.length);
+            offset += latencies.length;
+        }
+        return all;
+    }
+
+    private static HttpRequest nextRequest(ThreadLocalRandom random, String baseUri, AtomicInteger nextId) {
+        int operation = random.nextInt(100);
+        String id = Integer.toString(random.nextInt(EMPLOYEES));
+        if (operation < 60) {
+            return HttpRequest.newBuilder(URI.create(baseUri + "/retrieveEmployee/" + id)).build();
+        }
+        if (operation < 80) {
+            return HttpRequest.newBuilder(URI.create(baseUri + "/employees?limit=20&jobPosition="
+                    + JOB_POSITIONS.get(random.nextInt(JOB_POSITIONS.size())))).build();
+        }
+        if (operation < 90) {
+            return HttpRequest.newBuilder(URI.create(baseUri + "/updateEmployee"))
+                    .POST(HttpRequest.BodyPublishers.ofString(json(id, JOB_POSITIONS.get(random.nextInt(JOB_POSITIONS.size())))))
+                    .build();
+        }
+        return HttpRequest.newBuilder(URI.create(baseUri + "/addEmployee"))
+                .POST(HttpRequest.BodyPublishers.ofString(json(Integer.toString(nextId.getAndIncrement()), "Developer")))
+                .build();
+    }
+
+    private static String json(String id, String jobPosition) {
+        return "{\"id\":\"" + id + "\",\"firstName\":\"First\",\"lastName\":\"Last\",\"jobPosition\":\"" + jobPosition + "\"}";
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted[Math.max(0, (int) Math.ceil(fraction * sorted.length) - 1)];
+    }
+}
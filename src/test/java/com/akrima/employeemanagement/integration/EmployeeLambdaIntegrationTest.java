@@ -2,6 +2,7 @@ package com.akrima.employeemanagement.integration;
 
 import com.akrima.employeemanagement.*;
 import com.akrima.employeemanagement.model.Employee;
+import com.akrima.employeemanagement.model.EmployeePage;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.LambdaLogger;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
@@ -22,13 +23,19 @@ import software.amazon.awssdk.services.dynamodb.model.*;
 
 import java.io.IOException;
 import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
@@ -68,7 +75,7 @@ public class EmployeeLambdaIntegrationTest {
                 .endpointOverride(URI.create(serviceEndpoint))
                 .build();
 
-        createTable();
+        createTables(dynamoDbClient);
 
     }
 
@@ -77,15 +84,54 @@ public class EmployeeLambdaIntegrationTest {
         dynamoDbContainer.stop();
     }
 
-    private static void createTable() {
+    /**
+     * The tables of template.yaml the handlers need, in DynamoDB Local.
+     */
+    static void createTables(DynamoDbClient dynamoDbClient) {
         CreateTableRequest createTableRequest = CreateTableRequest.builder()
-                .attributeDefinitions(AttributeDefinition.builder().attributeName("id").attributeType(ScalarAttributeType.S).build())
+                .attributeDefinitions(
+                        AttributeDefinition.builder().attributeName("id").attributeType(ScalarAttributeType.S).build(),
+                        AttributeDefinition.builder().attributeName("jobPosition").attributeType(ScalarAttributeType.S).build(),
+                        AttributeDefinition.builder().attributeName(EmployeeItemMapper.LAST_NAME_INITIAL).attributeType(ScalarAttributeType.S).build(),
+                        AttributeDefinition.builder().attributeName(EmployeeItemMapper.LAST_NAME_KEY).attributeType(ScalarAttributeType.S).build())
                 .keySchema(KeySchemaElement.builder().attributeName("id").keyType(KeyType.HASH).build())
                 .provisionedThroughput(ProvisionedThroughput.builder().readCapacityUnits(1L).writeCapacityUnits(1L).build())
+                // Same indexes as the EmployeeTable resource in template.yaml
+                .globalSecondaryIndexes(GlobalSecondaryIndex.builder()
+                        .indexName(DynamoDbEmployeeRepository.JOB_POSITION_INDEX_NAME)
+                        .keySchema(
+                                KeySchemaElement.builder().attributeName("jobPosition").keyType(KeyType.HASH).build(),
+                                KeySchemaElement.builder().attributeName("id").keyType(KeyType.RANGE).build())
+                        .projection(Projection.builder().projectionType(ProjectionType.ALL).build())
+                        .provisionedThroughput(ProvisionedThroughput.builder().readCapacityUnits(1L).writeCapacityUnits(1L).build())
+                        .build(), GlobalSecondaryIndex.builder()
+                        .indexName(DynamoDbEmployeeRepository.LAST_NAME_INDEX_NAME)
+                        .keySchema(
+                                KeySchemaElement.builder().attributeName(EmployeeItemMapper.LAST_NAME_INITIAL).keyType(KeyType.HASH).build(),
+                                KeySchemaElement.builder().attributeName(EmployeeItemMapper.LAST_NAME_KEY).keyType(KeyType.RANGE).build())
+                        .projection(Projection.builder().projectionType(ProjectionType.ALL).build())
+                        .provisionedThroughput(ProvisionedThroughput.builder().readCapacityUnits(1L).writeCapacityUnits(1L).build())
+                        .build())
                 .tableName(DYNAMODB_TABLE_NAME)
                 .build();
 
         dynamoDbClient.createTable(createTableRequest);
+
+        // The EmployeeDirectoryVersionTable resource, see DirectoryVersion
+        dynamoDbClient.createTable(CreateTableRequest.builder()
+                .attributeDefinitions(AttributeDefinition.builder().attributeName("directory").attributeType(ScalarAttributeType.S).build())
+                .keySchema(KeySchemaElement.builder().attributeName("directory").keyType(KeyType.HASH).build())
+                .provisionedThroughput(ProvisionedThroughput.builder().readCapacityUnits(1L).writeCapacityUnits(1L).build())
+                .tableName(DirectoryVersion.TABLE_NAME)
+                .build());
+
+        // The EmployeeIdempotencyTable resource, see DynamoDbIdempotencyStore
+        dynamoDbClient.createTable(CreateTableRequest.builder()
+                .attributeDefinitions(AttributeDefinition.builder().attributeName("idempotencyKey").attributeType(ScalarAttributeType.S).build())
+                .keySchema(KeySchemaElement.builder().attributeName("idempotencyKey").keyType(KeyType.HASH).build())
+                .provisionedThroughput(ProvisionedThroughput.builder().readCapacityUnits(1L).writeCapacityUnits(1L).build())
+                .tableName(DynamoDbIdempotencyStore.TABLE_NAME)
+                .build());
     }
 
     @Test
@@ -469,5 +515,345 @@ public class EmployeeLambdaIntegrationTest {
         assertEquals(500, responseEvent.getStatusCode());
     }
 
+    @Test
+    @Order(15)
+    public void testRetrieveAllEmployeesLambda_Paginated() throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        // Collect the whole table page by page, one employee per page
+        List<String> pagedIds = new ArrayList<>();
+        String cursor = null;
+        do {
+            Map<String, String> queryParameters = new HashMap<>();
+            queryParameters.put("limit", "1");
+            if (cursor != null) {
+                queryParameters.put("cursor", cursor);
+            }
+            APIGatewayProxyRequestEvent apiGatewayProxyRequestEvent = new APIGatewayProxyRequestEvent();
+            apiGatewayProxyRequestEvent.setQueryStringParameters(queryParameters);
+
+            APIGatewayProxyResponseEvent responseEvent = new RetrieveAllEmployeesLambda(dynamoDbClient).handleRequest(apiGatewayProxyRequestEvent, mockContext);
+            assertEquals(200, responseEvent.getStatusCode());
+
+            EmployeePage page = objectMapper.readValue(responseEvent.getBody(), EmployeePage.class);
+            assertTrue(page.items().size() <= 1);
+            page.items().forEach(employee -> pagedIds.add(employee.id()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        // The pages together contain exactly the employees of an unpaginated call
+        APIGatewayProxyResponseEvent allEmployeesResponse = new RetrieveAllEmployeesLambda(dynamoDbClient).handleRequest(new APIGatewayProxyRequestEvent(), mockContext);
+        List<Employee> allEmployees = objectMapper.readValue(allEmployeesResponse.getBody(), new TypeReference<>() {});
+        assertEquals(allEmployees.stream().map(Employee::id).sorted().toList(), pagedIds.stream().sorted().toList());
+    }
+
+    @Test
+    @Order(16)
+    public void testRetrieveAllEmployeesLambda_InvalidPagingParameters() {
+        APIGatewayProxyRequestEvent apiGatewayProxyRequestEvent = new APIGatewayProxyRequestEvent();
+        apiGatewayProxyRequestEvent.setQueryStringParameters(Map.of("limit", "0"));
+        APIGatewayProxyResponseEvent responseEvent = new RetrieveAllEmployeesLambda(dynamoDbClient).handleRequest(apiGatewayProxyRequestEvent, mockContext);
+        assertEquals(400, responseEvent.getStatusCode());
+
+        apiGatewayProxyRequestEvent.setQueryStringParameters(Map.of("cursor", "not-a-cursor"));
+        responseEvent = new RetrieveAllEmployeesLambda(dynamoDbClient).handleRequest(apiGatewayProxyRequestEvent, mockContext);
+        assertEquals(400, responseEvent.getStatusCode());
+        assertEquals("Invalid cursor.", responseEvent.getBody());
+    }
+
+    @Test
+    @Order(17)
+    public void testAddEmployeesLambda() throws JsonProcessingException {
+        // Arrange: 60 employees (three BatchWriteItem chunks), one id repeated and one missing
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            employees.add(new Employee("bulk-" + i, "First" + i, "Last" + i, "Developer"));
+        }
+        employees.add(new Employee("bulk-0", "Again", "Again", "Developer"));
+        employees.add(new Employee(null, "No", "Id", "Developer"));
+
+        APIGatewayProxyRequestEvent apiGatewayProxyRequestEvent = new APIGatewayProxyRequestEvent();
+        apiGatewayProxyRequestEvent.setBody(new ObjectMapper().writeValueAsString(employees));
+
+        // Act
+        APIGatewayProxyResponseEvent responseEvent = new AddEmployeesLambda(dynamoDbClient).handleRequest(apiGatewayProxyRequestEvent, mockContext);
+
+        // Assert
+        assertEquals(207, responseEvent.getStatusCode());
+        Map<String, Object> body = new ObjectMapper().readValue(responseEvent.getBody(), new TypeReference<>() {});
+        assertEquals(60, body.get("written"));
+        assertEquals(2, body.get("notWritten"));
+        List<Map<String, String>> results = (List<Map<String, String>>) body.get("results");
+        assertEquals("written", results.get(0).get("status"));
+        assertEquals("duplicate", results.get(60).get("status"));
+        assertEquals("invalid", results.get(61).get("status"));
+
+        for (int i = 0; i < 60; i++) {
+            GetItemResponse getItemResponse = dynamoDbClient.getItem(GetItemRequest.builder()
+                    .tableName(DYNAMODB_TABLE_NAME)
+                    .key(Map.of("id", AttributeValue.builder().s("bulk-" + i).build()))
+                    .build());
+            assertEquals("First" + i, getItemResponse.item().get("firstName").s());
+        }
+
+        // An id already in the table is a duplicate, as for addEmployee, and is not overwritten
+        apiGatewayProxyRequestEvent.setBody(new ObjectMapper().writeValueAsString(List.of(new Employee("bulk-1", "Other", "Other", "Designer"))));
+        responseEvent = new AddEmployeesLambda(dynamoDbClient).handleRequest(apiGatewayProxyRequestEvent, mockContext);
+        assertEquals(207, responseEvent.getStatusCode());
+        assertTrue(responseEvent.getBody().contains("\"status\":\"duplicate\""));
+        assertEquals("First1", dynamoDbClient.getItem(GetItemRequest.builder()
+                .tableName(DYNAMODB_TABLE_NAME)
+                .key(Map.of("id", AttributeValue.builder().s("bulk-1").build()))
+                .build()).item().get("firstName").s());
+    }
+
+    @Test
+    @Order(18)
+    public void testRetrieveEmployeesLambda() throws JsonProcessingException {
+        // Arrange: the 60 bulk employees and 52 unknown ids, 112 keys in two BatchGetItem chunks
+        List<String> ids = new ArrayList<>();
+        for (int i = 59; i >= 0; i--) {
+            ids.add("bulk-" + i);
+        }
+        ids.add("unknown-1");
+        ids.add("unknown-2");
+        for (int i = 0; i < 50; i++) {
+            ids.add("extra-unknown-" + i);
+        }
+
+        APIGatewayProxyRequestEvent apiGatewayProxyRequestEvent = new APIGatewayProxyRequestEvent();
+        apiGatewayProxyRequestEvent.setBody(new ObjectMapper().writeValueAsString(ids));
+
+        // Act
+        APIGatewayProxyResponseEvent responseEvent = new RetrieveEmployeesLambda(dynamoDbClient).handleRequest(apiGatewayProxyRequestEvent, mockContext);
+
+        // Assert
+        assertEquals(200, responseEvent.getStatusCode());
+        Map<String, Object> body = new ObjectMapper().readValue(responseEvent.getBody(), new TypeReference<>() {});
+        List<Map<String, String>> employees = (List<Map<String, String>>) body.get("employees");
+        List<String> missingIds = (List<String>) body.get("missingIds");
+        assertEquals(60, employees.size());
+        assertEquals("bulk-59", employees.get(0).get("id"));
+        assertEquals("First59", employees.get(0).get("firstName"));
+        assertEquals(52, missingIds.size());
+        assertEquals("unknown-1", missingIds.get(0));
+        assertTrue(((List<?>) body.get("unprocessedIds")).isEmpty());
+    }
+
+    @Test
+    @Order(19)
+    public void testRetrieveEmployeesLambda_InvalidInput() {
+        APIGatewayProxyRequestEvent apiGatewayProxyRequestEvent = new APIGatewayProxyRequestEvent();
+        apiGatewayProxyRequestEvent.setBody("[]");
+
+        APIGatewayProxyResponseEvent responseEvent = new RetrieveEmployeesLambda(dynamoDbClient).handleRequest(apiGatewayProxyRequestEvent, mockContext);
+
+        assertEquals(400, responseEvent.getStatusCode());
+    }
+
+    @Test
+    @Order(20)
+    public void testRetrieveLambdas_SparseFieldset() throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        dynamoDbClient.putItem(PutItemRequest.builder()
+                .tableName(DYNAMODB_TABLE_NAME)
+                .item(EmployeeItemMapper.toItem(new Employee("sparse-1", "Ada", "Lovelace", "Engineer")))
+                .build());
+
+        APIGatewayProxyRequestEvent apiGatewayProxyRequestEvent = new APIGatewayProxyRequestEvent();
+        apiGatewayProxyRequestEvent.setPathParameters(Map.of("id", "sparse-1"));
+        apiGatewayProxyRequestEvent.setQueryStringParameters(Map.of("fields", "id,lastName"));
+        APIGatewayProxyResponseEvent responseEvent = new RetrieveEmployeeLambda(dynamoDbClient).handleRequest(apiGatewayProxyRequestEvent, mockContext);
+        assertEquals(200, responseEvent.getStatusCode());
+        assertEquals("{\"id\":\"sparse-1\",\"lastName\":\"Lovelace\"}", responseEvent.getBody());
+
+        APIGatewayProxyRequestEvent retrieveAllRequestEvent = new APIGatewayProxyRequestEvent();
+        retrieveAllRequestEvent.setQueryStringParameters(Map.of("fields", "lastName", "limit", "5"));
+        responseEvent = new RetrieveAllEmployeesLambda(dynamoDbClient).handleRequest(retrieveAllRequestEvent, mockContext);
+        assertEquals(200, responseEvent.getStatusCode());
+        Map<String, Object> page = objectMapper.readValue(responseEvent.getBody(), new TypeReference<>() {});
+        List<?> items = (List<?>) page.get("items");
+        assertFalse(items.isEmpty());
+        items.forEach(item -> assertEquals(Set.of("lastName"), ((Map<?, ?>) item).keySet()));
+
+        retrieveAllRequestEvent.setQueryStringParameters(Map.of("fields", "salary"));
+        responseEvent = new RetrieveAllEmployeesLambda(dynamoDbClient).handleRequest(retrieveAllRequestEvent, mockContext);
+        assertEquals(400, responseEvent.getStatusCode());
+    }
 
+    @Test
+    @Order(21)
+    public void testQueryEmployeesLambda_ByJobPosition() throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Arrays.asList(new Employee("astronaut-1", "Neil", "Armstrong", "Astronaut"),
+                        new Employee("astronaut-2", "Sally", "Ride", "Astronaut"),
+                        new Employee("astronaut-3", "Yuri", "Gagarin", "Astronaut"),
+                        new Employee("pilot-1", "Amelia", "Earhart", "Pilot"))
+                .forEach(employee -> dynamoDbClient.putItem(PutItemRequest.builder()
+                        .tableName(DYNAMODB_TABLE_NAME)
+                        .item(EmployeeItemMapper.toItem(employee))
+                        .build()));
+
+        QueryEmployeesLambda queryEmployeesLambda = new QueryEmployeesLambda(dynamoDbClient);
+        List<String> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            Map<String, String> queryParameters = new HashMap<>(Map.of("jobPosition", "Astronaut", "limit", "2"));
+            if (cursor != null) {
+                queryParameters.put("cursor", cursor);
+            }
+            APIGatewayProxyRequestEvent apiGatewayProxyRequestEvent = new APIGatewayProxyRequestEvent();
+            apiGatewayProxyRequestEvent.setQueryStringParameters(queryParameters);
+            APIGatewayProxyResponseEvent responseEvent = queryEmployeesLambda.handleRequest(apiGatewayProxyRequestEvent, mockContext);
+            assertEquals(200, responseEvent.getStatusCode());
+
+            EmployeePage page = objectMapper.readValue(responseEvent.getBody(), EmployeePage.class);
+            assertTrue(page.items().size() <= 2);
+            page.items().forEach(employee -> {
+                assertEquals("Astronaut", employee.jobPosition());
+                ids.add(employee.id());
+            });
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // The index is sorted on id, so the pages come back in id order
+        assertEquals(List.of("astronaut-1", "astronaut-2", "astronaut-3"), ids);
+        assertTrue(pages >= 2);
+
+        APIGatewayProxyRequestEvent missingJobPosition = new APIGatewayProxyRequestEvent();
+        missingJobPosition.setQueryStringParameters(Map.of("limit", "2"));
+        assertEquals(400, queryEmployeesLambda.handleRequest(missingJobPosition, mockContext).getStatusCode());
+    }
+
+    @Test
+    @Order(22)
+    public void testQueryEmployeesLambda_ByLastNamePrefix() throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        // Added through the handlers so the derived lastName-index attributes are written the same way as in production
+        AddEmployeeLambda addEmployeeLambda = new AddEmployeeLambda(dynamoDbClient);
+        Arrays.asList(new Employee("zyx-1", "Ann", "Zyxwick", "Developer"),
+                        new Employee("zyx-2", "Bob", "ZYXA", "Developer"),
+                        new Employee("zyx-3", "Cem", "Zÿxel", "Developer"),
+                        new Employee("zyx-4", "Dan", "Zyrtec", "Developer"))
+                .forEach(employee -> {
+                    try {
+                        APIGatewayProxyRequestEvent addRequestEvent = new APIGatewayProxyRequestEvent();
+                        addRequestEvent.setBody(objectMapper.writeValueAsString(employee));
+                        assertEquals(201, addEmployeeLambda.handleRequest(addRequestEvent, mockContext).getStatusCode());
+                    } catch (JsonProcessingException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+        // A rename moves the employee in the index
+        APIGatewayProxyRequestEvent updateRequestEvent = new APIGatewayProxyRequestEvent();
+        updateRequestEvent.setBody(objectMapper.writeValueAsString(new Employee("zyx-4", "Dan", "Zyxton", "Developer")));
+        assertEquals(200, new UpdateEmployeeLambda(dynamoDbClient).handleRequest(updateRequestEvent, mockContext).getStatusCode());
+
+        QueryEmployeesLambda queryEmployeesLambda = new QueryEmployeesLambda(dynamoDbClient);
+        List<String> lastNames = new ArrayList<>();
+        String cursor = null;
+        do {
+            Map<String, String> queryParameters = new HashMap<>(Map.of("lastNamePrefix", "zYX", "limit", "2"));
+            if (cursor != null) {
+                queryParameters.put("cursor", cursor);
+            }
+            APIGatewayProxyRequestEvent apiGatewayProxyRequestEvent = new APIGatewayProxyRequestEvent();
+            apiGatewayProxyRequestEvent.setQueryStringParameters(queryParameters);
+            APIGatewayProxyResponseEvent responseEvent = queryEmployeesLambda.handleRequest(apiGatewayProxyRequestEvent, mockContext);
+            assertEquals(200, responseEvent.getStatusCode());
+
+            EmployeePage page = objectMapper.readValue(responseEvent.getBody(), EmployeePage.class);
+            page.items().forEach(employee -> lastNames.add(employee.lastName()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of("ZYXA", "Zÿxel", "Zyxton", "Zyxwick"), lastNames);
+    }
+
+    @Test
+    @Order(23)
+    public void testRetrieveEmployeeLambda_ETag() throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        APIGatewayProxyRequestEvent addRequestEvent = new APIGatewayProxyRequestEvent();
+        addRequestEvent.setBody(objectMapper.writeValueAsString(new Employee("etag-1", "Grace", "Hopper", "Engineer")));
+        assertEquals(201, new AddEmployeeLambda(dynamoDbClient).handleRequest(addRequestEvent, mockContext).getStatusCode());
+
+        RetrieveEmployeeLambda retrieveEmployeeLambda = new RetrieveEmployeeLambda(dynamoDbClient);
+        APIGatewayProxyRequestEvent retrieveRequestEvent = new APIGatewayProxyRequestEvent();
+        retrieveRequestEvent.setPathParameters(Map.of("id", "etag-1"));
+        APIGatewayProxyResponseEvent retrieved = retrieveEmployeeLambda.handleRequest(retrieveRequestEvent, mockContext);
+        assertEquals(200, retrieved.getStatusCode());
+        String etag = retrieved.getHeaders().get("ETag");
+        assertNotNull(etag);
+
+        // The version is read along with a sparse fieldset, so the ETag is the same
+        retrieveRequestEvent.setQueryStringParameters(Map.of("fields", "lastName"));
+        assertEquals(etag, retrieveEmployeeLambda.handleRequest(retrieveRequestEvent, mockContext).getHeaders().get("ETag"));
+
+        retrieveRequestEvent.setQueryStringParameters(null);
+        retrieveRequestEvent.setHeaders(Map.of("If-None-Match", etag));
+        APIGatewayProxyResponseEvent notModified = retrieveEmployeeLambda.handleRequest(retrieveRequestEvent, mockContext);
+        assertEquals(304, notModified.getStatusCode());
+        assertNull(notModified.getBody());
+
+        APIGatewayProxyRequestEvent updateRequestEvent = new APIGatewayProxyRequestEvent();
+        updateRequestEvent.setBody(objectMapper.writeValueAsString(new Employee("etag-1", "Grace", "Hopper", "Rear Admiral")));
+        assertEquals(200, new UpdateEmployeeLambda(dynamoDbClient).handleRequest(updateRequestEvent, mockContext).getStatusCode());
+        APIGatewayProxyResponseEvent updated = retrieveEmployeeLambda.handleRequest(retrieveRequestEvent, mockContext);
+        assertEquals(200, updated.getStatusCode());
+        assertNotEquals(etag, updated.getHeaders().get("ETag"));
+    }
+
+    @Test
+    @Order(24)
+    public void testRetrieveAllEmployeesLambda_SnapshotCache() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        EmployeeRepository employeeRepository = DynamoDbEmployeeRepository.rateLimited(dynamoDbClient);
+        RetrieveAllEmployeesLambda retrieveAllEmployeesLambda = new RetrieveAllEmployeesLambda(employeeRepository,
+                new DirectorySnapshotCache(Duration.ofMinutes(5), System::nanoTime));
+
+        APIGatewayProxyResponseEvent first = retrieveAllEmployeesLambda.handleRequest(new APIGatewayProxyRequestEvent(), mockContext);
+        assertEquals(200, first.getStatusCode());
+        long version = employeeRepository.directoryVersion();
+        assertEquals(first.getBody(), retrieveAllEmployeesLambda.handleRequest(new APIGatewayProxyRequestEvent(), mockContext).getBody());
+
+        // A write moves the version, and the next read sees it; the bump is on, as with EMPLOYEE_SNAPSHOT_CACHE=true
+        APIGatewayProxyRequestEvent addRequestEvent = new APIGatewayProxyRequestEvent();
+        addRequestEvent.setBody(objectMapper.writeValueAsString(new Employee("snapshot-1", "Ada", "Lovelace", "Analyst")));
+        AddEmployeeLambda addEmployeeLambda = new AddEmployeeLambda(
+                new DynamoDbEmployeeRepository(dynamoDbClient, () -> DirectoryVersion.bump(dynamoDbClient)),
+                new EmployeeCache(Duration.ofSeconds(30), 0, System::nanoTime));
+        assertEquals(201, addEmployeeLambda.handleRequest(addRequestEvent, mockContext).getStatusCode());
+        assertTrue(employeeRepository.directoryVersion() > version);
+        List<Employee> employees = objectMapper.readValue(
+                retrieveAllEmployeesLambda.handleRequest(new APIGatewayProxyRequestEvent(), mockContext).getBody(),
+                new TypeReference<List<Employee>>() {});
+        assertTrue(employees.stream().anyMatch(employee -> employee.id().equals("snapshot-1")));
+    }
+
+    @Test
+    @Order(25)
+    public void testAddEmployeeLambda_IdempotencyKeyReplaysTheFirstResponse() throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        AddEmployeeLambda addEmployeeLambda = new AddEmployeeLambda(dynamoDbClient);
+        APIGatewayProxyRequestEvent addRequestEvent = new APIGatewayProxyRequestEvent()
+                .withHeaders(Map.of("Idempotency-Key", "add-idempotent-1"))
+                .withBody(objectMapper.writeValueAsString(new Employee("idempotent-1", "Grace", "Hopper", "Admiral")));
+
+        APIGatewayProxyResponseEvent first = addEmployeeLambda.handleRequest(addRequestEvent, mockContext);
+        assertEquals(201, first.getStatusCode());
+        // A fresh instance has nothing in memory: the response comes from the EmployeeIdempotency table, not a 409
+        APIGatewayProxyResponseEvent retry = new AddEmployeeLambda(dynamoDbClient).handleRequest(addRequestEvent, mockContext);
+        assertEquals(201, retry.getStatusCode());
+        assertEquals(first.getBody(), retry.getBody());
+        assertEquals("true", retry.getHeaders().get("Idempotent-Replayed"));
+
+        APIGatewayProxyRequestEvent otherBody = new APIGatewayProxyRequestEvent()
+                .withHeaders(Map.of("Idempotency-Key", "add-idempotent-1"))
+                .withBody(objectMapper.writeValueAsString(new Employee("idempotent-2", "Alan", "Turing", "Analyst")));
+        assertEquals(422, addEmployeeLambda.handleRequest(otherBody, mockContext).getStatusCode());
+        assertNull(DynamoDbEmployeeRepository.rateLimited(dynamoDbClient).findById("idempotent-2"));
+    }
 }